@@ -0,0 +1,53 @@
+package com.gfos.ideaboard.config;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Liest Konfigurationswerte aus Umgebungsvariablen mit Fallback auf System-Properties
+ * (gleiche Reihenfolge wie bei JWT_SECRET in JwtUtil).
+ */
+public final class EnvConfig {
+
+    private EnvConfig() {}
+
+    public static String get(String name, String defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.trim().isEmpty()) {
+            value = System.getProperty(name);
+        }
+        return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String name, int defaultValue) {
+        String value = get(name, null);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String name, long defaultValue) {
+        String value = get(name, null);
+        if (value == null) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Kommagetrennte Liste; leere Einträge werden ignoriert.
+     */
+    public static List<String> getList(String name, String defaultValue) {
+        String value = get(name, defaultValue);
+        if (value == null) return List.of();
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,73 @@
+package com.gfos.ideaboard.dto;
+
+import java.util.List;
+
+/**
+ * Anfrage-DTO für mehrere Checklisten-Operationen in einer Transaktion.
+ * Unterstützte Typen: CREATE (title), UPDATE (itemId, title), TOGGLE (itemId, optional completed),
+ * REORDER (itemIds) und DELETE (itemId).
+ */
+public class ChecklistBatchRequest {
+
+    private List<Operation> operations;
+
+    public ChecklistBatchRequest() {}
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    public static class Operation {
+        private String type;
+        private Long itemId;
+        private String title;
+        private Boolean completed;
+        private List<Long> itemIds;
+
+        public Operation() {}
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public Long getItemId() {
+            return itemId;
+        }
+
+        public void setItemId(Long itemId) {
+            this.itemId = itemId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public Boolean getCompleted() {
+            return completed;
+        }
+
+        public void setCompleted(Boolean completed) {
+            this.completed = completed;
+        }
+
+        public List<Long> getItemIds() {
+            return itemIds;
+        }
+
+        public void setItemIds(List<Long> itemIds) {
+            this.itemIds = itemIds;
+        }
+    }
+}
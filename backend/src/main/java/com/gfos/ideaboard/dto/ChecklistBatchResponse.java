@@ -0,0 +1,48 @@
+package com.gfos.ideaboard.dto;
+
+import java.util.List;
+
+/**
+ * Antwort-DTO für Checklisten-Stapeloperationen.
+ * Enthält die vollständige Checkliste nach allen Operationen und die Statusübergänge wie beim Umschalten.
+ */
+public class ChecklistBatchResponse {
+
+    private List<ChecklistItemDTO> items;
+    private boolean transitionedToInProgress;
+    private boolean allTodosCompleted;
+
+    public ChecklistBatchResponse() {}
+
+    public ChecklistBatchResponse(List<ChecklistItemDTO> items, boolean transitionedToInProgress,
+                                  boolean allTodosCompleted) {
+        this.items = items;
+        this.transitionedToInProgress = transitionedToInProgress;
+        this.allTodosCompleted = allTodosCompleted;
+    }
+
+    // Getters und Setters
+    public List<ChecklistItemDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ChecklistItemDTO> items) {
+        this.items = items;
+    }
+
+    public boolean isTransitionedToInProgress() {
+        return transitionedToInProgress;
+    }
+
+    public void setTransitionedToInProgress(boolean transitionedToInProgress) {
+        this.transitionedToInProgress = transitionedToInProgress;
+    }
+
+    public boolean isAllTodosCompleted() {
+        return allTodosCompleted;
+    }
+
+    public void setAllTodosCompleted(boolean allTodosCompleted) {
+        this.allTodosCompleted = allTodosCompleted;
+    }
+}
@@ -1,7 +1,6 @@
 package com.gfos.ideaboard.dto;
 
 import com.gfos.ideaboard.entity.Comment;
-import com.gfos.ideaboard.entity.CommentReaction;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -22,7 +21,11 @@ public class CommentDTO {
 
     public CommentDTO() {}
 
-    public static CommentDTO fromEntity(Comment comment, Long currentUserId) {
+    /**
+     * Erstellt das DTO aus bereits aggregierten Reaktionen (Emoji → Anzahl) und den Emojis des aktuellen Benutzers,
+     * ohne die Reaktionen des Kommentars nachzuladen.
+     */
+    public static CommentDTO fromEntity(Comment comment, Map<String, Long> reactionCounts, List<String> userEmojis) {
         CommentDTO dto = new CommentDTO();
         dto.setId(comment.getId());
         dto.setIdeaId(comment.getIdea().getId());
@@ -32,24 +35,10 @@ public class CommentDTO {
         dto.setCreatedAt(comment.getCreatedAt());
         dto.setUpdatedAt(comment.getUpdatedAt());
 
-        // Reaktionen nach Emoji gruppieren
-        Map<String, Long> reactionCounts = comment.getReactions().stream()
-                .collect(Collectors.groupingBy(CommentReaction::getEmoji, Collectors.counting()));
-
         dto.setReactions(reactionCounts.entrySet().stream()
                 .map(entry -> new ReactionDTO(entry.getKey(), entry.getValue().intValue()))
                 .collect(Collectors.toList()));
-
-        // Reaktions-Emojis des aktuellen Benutzers sammeln
-        if (currentUserId != null) {
-            List<String> userEmojis = comment.getReactions().stream()
-                    .filter(reaction -> reaction.getUser().getId().equals(currentUserId))
-                    .map(CommentReaction::getEmoji)
-                    .collect(Collectors.toList());
-            dto.setCurrentUserReactionEmojis(userEmojis);
-        } else {
-            dto.setCurrentUserReactionEmojis(new ArrayList<>());
-        }
+        dto.setCurrentUserReactionEmojis(new ArrayList<>(userEmojis));
 
         return dto;
     }
@@ -59,6 +59,31 @@ public class IdeaDTO {
         return dto;
     }
 
+    /**
+     * Flache Kopie mit benutzerspezifischem Like-Status, z.B. für zwischengespeicherte Listen.
+     */
+    public IdeaDTO withLikedByCurrentUser(boolean liked) {
+        IdeaDTO copy = new IdeaDTO();
+        copy.setId(id);
+        copy.setTitle(title);
+        copy.setDescription(description);
+        copy.setCategory(category);
+        copy.setStatus(status);
+        copy.setProgressPercentage(progressPercentage);
+        copy.setAuthor(author);
+        copy.setTags(tags);
+        copy.setAttachments(attachments);
+        copy.setLikeCount(likeCount);
+        copy.setCommentCount(commentCount);
+        copy.setViewCount(viewCount);
+        copy.setIsFeatured(isFeatured);
+        copy.setIsLikedByCurrentUser(liked);
+        copy.setChecklistItems(checklistItems);
+        copy.setCreatedAt(createdAt);
+        copy.setUpdatedAt(updatedAt);
+        return copy;
+    }
+
     // Getters und Setters
     public Long getId() {
         return id;
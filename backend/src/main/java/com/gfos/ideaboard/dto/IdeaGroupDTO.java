@@ -32,6 +32,14 @@ public class IdeaGroupDTO {
     }
 
     public static IdeaGroupDTO fromEntity(IdeaGroup group, List<GroupMember> members, int unreadCount, GroupMessageDTO lastMessage) {
+        return fromEntity(group, members, members != null ? members.size() : 0, unreadCount, lastMessage);
+    }
+
+    /**
+     * Wie oben, aber {@code members} kann eine Vorschau sein; {@code memberCount} ist die tatsächliche Anzahl.
+     */
+    public static IdeaGroupDTO fromEntity(IdeaGroup group, List<GroupMember> members, int memberCount,
+                                          int unreadCount, GroupMessageDTO lastMessage) {
         IdeaGroupDTO dto = new IdeaGroupDTO();
         dto.setId(group.getId());
         dto.setIdeaId(group.getIdea() != null ? group.getIdea().getId() : null);
@@ -42,7 +50,7 @@ public class IdeaGroupDTO {
         dto.setMembers(members != null ? members.stream()
                 .map(GroupMemberDTO::fromEntity)
                 .collect(Collectors.toList()) : List.of());
-        dto.setMemberCount(members != null ? members.size() : 0);
+        dto.setMemberCount(memberCount);
         dto.setUnreadCount(unreadCount);
         dto.setLastMessage(lastMessage);
         dto.setCreatedAt(group.getCreatedAt());
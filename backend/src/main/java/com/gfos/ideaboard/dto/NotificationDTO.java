@@ -13,6 +13,7 @@ public class NotificationDTO {
     private String link;
     private Boolean isRead;
     private UserDTO sender;
+    private Integer aggregateCount;
     private LocalDateTime createdAt;
 
     public NotificationDTO() {}
@@ -28,6 +29,7 @@ public class NotificationDTO {
         if (notification.getSender() != null) {
             dto.setSender(UserDTO.fromEntity(notification.getSender()));
         }
+        dto.setAggregateCount(notification.getAggregateCount());
         dto.setCreatedAt(notification.getCreatedAt());
         return dto;
     }
@@ -89,6 +91,14 @@ public class NotificationDTO {
         this.sender = sender;
     }
 
+    public Integer getAggregateCount() {
+        return aggregateCount;
+    }
+
+    public void setAggregateCount(Integer aggregateCount) {
+        this.aggregateCount = aggregateCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,229 @@
+package com.gfos.ideaboard.dto;
+
+import com.gfos.ideaboard.entity.IdeaStatus;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Momentaufnahme aller Plattformkennzahlen. Wird in einem einzigen Datenbankaufruf von
+ * StatisticsService erzeugt und von Dashboard, CSV- und PDF-Export gemeinsam verwendet.
+ */
+public class PlatformStatistics {
+
+    private long totalIdeas;
+    private Map<IdeaStatus, Long> ideasByStatus = new EnumMap<>(IdeaStatus.class);
+    private long ideasThisWeek;
+    private long totalUsers;
+    private long activeUsers;
+    private long totalLikes;
+    private long totalComments;
+    private long activeSurveys;
+    private List<CategoryCount> categoryBreakdown = new ArrayList<>();
+    private List<DailyActivity> weeklyActivity = new ArrayList<>();
+    private List<TopIdea> topIdeas = new ArrayList<>();
+    private LocalDateTime generatedAt;
+
+    public PlatformStatistics() {}
+
+    public long getIdeasByStatus(IdeaStatus status) {
+        return ideasByStatus.getOrDefault(status, 0L);
+    }
+
+    public String getPopularCategory() {
+        return categoryBreakdown.isEmpty() ? "N/A" : categoryBreakdown.get(0).getCategory();
+    }
+
+    // Getters und Setters
+    public long getTotalIdeas() {
+        return totalIdeas;
+    }
+
+    public void setTotalIdeas(long totalIdeas) {
+        this.totalIdeas = totalIdeas;
+    }
+
+    public Map<IdeaStatus, Long> getIdeasByStatus() {
+        return ideasByStatus;
+    }
+
+    public void setIdeasByStatus(Map<IdeaStatus, Long> ideasByStatus) {
+        this.ideasByStatus = ideasByStatus;
+    }
+
+    public long getIdeasThisWeek() {
+        return ideasThisWeek;
+    }
+
+    public void setIdeasThisWeek(long ideasThisWeek) {
+        this.ideasThisWeek = ideasThisWeek;
+    }
+
+    public long getTotalUsers() {
+        return totalUsers;
+    }
+
+    public void setTotalUsers(long totalUsers) {
+        this.totalUsers = totalUsers;
+    }
+
+    public long getActiveUsers() {
+        return activeUsers;
+    }
+
+    public void setActiveUsers(long activeUsers) {
+        this.activeUsers = activeUsers;
+    }
+
+    public long getTotalLikes() {
+        return totalLikes;
+    }
+
+    public void setTotalLikes(long totalLikes) {
+        this.totalLikes = totalLikes;
+    }
+
+    public long getTotalComments() {
+        return totalComments;
+    }
+
+    public void setTotalComments(long totalComments) {
+        this.totalComments = totalComments;
+    }
+
+    public long getActiveSurveys() {
+        return activeSurveys;
+    }
+
+    public void setActiveSurveys(long activeSurveys) {
+        this.activeSurveys = activeSurveys;
+    }
+
+    public List<CategoryCount> getCategoryBreakdown() {
+        return categoryBreakdown;
+    }
+
+    public void setCategoryBreakdown(List<CategoryCount> categoryBreakdown) {
+        this.categoryBreakdown = categoryBreakdown;
+    }
+
+    public List<DailyActivity> getWeeklyActivity() {
+        return weeklyActivity;
+    }
+
+    public void setWeeklyActivity(List<DailyActivity> weeklyActivity) {
+        this.weeklyActivity = weeklyActivity;
+    }
+
+    public List<TopIdea> getTopIdeas() {
+        return topIdeas;
+    }
+
+    public void setTopIdeas(List<TopIdea> topIdeas) {
+        this.topIdeas = topIdeas;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+
+    public static class CategoryCount {
+        private String category;
+        private long count;
+
+        public CategoryCount() {}
+
+        public CategoryCount(String category, long count) {
+            this.category = category;
+            this.count = count;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+
+    public static class DailyActivity {
+        private String date;
+        private long ideas;
+
+        public DailyActivity() {}
+
+        public DailyActivity(String date, long ideas) {
+            this.date = date;
+            this.ideas = ideas;
+        }
+
+        public String getDate() {
+            return date;
+        }
+
+        public void setDate(String date) {
+            this.date = date;
+        }
+
+        public long getIdeas() {
+            return ideas;
+        }
+
+        public void setIdeas(long ideas) {
+            this.ideas = ideas;
+        }
+    }
+
+    public static class TopIdea {
+        private String title;
+        private String author;
+        private long likes;
+
+        public TopIdea() {}
+
+        public TopIdea(String title, String author, long likes) {
+            this.title = title;
+            this.author = author;
+            this.likes = likes;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+
+        public void setAuthor(String author) {
+            this.author = author;
+        }
+
+        public long getLikes() {
+            return likes;
+        }
+
+        public void setLikes(long likes) {
+            this.likes = likes;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.gfos.ideaboard.entity.Survey;
 import com.gfos.ideaboard.entity.SurveyOption;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class SurveyDTO {
@@ -42,13 +43,54 @@ public class SurveyDTO {
         dto.setExpiresAt(survey.getExpiresAt());
         dto.setCreatedAt(survey.getCreatedAt());
 
-        // Prozentsätze berechnen
-        if (dto.getTotalVotes() > 0) {
-            dto.getOptions().forEach(opt ->
-                    opt.setPercentage((double) opt.getVoteCount() / dto.getTotalVotes() * 100));
+        dto.computePercentages();
+        return dto;
+    }
+
+    /**
+     * Kopie mit anderen Zählerständen (z.B. Live-Werte aus dem Speicher); die Optionen werden neu angelegt,
+     * damit zwischengespeicherte Objekte unverändert bleiben.
+     */
+    public SurveyDTO withCounts(Map<Long, Integer> voteCounts, int total) {
+        SurveyDTO copy = withUserVotes(userVotedOptionIds);
+        copy.setOptions(options.stream().map(opt -> {
+            SurveyOptionDTO option = new SurveyOptionDTO();
+            option.setId(opt.getId());
+            option.setOptionText(opt.getOptionText());
+            option.setVoteCount(voteCounts.getOrDefault(opt.getId(), opt.getVoteCount()));
+            return option;
+        }).collect(Collectors.toList()));
+        copy.setTotalVotes(total);
+        copy.computePercentages();
+        return copy;
+    }
+
+    // Prozentsätze berechnen
+    private void computePercentages() {
+        if (totalVotes != null && totalVotes > 0) {
+            options.forEach(opt -> opt.setPercentage((double) opt.getVoteCount() / totalVotes * 100));
         }
+    }
 
-        return dto;
+    /**
+     * Flache Kopie mit den Stimmen des aktuellen Benutzers, z.B. für zwischengespeicherte Listen.
+     */
+    public SurveyDTO withUserVotes(List<Long> votedOptionIds) {
+        SurveyDTO copy = new SurveyDTO();
+        copy.setId(id);
+        copy.setCreator(creator);
+        copy.setQuestion(question);
+        copy.setDescription(description);
+        copy.setOptions(options);
+        copy.setIsActive(isActive);
+        copy.setIsAnonymous(isAnonymous);
+        copy.setAllowMultipleVotes(allowMultipleVotes);
+        copy.setTotalVotes(totalVotes);
+        copy.setHasVoted(votedOptionIds != null && !votedOptionIds.isEmpty());
+        copy.setUserVotedOptionIds(votedOptionIds);
+        copy.setExpiresAt(expiresAt);
+        copy.setCreatedAt(createdAt);
+        return copy;
     }
 
     // Getters und Setters
@@ -11,7 +11,8 @@ import java.util.List;
 @Table(name = "comments")
 @NamedQueries({
     @NamedQuery(name = "Comment.findByIdea",
-                query = "SELECT c FROM Comment c WHERE c.idea.id = :ideaId ORDER BY c.createdAt DESC")
+                query = "SELECT c FROM Comment c JOIN FETCH c.author WHERE c.idea.id = :ideaId " +
+                        "ORDER BY c.createdAt DESC, c.id DESC")
 })
 public class Comment {
 
@@ -11,7 +11,13 @@ import java.time.LocalDateTime;
 })
 @NamedQueries({
     @NamedQuery(name = "CommentReaction.findByCommentAndUserAndEmoji",
-                query = "SELECT r FROM CommentReaction r WHERE r.comment.id = :commentId AND r.user.id = :userId AND r.emoji = :emoji")
+                query = "SELECT r FROM CommentReaction r WHERE r.comment.id = :commentId AND r.user.id = :userId AND r.emoji = :emoji"),
+    @NamedQuery(name = "CommentReaction.countByComments",
+                query = "SELECT r.comment.id, r.emoji, COUNT(r) FROM CommentReaction r " +
+                        "WHERE r.comment.id IN :commentIds GROUP BY r.comment.id, r.emoji"),
+    @NamedQuery(name = "CommentReaction.findEmojisByUser",
+                query = "SELECT r.comment.id, r.emoji FROM CommentReaction r " +
+                        "WHERE r.user.id = :userId AND r.comment.id IN :commentIds")
 })
 public class CommentReaction {
 
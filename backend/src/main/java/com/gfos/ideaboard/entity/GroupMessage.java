@@ -9,6 +9,8 @@ import java.time.LocalDateTime;
 @NamedQueries({
     @NamedQuery(name = "GroupMessage.findByGroup",
                 query = "SELECT gm FROM GroupMessage gm LEFT JOIN FETCH gm.sender WHERE gm.group.id = :groupId ORDER BY gm.createdAt ASC"),
+    @NamedQuery(name = "GroupMessage.findByGroupAfter",
+                query = "SELECT gm FROM GroupMessage gm LEFT JOIN FETCH gm.sender WHERE gm.group.id = :groupId AND gm.id > :afterId ORDER BY gm.id ASC"),
     @NamedQuery(name = "GroupMessage.findRecentByGroup",
                 query = "SELECT gm FROM GroupMessage gm LEFT JOIN FETCH gm.sender WHERE gm.group.id = :groupId ORDER BY gm.createdAt DESC"),
     @NamedQuery(name = "GroupMessage.countUnreadByUser",
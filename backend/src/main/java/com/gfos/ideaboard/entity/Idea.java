@@ -57,6 +57,13 @@ public class Idea {
     @Column(name = "view_count", nullable = false)
     private Integer viewCount = 0;
 
+    // Werden ausschließlich vom Datenbank-Trigger gepflegt
+    @Column(name = "total_items", nullable = false, insertable = false, updatable = false)
+    private Integer totalItems = 0;
+
+    @Column(name = "completed_items", nullable = false, insertable = false, updatable = false)
+    private Integer completedItems = 0;
+
     @Column(name = "is_featured", nullable = false)
     private Boolean isFeatured = false;
 
@@ -177,6 +184,14 @@ public class Idea {
         this.viewCount = viewCount;
     }
 
+    public Integer getTotalItems() {
+        return totalItems;
+    }
+
+    public Integer getCompletedItems() {
+        return completedItems;
+    }
+
     public Boolean getIsFeatured() {
         return isFeatured;
     }
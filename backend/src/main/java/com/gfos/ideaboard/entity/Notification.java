@@ -56,6 +56,12 @@ public class Notification {
     @Column(name = "related_entity_id")
     private Long relatedEntityId;
 
+    @Column(name = "coalesce_key", length = 100)
+    private String coalesceKey;
+
+    @Column(name = "aggregate_count", nullable = false)
+    private Integer aggregateCount = 1;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -145,6 +151,22 @@ public class Notification {
         this.relatedEntityId = relatedEntityId;
     }
 
+    public String getCoalesceKey() {
+        return coalesceKey;
+    }
+
+    public void setCoalesceKey(String coalesceKey) {
+        this.coalesceKey = coalesceKey;
+    }
+
+    public Integer getAggregateCount() {
+        return aggregateCount;
+    }
+
+    public void setAggregateCount(Integer aggregateCount) {
+        this.aggregateCount = aggregateCount;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
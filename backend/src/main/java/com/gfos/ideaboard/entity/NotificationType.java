@@ -8,5 +8,6 @@ public enum NotificationType {
     BADGE_EARNED,
     LEVEL_UP,
     MENTION,
-    MESSAGE
+    MESSAGE,
+    DIGEST
 }
@@ -11,7 +11,8 @@ import java.util.List;
 @Table(name = "surveys")
 @NamedQueries({
     @NamedQuery(name = "Survey.findActive",
-                query = "SELECT s FROM Survey s WHERE s.isActive = true ORDER BY s.createdAt DESC"),
+                query = "SELECT s FROM Survey s WHERE s.isActive = true " +
+                        "AND (s.expiresAt IS NULL OR s.expiresAt > CURRENT_TIMESTAMP) ORDER BY s.createdAt DESC"),
     @NamedQuery(name = "Survey.findByCreator",
                 query = "SELECT s FROM Survey s WHERE s.creator.id = :creatorId ORDER BY s.createdAt DESC")
 })
@@ -136,6 +137,10 @@ public class Survey {
         this.expiresAt = expiresAt;
     }
 
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.isAfter(LocalDateTime.now());
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
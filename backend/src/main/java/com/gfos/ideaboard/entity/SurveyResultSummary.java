@@ -0,0 +1,53 @@
+package com.gfos.ideaboard.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Endstand einer abgelaufenen Umfrage. Wird einmalig vom Ablauf-Job geschrieben und nicht mehr geändert.
+ */
+@Entity
+@Table(name = "survey_result_summaries")
+@NamedQueries({
+    @NamedQuery(name = "SurveyResultSummary.findBySurvey",
+                query = "SELECT r FROM SurveyResultSummary r WHERE r.surveyId = :surveyId")
+})
+public class SurveyResultSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "survey_id", nullable = false, unique = true, updatable = false)
+    private Long surveyId;
+
+    @Column(name = "total_votes", nullable = false, updatable = false)
+    private Integer totalVotes;
+
+    @Column(nullable = false, updatable = false, columnDefinition = "TEXT")
+    private String results;
+
+    @Column(name = "closed_at", nullable = false, updatable = false)
+    private LocalDateTime closedAt;
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public Long getSurveyId() {
+        return surveyId;
+    }
+
+    public Integer getTotalVotes() {
+        return totalVotes;
+    }
+
+    public String getResults() {
+        return results;
+    }
+
+    public LocalDateTime getClosedAt() {
+        return closedAt;
+    }
+}
@@ -0,0 +1,14 @@
+package com.gfos.ideaboard.event;
+
+/**
+ * Ereignis, das über den {@link EventBus} an alle Backend-Instanzen verteilt wird.
+ * Ereignisse mit gleichem Schlüssel werden pro Instanz in Reihenfolge zugestellt.
+ * Neue Ereignistypen müssen in {@code permits} und in {@link EventBus} registriert werden.
+ */
+public sealed interface ClusterEvent permits IdeaChanged, MembershipChanged, UserRoleChanged {
+
+    /**
+     * Schlüssel für die Reihenfolge, z.B. "user:42".
+     */
+    String key();
+}
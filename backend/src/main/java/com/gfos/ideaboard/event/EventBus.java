@@ -0,0 +1,245 @@
+package com.gfos.ideaboard.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.service.PgNotificationListener;
+import com.gfos.ideaboard.util.SerialLanes;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ereignisbus zwischen den Backend-Instanzen über PostgreSQL NOTIFY auf dem Kanal {@value #CHANNEL}.
+ * <p>
+ * {@link #publish} sendet das Ereignis innerhalb der laufenden Transaktion; andere Instanzen erhalten es erst
+ * beim Commit über die Listener-Verbindung des {@link PgNotificationListener}. Auf der eigenen Instanz wird es
+ * nach dem Commit in dieselbe Spur eingereiht wie entfernte Ereignisse und der aufrufende Thread wartet auf die
+ * Zustellung, damit unmittelbar folgende Anfragen den neuen Stand sehen; das eigene Echo aus PostgreSQL wird
+ * anhand der Knoten-ID verworfen.
+ * <p>
+ * Ereignisse werden nach {@link ClusterEvent#key()} auf eine feste Zahl von Spuren ({@link SerialLanes}) verteilt. Innerhalb einer Spur
+ * werden sie nacheinander und in Eingangsreihenfolge zugestellt, verschiedene Spuren laufen parallel auf dem
+ * Executor. Vor dem ersten LISTEN und nach einem Verbindungsabbruch können Ereignisse fehlen; dafür gibt es
+ * {@link #onResync}.
+ */
+@ApplicationScoped
+public class EventBus implements PgNotificationListener.Subscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventBus.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    static final String CHANNEL = "ideaboard_events";
+
+    // NOTIFY-Nutzdaten sind auf knapp 8000 Bytes begrenzt
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    // Höchstens so lange wartet der publizierende Thread auf die lokale Zustellung
+    private static final long LOCAL_DELIVERY_TIMEOUT_MILLIS = 2000;
+
+    // Typname im Nachrichtenformat -> Ereignisklasse
+    private static final Map<String, Class<? extends ClusterEvent>> EVENT_TYPES = Map.of(
+            IdeaChanged.class.getSimpleName(), IdeaChanged.class,
+            MembershipChanged.class.getSimpleName(), MembershipChanged.class,
+            UserRoleChanged.class.getSimpleName(), UserRoleChanged.class);
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Inject
+    private PgNotificationListener notificationListener;
+
+    private final Map<Class<? extends ClusterEvent>, List<Consumer<ClusterEvent>>> handlers = new ConcurrentHashMap<>();
+    private final List<Runnable> resyncActions = new CopyOnWriteArrayList<>();
+
+    private String nodeId;
+    private SerialLanes<Pending> lanes;
+
+    private record Pending(ClusterEvent event, CompletableFuture<Void> delivered) {
+    }
+
+    public EventBus() {
+    }
+
+    /**
+     * Ohne Container, für Tests: kein {@link PgNotificationListener}, Zustellung auf dem angegebenen Executor.
+     */
+    EventBus(String nodeId, int laneCount, Executor laneExecutor) {
+        configure(nodeId, laneCount, laneExecutor);
+    }
+
+    @PostConstruct
+    void init() {
+        configure(EnvConfig.get("NODE_ID", UUID.randomUUID().toString()),
+                EnvConfig.getInt("EVENT_BUS_LANES", 8), executor);
+        notificationListener.subscribe(CHANNEL, this);
+    }
+
+    private void configure(String nodeId, int laneCount, Executor laneExecutor) {
+        this.nodeId = nodeId;
+        lanes = new SerialLanes<>(laneCount, laneExecutor, pending -> {
+            try {
+                dispatch(pending.event());
+            } finally {
+                pending.delivered().complete(null);
+            }
+        });
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Registriert einen Empfänger für einen Ereignistyp. Empfänger sollten schnell und idempotent sein.
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends ClusterEvent> void subscribe(Class<E> type, Consumer<? super E> handler) {
+        handlers.computeIfAbsent(type, t -> new CopyOnWriteArrayList<>())
+                .add(event -> handler.accept((E) event));
+    }
+
+    /**
+     * Registriert eine Aktion, die den Zustand neu abgleicht, sobald die Listener-Verbindung den Kanal abhört:
+     * nach dem ersten LISTEN und nach jeder Unterbrechung. Wer beim Start selbst lädt, sollte die Aktion vorher
+     * registrieren, damit mindestens ein Laden nach dem ersten LISTEN stattfindet.
+     */
+    public void onResync(Runnable action) {
+        resyncActions.add(action);
+    }
+
+    /**
+     * Veröffentlicht ein Ereignis. Muss innerhalb einer Transaktion aufgerufen werden; bei einem Rollback
+     * wird es weder lokal noch auf anderen Instanzen zugestellt.
+     */
+    public void publish(ClusterEvent event) {
+        String payload = serialize(event);
+        PgNotificationListener.notify(em, CHANNEL, payload);
+
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    deliverLocal(event);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stellt ein eigenes Ereignis nach dem Commit zu, in Reihenfolge mit bereits eingereihten Ereignissen
+     * desselben Schlüssels.
+     */
+    void deliverLocal(ClusterEvent event) {
+        Pending pending = new Pending(event, new CompletableFuture<>());
+        if (lanes.enqueueOrRun(event.key(), pending)) {
+            return;
+        }
+        // Ein laufender Durchlauf stellt das Ereignis nach den bereits eingereihten zu
+        try {
+            pending.delivered().get(LOCAL_DELIVERY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Ereignis {} nach {} ms noch nicht zugestellt", event, LOCAL_DELIVERY_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // dispatch() fängt Fehler der Empfänger selbst ab
+        }
+    }
+
+    @Override
+    public void onNotification(String payload) {
+        // Format: {"node": "...", "type": "MembershipChanged", "event": {...}}
+        ClusterEvent event;
+        try {
+            JsonNode envelope = objectMapper.readTree(payload);
+            if (nodeId.equals(envelope.path("node").asText())) {
+                // Eigene Ereignisse wurden bereits nach dem Commit über deliverLocal zugestellt
+                return;
+            }
+            Class<? extends ClusterEvent> type = EVENT_TYPES.get(envelope.path("type").asText());
+            if (type == null) {
+                logger.warn("Unbekannter Ereignistyp auf Kanal {}: {}", CHANNEL, payload);
+                return;
+            }
+            event = objectMapper.treeToValue(envelope.path("event"), type);
+        } catch (JsonProcessingException e) {
+            logger.warn("Ungültiges Ereignis auf Kanal {}: {}", CHANNEL, payload);
+            return;
+        }
+        lanes.enqueue(event.key(), new Pending(event, new CompletableFuture<>()));
+    }
+
+    @Override
+    public void onReconnect() {
+        for (Runnable action : resyncActions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                logger.warn("Abgleich nach Neuverbindung fehlgeschlagen", e);
+            }
+        }
+    }
+
+    private void dispatch(ClusterEvent event) {
+        for (Consumer<ClusterEvent> handler : handlers.getOrDefault(event.getClass(), List.of())) {
+            try {
+                handler.accept(event);
+            } catch (RuntimeException e) {
+                logger.warn("Verarbeitung des Ereignisses {} fehlgeschlagen", event, e);
+            }
+        }
+    }
+
+    String serialize(ClusterEvent event) {
+        ObjectNode envelope = objectMapper.createObjectNode();
+        envelope.put("node", nodeId);
+        envelope.put("type", event.getClass().getSimpleName());
+        envelope.set("event", objectMapper.valueToTree(event));
+        try {
+            String payload = objectMapper.writeValueAsString(envelope);
+            if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                throw new IllegalArgumentException("Ereignis zu groß für NOTIFY: " + event.getClass().getSimpleName());
+            }
+            return payload;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Ereignis konnte nicht serialisiert werden", e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.gfos.ideaboard.event;
+
+/**
+ * Eine Idee wurde angelegt, geändert, im Status geändert oder gelöscht (siehe Konstanten für change).
+ */
+public record IdeaChanged(Long ideaId, String change) implements ClusterEvent {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    public static final String DELETED = "DELETED";
+
+    @Override
+    public String key() {
+        return "idea:" + ideaId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.gfos.ideaboard.event;
+
+/**
+ * Ein Benutzer ist einer Gruppe beigetreten (joined = true) oder hat sie verlassen.
+ */
+public record MembershipChanged(Long groupId, Long userId, boolean joined) implements ClusterEvent {
+
+    @Override
+    public String key() {
+        return "user:" + userId;
+    }
+}
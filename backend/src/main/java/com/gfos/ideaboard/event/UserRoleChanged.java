@@ -0,0 +1,13 @@
+package com.gfos.ideaboard.event;
+
+/**
+ * Rolle oder Aktivstatus eines Benutzers hat sich geändert; vor notBeforeMillis ausgestellte Tokens sind ungültig.
+ * Die Rolle wird als Name von {@link com.gfos.ideaboard.entity.UserRole} übertragen.
+ */
+public record UserRoleChanged(Long userId, String role, boolean active, long notBeforeMillis) implements ClusterEvent {
+
+    @Override
+    public String key() {
+        return "user:" + userId;
+    }
+}
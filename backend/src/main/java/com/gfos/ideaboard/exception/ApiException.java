@@ -39,6 +39,10 @@ public class ApiException extends RuntimeException {
         return new ApiException(message, Response.Status.CONFLICT);
     }
 
+    public static ApiException tooManyRequests(String message) {
+        return new ApiException(message, Response.Status.TOO_MANY_REQUESTS);
+    }
+
     public static ApiException serverError(String message) {
         return new ApiException(message, Response.Status.INTERNAL_SERVER_ERROR);
     }
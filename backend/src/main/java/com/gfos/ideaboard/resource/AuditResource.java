@@ -10,6 +10,9 @@ import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Path("/audit-logs")
@@ -21,16 +24,25 @@ public class AuditResource {
     @Inject
     private AuditService auditService;
 
+    /**
+     * Audit-Einträge, neueste zuerst. Optional eingeschränkt auf from (inklusive) bis to (exklusive).
+     * Für die nächste Seite createdAt und id des letzten Eintrags als before/beforeId übergeben.
+     */
     @GET
     public Response getAuditLogs(
             @QueryParam("limit") @DefaultValue("100") int limit,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to,
+            @QueryParam("before") String before,
+            @QueryParam("beforeId") Long beforeId,
             @Context ContainerRequestContext requestContext) {
         String role = (String) requestContext.getProperty("role");
         if (!"ADMIN".equals(role)) {
             throw ApiException.forbidden("Nur Administratoren können Audit-Protokolle anzeigen");
         }
 
-        List<AuditLogDTO> logs = auditService.getRecentLogs(limit);
+        List<AuditLogDTO> logs = auditService.getLogs(null, null, parseTime(from, "from"), parseTime(to, "to"),
+                parseTime(before, "before"), beforeId, limit);
         return Response.ok(logs).build();
     }
 
@@ -39,13 +51,33 @@ public class AuditResource {
     public Response getAuditLogsByEntity(
             @PathParam("entityType") String entityType,
             @PathParam("entityId") Long entityId,
+            @QueryParam("limit") @DefaultValue("100") int limit,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to,
+            @QueryParam("before") String before,
+            @QueryParam("beforeId") Long beforeId,
             @Context ContainerRequestContext requestContext) {
         String role = (String) requestContext.getProperty("role");
         if (!"ADMIN".equals(role)) {
             throw ApiException.forbidden("Nur Administratoren können Audit-Protokolle anzeigen");
         }
 
-        List<AuditLogDTO> logs = auditService.getLogsByEntity(entityType, entityId);
+        List<AuditLogDTO> logs = auditService.getLogs(entityType, entityId, parseTime(from, "from"),
+                parseTime(to, "to"), parseTime(before, "before"), beforeId, limit);
         return Response.ok(logs).build();
     }
+
+    /**
+     * Akzeptiert ISO-Zeitstempel (2024-05-01T12:00:00) oder ein Datum (2024-05-01 = Tagesbeginn).
+     */
+    private LocalDateTime parseTime(String value, String name) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return value.length() == 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw ApiException.badRequest("Ungültiger Zeitpunkt für " + name + ": " + value);
+        }
+    }
 }
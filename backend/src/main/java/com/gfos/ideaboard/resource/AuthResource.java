@@ -1,29 +1,54 @@
 package com.gfos.ideaboard.resource;
 
+import com.gfos.ideaboard.config.EnvConfig;
 import com.gfos.ideaboard.dto.AuthRequest;
 import com.gfos.ideaboard.dto.AuthResponse;
 import com.gfos.ideaboard.dto.RegisterRequest;
 import com.gfos.ideaboard.service.AuthService;
 import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 @Path("/auth")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 public class AuthResource {
 
+    private static final long LOGIN_TIMEOUT_SECONDS = 30;
+
+    // Nur Anfragen dieser Adressen dürfen die Client-IP per X-Real-IP vorgeben (Reverse-Proxy, Vite-Dev-Server)
+    private static final Set<String> TRUSTED_PROXIES =
+            Set.copyOf(EnvConfig.getList("TRUSTED_PROXIES", "127.0.0.1,::1,0:0:0:0:0:0:0:1"));
+
     @Inject
     private AuthService authService;
 
     @POST
     @Path("/login")
-    public Response login(@Valid AuthRequest request) {
-        AuthResponse response = authService.login(request);
-        return Response.ok(response).build();
+    public void login(@Valid AuthRequest request,
+                      @Context HttpServletRequest httpRequest,
+                      @Suspended AsyncResponse asyncResponse) {
+        // BCrypt läuft im Hashing-Pool; der HTTP-Worker wird sofort wieder frei
+        asyncResponse.setTimeout(LOGIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        authService.login(request, getClientIp(httpRequest))
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        asyncResponse.resume(error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error);
+                    } else {
+                        asyncResponse.resume(Response.ok(response).build());
+                    }
+                });
     }
 
     @POST
@@ -53,4 +78,18 @@ public class AuthResource {
         // Dieser Endpunkt existiert für eine zukünftige Token-Blacklist-Implementierung.
         return Response.ok(Map.of("message", "Erfolgreich abgemeldet")).build();
     }
+
+    private String getClientIp(HttpServletRequest request) {
+        // X-Real-IP wird vom nginx-Proxy gesetzt (siehe docker/frontend/nginx.conf). Direkte Anfragen an den
+        // Backend-Port könnten den Header fälschen und so die Login-Drosselung umgehen.
+        String remoteAddr = request.getRemoteAddr();
+        if (!TRUSTED_PROXIES.contains(remoteAddr)) {
+            return remoteAddr;
+        }
+        String realIp = request.getHeader("X-Real-IP");
+        if (realIp != null && !realIp.isBlank()) {
+            return realIp.trim();
+        }
+        return remoteAddr;
+    }
 }
@@ -1,7 +1,10 @@
 package com.gfos.ideaboard.resource;
 
+import com.gfos.ideaboard.dto.ExportJobDTO;
 import com.gfos.ideaboard.exception.ApiException;
 import com.gfos.ideaboard.security.Secured;
+import com.gfos.ideaboard.service.AnalyticsExportService;
+import com.gfos.ideaboard.service.ExportJobService;
 import com.gfos.ideaboard.service.ExportService;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
@@ -9,7 +12,10 @@ import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
-import java.io.IOException;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
 
 @Path("/export")
 @Secured
@@ -18,6 +24,12 @@ public class ExportResource {
     @Inject
     private ExportService exportService;
 
+    @Inject
+    private ExportJobService exportJobService;
+
+    @Inject
+    private AnalyticsExportService analyticsExportService;
+
     @GET
     @Path("/ideas/csv")
     @Produces("text/csv")
@@ -27,7 +39,7 @@ public class ExportResource {
             throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
         }
 
-        byte[] csv = exportService.exportIdeasToCsv();
+        StreamingOutput csv = exportService::exportIdeasToCsv;
         return Response.ok(csv)
                 .header("Content-Disposition", "attachment; filename=\"ideas.csv\"")
                 .build();
@@ -42,7 +54,7 @@ public class ExportResource {
             throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
         }
 
-        byte[] csv = exportService.exportStatisticsToCsv();
+        StreamingOutput csv = exportService::exportStatisticsToCsv;
         return Response.ok(csv)
                 .header("Content-Disposition", "attachment; filename=\"statistics.csv\"")
                 .build();
@@ -57,14 +69,10 @@ public class ExportResource {
             throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
         }
 
-        try {
-            byte[] pdf = exportService.exportStatisticsToPdf();
-            return Response.ok(pdf)
-                    .header("Content-Disposition", "attachment; filename=\"statistics.pdf\"")
-                    .build();
-        } catch (IOException e) {
-            throw ApiException.serverError("Fehler beim Generieren des PDF: " + e.getMessage());
-        }
+        StreamingOutput pdf = exportService::exportStatisticsToPdf;
+        return Response.ok(pdf)
+                .header("Content-Disposition", "attachment; filename=\"statistics.pdf\"")
+                .build();
     }
 
     @GET
@@ -76,9 +84,97 @@ public class ExportResource {
             throw ApiException.forbidden("Nur Administratoren können Benutzerdaten exportieren");
         }
 
-        byte[] csv = exportService.exportUsersToCsv();
+        StreamingOutput csv = exportService::exportUsersToCsv;
         return Response.ok(csv)
                 .header("Content-Disposition", "attachment; filename=\"users.csv\"")
                 .build();
     }
+
+    /**
+     * Spaltenorientierter Export als Apache Arrow IPC Stream, z.B. /export/ideas/arrow.
+     */
+    @GET
+    @Path("/{dataset}/arrow")
+    @Produces(AnalyticsExportService.MEDIA_TYPE)
+    public Response exportArrow(@PathParam("dataset") String datasetName,
+                                @Context ContainerRequestContext requestContext) {
+        AnalyticsExportService.Dataset dataset = AnalyticsExportService.Dataset.fromName(datasetName);
+
+        String role = (String) requestContext.getProperty("role");
+        if (dataset == AnalyticsExportService.Dataset.AUDIT_LOGS) {
+            if (!"ADMIN".equals(role)) {
+                throw ApiException.forbidden("Nur Administratoren können Audit-Protokolle exportieren");
+            }
+        } else if (!"ADMIN".equals(role) && !"PROJECT_MANAGER".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
+        }
+
+        StreamingOutput arrow = out -> analyticsExportService.export(dataset, out);
+        return Response.ok(arrow)
+                .header("Content-Disposition", "attachment; filename=\"" + dataset.getFileName() + "\"")
+                .build();
+    }
+
+    @POST
+    @Path("/jobs")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response createJob(Map<String, String> body, @Context ContainerRequestContext requestContext) {
+        if (body == null) {
+            throw ApiException.badRequest("Exporttyp und Format sind erforderlich");
+        }
+        ExportJobService.JobType type = ExportJobService.JobType.of(body.get("type"), body.get("format"));
+
+        String role = (String) requestContext.getProperty("role");
+        if (type == ExportJobService.JobType.USERS_CSV) {
+            if (!"ADMIN".equals(role)) {
+                throw ApiException.forbidden("Nur Administratoren können Benutzerdaten exportieren");
+            }
+        } else if (!"ADMIN".equals(role) && !"PROJECT_MANAGER".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren und Projektmanager können Daten exportieren");
+        }
+
+        Long userId = (Long) requestContext.getProperty("userId");
+        ExportJobDTO job = exportJobService.submit(type, userId);
+        return Response.status(Response.Status.ACCEPTED).entity(job).build();
+    }
+
+    @GET
+    @Path("/jobs")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getJobs(@Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        List<ExportJobDTO> jobs = exportJobService.getJobsForUser(userId);
+        return Response.ok(jobs).build();
+    }
+
+    @GET
+    @Path("/jobs/{jobId}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getJob(@PathParam("jobId") String jobId, @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        ExportJobDTO job = exportJobService.getJob(jobId, userId);
+        return Response.ok(job).build();
+    }
+
+    @GET
+    @Path("/jobs/{jobId}/download")
+    public Response downloadJob(@PathParam("jobId") String jobId, @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        ExportJobService.JobType type = exportJobService.getJobType(jobId, userId);
+        java.nio.file.Path file = exportJobService.getArtifact(jobId, userId);
+
+        StreamingOutput artifact = out -> Files.copy(file, out);
+        return Response.ok(artifact, type.getMediaType())
+                .header("Content-Disposition", "attachment; filename=\"" + type.getFileName() + "\"")
+                .build();
+    }
+
+    @DELETE
+    @Path("/jobs/{jobId}")
+    public Response cancelJob(@PathParam("jobId") String jobId, @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        exportJobService.cancel(jobId, userId);
+        return Response.noContent().build();
+    }
 }
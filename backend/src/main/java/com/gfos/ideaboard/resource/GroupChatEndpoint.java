@@ -0,0 +1,136 @@
+package com.gfos.ideaboard.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfos.ideaboard.exception.ApiException;
+import com.gfos.ideaboard.security.JwtUtil;
+import com.gfos.ideaboard.security.TokenRevocationRegistry;
+import com.gfos.ideaboard.service.GroupChatHub;
+import com.gfos.ideaboard.service.GroupMembershipCache;
+import com.gfos.ideaboard.service.GroupService;
+import io.jsonwebtoken.Claims;
+import jakarta.inject.Inject;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.OnClose;
+import jakarta.websocket.OnError;
+import jakarta.websocket.OnMessage;
+import jakarta.websocket.OnOpen;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.PathParam;
+import jakarta.websocket.server.ServerEndpoint;
+import java.io.IOException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Live-Gruppenchat per WebSocket unter /ws/groups/{groupId}.
+ * Der Browser kann beim Verbindungsaufbau keine Header setzen, daher wird das Access-Token als Query-Parameter
+ * "token" übergeben und beim Öffnen wie im {@link com.gfos.ideaboard.security.JwtFilter} geprüft; Ablauf und
+ * spätere Widerrufe des Tokens überwacht der {@link GroupChatHub}.
+ * Der Server sendet JSON-Arrays von Ereignissen ("message", "typing", "resync");
+ * der Client sendet {"type":"typing"} oder {"type":"read","messageId":...}. Lesestände werden nur gespeichert,
+ * nicht an andere Verbindungen verteilt.
+ * Nachrichten selbst werden weiterhin per REST gesendet.
+ */
+@ServerEndpoint("/ws/groups/{groupId}")
+public class GroupChatEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupChatEndpoint.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String TOKEN_QUERY_PARAM = "token";
+
+    private static final String CONNECTION_PROPERTY = "groupChatConnection";
+
+    // Client-Ereignisse sind klein; alles darüber wird vom Container abgewiesen
+    private static final int MAX_INCOMING_MESSAGE_SIZE = 1024;
+
+    @Inject
+    private JwtUtil jwtUtil;
+
+    @Inject
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Inject
+    private GroupMembershipCache membershipCache;
+
+    @Inject
+    private GroupChatHub chatHub;
+
+    @Inject
+    private GroupService groupService;
+
+    @OnOpen
+    public void onOpen(Session session, @PathParam("groupId") Long groupId) throws IOException {
+        Claims claims = authenticate(session);
+        if (claims == null) {
+            session.close(new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY, "Ungültiger oder abgelaufener Token"));
+            return;
+        }
+        Long userId = claims.get("userId", Long.class);
+        if (!membershipCache.isMember(groupId, userId)) {
+            session.close(new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY, "Keine Mitgliedschaft"));
+            return;
+        }
+
+        session.setMaxTextMessageBufferSize(MAX_INCOMING_MESSAGE_SIZE);
+        session.getUserProperties().put(CONNECTION_PROPERTY,
+                chatHub.register(session, groupId, userId, claims.getSubject(),
+                        JwtUtil.getIssuedAtMillis(claims), claims.getExpiration().getTime()));
+    }
+
+    @OnMessage
+    public void onMessage(Session session, String text) {
+        GroupChatHub.Connection connection = connection(session);
+        if (connection == null) {
+            return;
+        }
+        try {
+            JsonNode event = objectMapper.readTree(text);
+            String type = event.path("type").asText();
+            if ("typing".equals(type)) {
+                chatHub.typing(connection);
+            } else if ("read".equals(type) && event.path("messageId").canConvertToLong()) {
+                Long groupId = Long.valueOf(session.getPathParameters().get("groupId"));
+                groupService.markReadUpTo(groupId, connection.getUserId(), event.path("messageId").asLong());
+            }
+        } catch (IOException | ApiException e) {
+            logger.debug("Ungültiges Chat-Ereignis von WebSocket {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    @OnClose
+    public void onClose(Session session) {
+        GroupChatHub.Connection connection = connection(session);
+        if (connection != null) {
+            chatHub.unregister(connection);
+        }
+    }
+
+    @OnError
+    public void onError(Session session, Throwable error) {
+        logger.debug("WebSocket {} abgebrochen: {}", session.getId(), error.toString());
+        onClose(session);
+    }
+
+    private GroupChatHub.Connection connection(Session session) {
+        return (GroupChatHub.Connection) session.getUserProperties().get(CONNECTION_PROPERTY);
+    }
+
+    private Claims authenticate(Session session) {
+        List<String> tokens = session.getRequestParameterMap().get(TOKEN_QUERY_PARAM);
+        if (tokens == null || tokens.isEmpty()) {
+            return null;
+        }
+        Claims claims = jwtUtil.validateToken(tokens.get(0).trim());
+        if (claims == null || claims.getExpiration() == null || "refresh".equals(claims.get("type", String.class))) {
+            return null;
+        }
+        if (revocationRegistry.isRevoked(claims.get("userId", Long.class), JwtUtil.getIssuedAtMillis(claims))) {
+            return null;
+        }
+        return claims;
+    }
+}
@@ -89,13 +89,14 @@ public class GroupResource {
     }
 
     /**
-     * Rufe alle Nachrichten in einer Gruppe ab
+     * Rufe alle Nachrichten in einer Gruppe ab, mit afterId nur die neueren
      */
     @GET
     @Path("/{id}/messages")
-    public Response getGroupMessages(@PathParam("id") Long id, @Context ContainerRequestContext requestContext) {
+    public Response getGroupMessages(@PathParam("id") Long id, @QueryParam("afterId") Long afterId,
+                                     @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
-        List<GroupMessageDTO> messages = groupService.getGroupMessages(id, userId);
+        List<GroupMessageDTO> messages = groupService.getGroupMessages(id, userId, afterId);
         return Response.ok(messages).build();
     }
 
@@ -1,5 +1,7 @@
 package com.gfos.ideaboard.resource;
 
+import com.gfos.ideaboard.dto.ChecklistBatchRequest;
+import com.gfos.ideaboard.dto.ChecklistBatchResponse;
 import com.gfos.ideaboard.dto.ChecklistItemDTO;
 import com.gfos.ideaboard.dto.ChecklistToggleResponse;
 import com.gfos.ideaboard.dto.CommentDTO;
@@ -178,9 +180,11 @@ public class IdeaResource {
     @GET
     @Path("/{id}/comments")
     public Response getComments(@PathParam("id") Long id,
+                                @QueryParam("page") @DefaultValue("0") int page,
+                                @QueryParam("size") @DefaultValue("50") int size,
                                 @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
-        List<CommentDTO> comments = commentService.getCommentsByIdea(id, userId);
+        List<CommentDTO> comments = commentService.getCommentsByIdea(id, page, size, userId);
         return Response.ok(comments).build();
     }
 
@@ -301,6 +305,21 @@ public class IdeaResource {
         return Response.ok(item).build();
     }
 
+    /**
+     * Mehrere Checklisten-Operationen (anlegen, umbenennen, umschalten, sortieren, löschen) in einer Transaktion.
+     */
+    @POST
+    @Path("/{id}/checklist/batch")
+    public Response applyChecklistBatch(@PathParam("id") Long id, ChecklistBatchRequest request,
+                                        @Context ContainerRequestContext requestContext) {
+        Long userId = (Long) requestContext.getProperty("userId");
+        if (request == null) {
+            throw ApiException.badRequest("Operationen sind erforderlich");
+        }
+        ChecklistBatchResponse result = checklistService.applyBatch(id, request.getOperations(), userId);
+        return Response.ok(result).build();
+    }
+
     @DELETE
     @Path("/{id}/checklist/{itemId}")
     public Response deleteChecklistItem(@PathParam("id") Long id, @PathParam("itemId") Long itemId,
@@ -1,7 +1,9 @@
 package com.gfos.ideaboard.resource;
 
 import com.gfos.ideaboard.dto.NotificationDTO;
+import com.gfos.ideaboard.exception.ApiException;
 import com.gfos.ideaboard.security.Secured;
+import com.gfos.ideaboard.service.NotificationRetentionService;
 import com.gfos.ideaboard.service.NotificationService;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
@@ -21,6 +23,9 @@ public class NotificationResource {
     @Inject
     private NotificationService notificationService;
 
+    @Inject
+    private NotificationRetentionService retentionService;
+
     @GET
     public Response getNotifications(
             @QueryParam("limit") @DefaultValue("50") int limit,
@@ -53,4 +58,31 @@ public class NotificationResource {
         notificationService.markAllAsRead(userId);
         return Response.ok(Map.of("message", "Alle als gelesen markiert")).build();
     }
+
+    /**
+     * Bericht des letzten Aufbewahrungslaufs (nur Administratoren).
+     */
+    @GET
+    @Path("/maintenance")
+    public Response getMaintenanceReport(@Context ContainerRequestContext requestContext) {
+        requireAdmin(requestContext);
+        return Response.ok(retentionService.getLastReport()).build();
+    }
+
+    /**
+     * Startet die Aufbewahrung sofort und liefert den Bericht (nur Administratoren).
+     */
+    @POST
+    @Path("/maintenance")
+    public Response runMaintenance(@Context ContainerRequestContext requestContext) {
+        requireAdmin(requestContext);
+        return Response.ok(retentionService.runMaintenance()).build();
+    }
+
+    private void requireAdmin(ContainerRequestContext requestContext) {
+        String role = (String) requestContext.getProperty("role");
+        if (!"ADMIN".equals(role)) {
+            throw ApiException.forbidden("Nur Administratoren können die Benachrichtigungswartung ausführen");
+        }
+    }
 }
@@ -1,15 +1,25 @@
 package com.gfos.ideaboard.resource;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.gfos.ideaboard.dto.SurveyDTO;
+import com.gfos.ideaboard.entity.SurveyResultSummary;
 import com.gfos.ideaboard.exception.ApiException;
 import com.gfos.ideaboard.security.Secured;
 import com.gfos.ideaboard.service.SurveyService;
+import com.gfos.ideaboard.service.SurveyStreamService;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +33,9 @@ public class SurveyResource {
     @Inject
     private SurveyService surveyService;
 
+    @Inject
+    private SurveyStreamService surveyStreamService;
+
     @GET
     public Response getSurveys(
             @QueryParam("page") @DefaultValue("0") int page,
@@ -55,6 +68,17 @@ public class SurveyResource {
         return Response.ok(survey).build();
     }
 
+    /**
+     * Live-Ergebnisse als Server-Sent Events. Da EventSource keine Header setzen kann,
+     * wird der Token hier auch als Query-Parameter "token" akzeptiert.
+     */
+    @GET
+    @Path("/{id}/stream")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamResults(@PathParam("id") Long id, @Context SseEventSink sink, @Context Sse sse) {
+        surveyStreamService.subscribe(id, sink, sse);
+    }
+
     @POST
     public Response createSurvey(Map<String, Object> body, @Context ContainerRequestContext requestContext) {
         Long userId = (Long) requestContext.getProperty("userId");
@@ -65,16 +89,34 @@ public class SurveyResource {
         List<String> options = (List<String>) body.get("options");
         Boolean isAnonymous = (Boolean) body.get("isAnonymous");
         Boolean allowMultipleVotes = (Boolean) body.get("allowMultipleVotes");
+        LocalDateTime expiresAt = parseExpiresAt((String) body.get("expiresAt"));
 
         if (question == null || question.trim().isEmpty()) {
             throw ApiException.badRequest("Frage ist erforderlich");
         }
 
         SurveyDTO survey = surveyService.createSurvey(question, description, options,
-                isAnonymous, allowMultipleVotes, userId);
+                isAnonymous, allowMultipleVotes, expiresAt, userId);
         return Response.status(Response.Status.CREATED).entity(survey).build();
     }
 
+    /**
+     * Endstand einer abgelaufenen Umfrage, wie ihn der Ablauf-Job gespeichert hat.
+     */
+    @GET
+    @Path("/{id}/summary")
+    public Response getSummary(@PathParam("id") Long id) {
+        SurveyResultSummary summary = surveyService.getResultSummary(id);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("surveyId", summary.getSurveyId());
+        response.put("totalVotes", summary.getTotalVotes());
+        response.put("closedAt", summary.getClosedAt());
+        // Bereits als JSON gespeichert und unverändert ausgeliefert
+        response.put("results", new RawValue(summary.getResults()));
+        return Response.ok(response).build();
+    }
+
     @POST
     @Path("/{id}/vote")
     public Response vote(@PathParam("id") Long id, Map<String, Object> body,
@@ -102,4 +144,26 @@ public class SurveyResource {
         surveyService.deleteSurvey(id, userId);
         return Response.noContent().build();
     }
+
+    /**
+     * Akzeptiert lokale Zeitstempel (2024-05-01T12:00), Zeitstempel mit Zone (2024-05-01T10:00:00Z)
+     * oder ein Datum (2024-05-01 = Tagesende).
+     */
+    private LocalDateTime parseExpiresAt(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atTime(23, 59, 59);
+            }
+            try {
+                return LocalDateTime.parse(value);
+            } catch (DateTimeParseException e) {
+                return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+        } catch (DateTimeParseException e) {
+            throw ApiException.badRequest("Ungültiges Ablaufdatum: " + value);
+        }
+    }
 }
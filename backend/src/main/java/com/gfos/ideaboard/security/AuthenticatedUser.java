@@ -0,0 +1,60 @@
+package com.gfos.ideaboard.security;
+
+import com.gfos.ideaboard.entity.UserRole;
+import jakarta.enterprise.context.RequestScoped;
+import java.util.Date;
+
+/**
+ * Angemeldeter Benutzer der aktuellen Anfrage, einmalig von {@link JwtFilter} aus dem Token befüllt.
+ * Services nutzen ihn für Rollenprüfungen, ohne den Benutzer erneut aus der Datenbank zu laden.
+ */
+@RequestScoped
+public class AuthenticatedUser {
+
+    private Long userId;
+    private String username;
+    private UserRole role;
+    private Date issuedAt;
+
+    void set(Long userId, String username, UserRole role, Date issuedAt) {
+        this.userId = userId;
+        this.username = username;
+        this.role = role;
+        this.issuedAt = issuedAt;
+    }
+
+    public boolean isAuthenticated() {
+        return userId != null;
+    }
+
+    /**
+     * Prüft, ob der angemeldete Benutzer der angegebene Benutzer ist.
+     */
+    public boolean is(Long otherUserId) {
+        return userId != null && userId.equals(otherUserId);
+    }
+
+    public boolean hasAnyRole(UserRole... roles) {
+        if (role == null) return false;
+        for (UserRole candidate : roles) {
+            if (role == candidate) return true;
+        }
+        return false;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public UserRole getRole() {
+        return role;
+    }
+
+    public Date getIssuedAt() {
+        return issuedAt;
+    }
+}
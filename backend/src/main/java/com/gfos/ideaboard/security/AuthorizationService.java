@@ -0,0 +1,58 @@
+package com.gfos.ideaboard.security;
+
+import com.gfos.ideaboard.entity.User;
+import com.gfos.ideaboard.entity.UserRole;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.ContextNotActiveException;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Rollenprüfungen für Services. Für den angemeldeten Benutzer wird die Rolle aus dem
+ * Token ({@link AuthenticatedUser}) verwendet; nur für andere Benutzer oder außerhalb einer
+ * HTTP-Anfrage wird der Benutzer geladen.
+ */
+@ApplicationScoped
+public class AuthorizationService {
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private AuthenticatedUser authenticatedUser;
+
+    /**
+     * Liefert die Rolle des Benutzers oder {@code null}, wenn er nicht existiert.
+     */
+    public UserRole getRole(Long userId) {
+        if (userId == null) return null;
+        if (isCurrentUser(userId)) {
+            return authenticatedUser.getRole();
+        }
+        User user = em.find(User.class, userId);
+        return user != null ? user.getRole() : null;
+    }
+
+    public boolean hasAnyRole(Long userId, UserRole... roles) {
+        UserRole role = getRole(userId);
+        if (role == null) return false;
+        for (UserRole candidate : roles) {
+            if (role == candidate) return true;
+        }
+        return false;
+    }
+
+    public boolean isAdmin(Long userId) {
+        return hasAnyRole(userId, UserRole.ADMIN);
+    }
+
+    private boolean isCurrentUser(Long userId) {
+        try {
+            return authenticatedUser.is(userId) && authenticatedUser.getRole() != null;
+        } catch (ContextNotActiveException e) {
+            // Aufruf außerhalb einer Anfrage (z.B. Hintergrundjob)
+            return false;
+        }
+    }
+}
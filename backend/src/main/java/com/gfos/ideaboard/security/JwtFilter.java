@@ -1,16 +1,20 @@
 package com.gfos.ideaboard.security;
 
+import com.gfos.ideaboard.entity.UserRole;
+import io.jsonwebtoken.Claims;
 import jakarta.annotation.Priority;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Priorities;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
 import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
 import jakarta.ws.rs.ext.Provider;
 import java.io.IOException;
 import java.security.Principal;
+import java.util.regex.Pattern;
 
 @Provider
 @Secured
@@ -19,34 +23,60 @@ public class JwtFilter implements ContainerRequestFilter {
 
     private static final String BEARER_PREFIX = "Bearer ";
 
+    private static final String TOKEN_QUERY_PARAM = "token";
+
+    // Einziger Endpunkt, der das Token als Query-Parameter annimmt (EventSource für Live-Ergebnisse)
+    private static final Pattern QUERY_TOKEN_PATH = Pattern.compile("^/?surveys/\\d+/stream/?$");
+
     @Inject
     private JwtUtil jwtUtil;
 
+    @Inject
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Inject
+    private AuthenticatedUser authenticatedUser;
+
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
         String authHeader = requestContext.getHeaderString(HttpHeaders.AUTHORIZATION);
 
-        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+        String token;
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            token = authHeader.substring(BEARER_PREFIX.length()).trim();
+        } else if (acceptsQueryToken(requestContext)
+                && requestContext.getUriInfo().getQueryParameters().getFirst(TOKEN_QUERY_PARAM) != null) {
+            // EventSource im Browser kann keine Header setzen, daher Token als Query-Parameter (nur Umfrage-Stream)
+            token = requestContext.getUriInfo().getQueryParameters().getFirst(TOKEN_QUERY_PARAM).trim();
+        } else {
             abortWithUnauthorized(requestContext, "Autorisierungs-Header fehlt oder ist ungültig");
             return;
         }
 
-        String token = authHeader.substring(BEARER_PREFIX.length()).trim();
-
-        if (!jwtUtil.isTokenValid(token)) {
+        // Token nur einmal parsen und alle Claims daraus lesen
+        Claims claims = jwtUtil.validateToken(token);
+        if (claims == null) {
             abortWithUnauthorized(requestContext, "Ungültiger oder abgelaufener Token");
             return;
         }
 
         // Akzeptieren Sie keine Aktualisierungs-Token für reguläre API-Aufrufe
-        if (jwtUtil.isRefreshToken(token)) {
+        if ("refresh".equals(claims.get("type", String.class))) {
             abortWithUnauthorized(requestContext, "Aktualisierungs-Token wird nicht akzeptiert");
             return;
         }
 
-        Long userId = jwtUtil.getUserIdFromToken(token);
-        String username = jwtUtil.getUsernameFromToken(token);
-        String role = jwtUtil.getRoleFromToken(token);
+        Long userId = claims.get("userId", Long.class);
+        String username = claims.getSubject();
+        String role = claims.get("role", String.class);
+
+        // Tokens, die vor einer Rollenänderung oder Deaktivierung ausgestellt wurden, ablehnen
+        if (revocationRegistry.isRevoked(userId, JwtUtil.getIssuedAtMillis(claims))) {
+            abortWithUnauthorized(requestContext, "Token wurde widerrufen");
+            return;
+        }
+
+        authenticatedUser.set(userId, username, parseRole(role), claims.getIssuedAt());
 
         // Sicherheitskontext einstellen
         requestContext.setSecurityContext(new SecurityContext() {
@@ -77,6 +107,28 @@ public class JwtFilter implements ContainerRequestFilter {
         requestContext.setProperty("role", role);
     }
 
+    private UserRole parseRole(String role) {
+        try {
+            return role != null ? UserRole.valueOf(role) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Tokens in der URL landen in Zugriffsprotokollen und im Verlauf; daher nur für GET auf den SSE-Stream.
+     */
+    private boolean acceptsQueryToken(ContainerRequestContext requestContext) {
+        return "GET".equals(requestContext.getMethod())
+                && QUERY_TOKEN_PATH.matcher(requestContext.getUriInfo().getPath()).matches()
+                && acceptsEventStream(requestContext);
+    }
+
+    private boolean acceptsEventStream(ContainerRequestContext requestContext) {
+        return requestContext.getAcceptableMediaTypes().stream()
+                .anyMatch(type -> type.isCompatible(MediaType.SERVER_SENT_EVENTS_TYPE) && !type.isWildcardType());
+    }
+
     private void abortWithUnauthorized(ContainerRequestContext requestContext, String message) {
         requestContext.abortWith(
             Response.status(Response.Status.UNAUTHORIZED)
@@ -19,6 +19,9 @@ public class JwtUtil {
     private static final long ACCESS_TOKEN_EXPIRATION = 24 * 60 * 60 * 1000; // 24 Stunden
     private static final long REFRESH_TOKEN_EXPIRATION = 7 * 24 * 60 * 60 * 1000; // 7 Tage
 
+    // "iat" hat nur Sekundengenauigkeit; für den Abgleich mit Widerrufen wird der Zeitpunkt in ms mitgeführt
+    private static final String ISSUED_AT_MILLIS_CLAIM = "iatMs";
+
     private final SecretKey key;
 
     public JwtUtil() {
@@ -42,23 +45,27 @@ public class JwtUtil {
         claims.put("username", user.getUsername());
         claims.put("role", user.getRole().name());
         claims.put("email", user.getEmail());
+        long now = System.currentTimeMillis();
+        claims.put(ISSUED_AT_MILLIS_CLAIM, now);
 
         return Jwts.builder()
                 .claims(claims)
                 .subject(user.getUsername())
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + ACCESS_TOKEN_EXPIRATION))
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + ACCESS_TOKEN_EXPIRATION))
                 .signWith(key)
                 .compact();
     }
 
     public String generateRefreshToken(User user) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .subject(user.getUsername())
                 .claim("userId", user.getId())
                 .claim("type", "refresh")
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + REFRESH_TOKEN_EXPIRATION))
+                .claim(ISSUED_AT_MILLIS_CLAIM, now)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + REFRESH_TOKEN_EXPIRATION))
                 .signWith(key)
                 .compact();
     }
@@ -111,6 +118,18 @@ public class JwtUtil {
         return "refresh".equals(claims.get("type", String.class));
     }
 
+    /**
+     * Ausstellungszeitpunkt in Millisekunden. Ältere Tokens ohne "iatMs" fallen auf das sekundengenaue "iat" zurück.
+     */
+    public static Long getIssuedAtMillis(Claims claims) {
+        Long issuedAtMillis = claims.get(ISSUED_AT_MILLIS_CLAIM, Long.class);
+        if (issuedAtMillis != null) {
+            return issuedAtMillis;
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt != null ? issuedAt.getTime() : null;
+    }
+
     public long getAccessTokenExpiration() {
         return ACCESS_TOKEN_EXPIRATION;
     }
@@ -0,0 +1,109 @@
+package com.gfos.ideaboard.security;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Begrenzt Anmeldeversuche pro IP-Adresse und Fehlversuche pro Konto.
+ * Die Prüfung erfolgt vor jeder BCrypt-Berechnung, damit Credential-Stuffing keine Rechenzeit bindet.
+ */
+@ApplicationScoped
+public class LoginThrottle {
+
+    // Ab dieser Größe werden abgelaufene Einträge entfernt
+    private static final int PURGE_THRESHOLD = 10000;
+
+    private final Map<String, Window> accountFailures = new ConcurrentHashMap<>();
+    private final Map<String, Window> ipAttempts = new ConcurrentHashMap<>();
+
+    private final int maxAccountFailures;
+    private final long accountWindowMillis;
+    private final int maxIpAttempts;
+    private final long ipWindowMillis;
+    private final LongSupplier clock;
+
+    public LoginThrottle() {
+        this(EnvConfig.getInt("LOGIN_MAX_FAILURES", 5),
+                EnvConfig.getLong("LOGIN_FAILURE_WINDOW_SECONDS", 900) * 1000L,
+                EnvConfig.getInt("LOGIN_MAX_ATTEMPTS_PER_IP", 20),
+                EnvConfig.getLong("LOGIN_IP_WINDOW_SECONDS", 60) * 1000L,
+                System::currentTimeMillis);
+    }
+
+    LoginThrottle(int maxAccountFailures, long accountWindowMillis, int maxIpAttempts, long ipWindowMillis,
+                  LongSupplier clock) {
+        this.maxAccountFailures = maxAccountFailures;
+        this.accountWindowMillis = accountWindowMillis;
+        this.maxIpAttempts = maxIpAttempts;
+        this.ipWindowMillis = ipWindowMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Zählt einen Anmeldeversuch und lehnt ihn ab, wenn IP oder Konto gesperrt sind.
+     */
+    public void checkAttempt(String username, String clientIp) {
+        long now = clock.getAsLong();
+        purgeExpired(now);
+
+        if (clientIp != null) {
+            Window window = ipAttempts.compute(clientIp, (key, current) -> increment(current, now, ipWindowMillis));
+            if (window.count > maxIpAttempts) {
+                throw ApiException.tooManyRequests("Zu viele Anmeldeversuche. Bitte später erneut versuchen");
+            }
+        }
+
+        Window failures = accountFailures.get(accountKey(username));
+        if (failures != null && !failures.isExpired(now, accountWindowMillis) && failures.count >= maxAccountFailures) {
+            throw ApiException.tooManyRequests("Zu viele fehlgeschlagene Anmeldungen. Konto vorübergehend gesperrt");
+        }
+    }
+
+    public void recordFailure(String username) {
+        long now = clock.getAsLong();
+        accountFailures.compute(accountKey(username), (key, current) -> increment(current, now, accountWindowMillis));
+    }
+
+    public void recordSuccess(String username) {
+        accountFailures.remove(accountKey(username));
+    }
+
+    private String accountKey(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Window increment(Window current, long now, long windowMillis) {
+        if (current == null || current.isExpired(now, windowMillis)) {
+            return new Window(now, 1);
+        }
+        return new Window(current.start, current.count + 1);
+    }
+
+    private void purgeExpired(long now) {
+        if (ipAttempts.size() > PURGE_THRESHOLD) {
+            ipAttempts.values().removeIf(window -> window.isExpired(now, ipWindowMillis));
+        }
+        if (accountFailures.size() > PURGE_THRESHOLD) {
+            accountFailures.values().removeIf(window -> window.isExpired(now, accountWindowMillis));
+        }
+    }
+
+    private static final class Window {
+        final long start;
+        final int count;
+
+        Window(long start, int count) {
+            this.start = start;
+            this.count = count;
+        }
+
+        boolean isExpired(long now, long windowMillis) {
+            return now - start >= windowMillis;
+        }
+    }
+}
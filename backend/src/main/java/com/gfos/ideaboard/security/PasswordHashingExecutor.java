@@ -0,0 +1,75 @@
+package com.gfos.ideaboard.security;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Eigener, begrenzter Thread-Pool für BCrypt-Berechnungen.
+ * Hält die HTTP-Worker von GlassFish frei, wenn viele Anmeldungen gleichzeitig eintreffen.
+ * Ist die Warteschlange voll, wird sofort mit 429 abgelehnt statt Anfragen zu stauen.
+ */
+@ApplicationScoped
+public class PasswordHashingExecutor {
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private ThreadPoolExecutor executor;
+
+    public PasswordHashingExecutor() {}
+
+    public PasswordHashingExecutor(int workers, int queueCapacity, ThreadFactory threadFactory) {
+        this.executor = createExecutor(workers, queueCapacity, threadFactory);
+    }
+
+    @PostConstruct
+    void init() {
+        int defaultWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int workers = Math.max(1, EnvConfig.getInt("HASH_WORKERS", defaultWorkers));
+        int queueCapacity = Math.max(1, EnvConfig.getInt("HASH_QUEUE_CAPACITY", 32));
+        executor = createExecutor(workers, queueCapacity, threadFactory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Führt die Berechnung im Hashing-Pool aus.
+     *
+     * @throws ApiException mit Status 429, wenn Pool und Warteschlange ausgelastet sind
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw ApiException.tooManyRequests("Zu viele gleichzeitige Anmeldungen. Bitte in Kürze erneut versuchen");
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    private static ThreadPoolExecutor createExecutor(int workers, int queueCapacity, ThreadFactory threadFactory) {
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -1,17 +1,79 @@
 package com.gfos.ideaboard.security;
 
 import at.favre.lib.crypto.bcrypt.BCrypt;
+import com.gfos.ideaboard.config.EnvConfig;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 @ApplicationScoped
 public class PasswordUtil {
 
-    // BCrypt-Kosten für Passwort-Hashing
-    private static final int BCRYPT_COST = 12;
+    private static final Logger logger = LoggerFactory.getLogger(PasswordUtil.class);
+
+    // Zulässiger Bereich für BCrypt-Kosten
+    static final int MIN_COST = 10;
+    static final int MAX_COST = 14;
+
+    // Standard-Zielzeit für eine Passwortprüfung bei der Kalibrierung
+    private static final long DEFAULT_TARGET_MILLIS = 250;
+
+    private static final char[] CALIBRATION_PASSWORD = "calibration-password".toCharArray();
+
+    // BCrypt-Kosten für Passwort-Hashing (beim Start kalibriert oder per BCRYPT_COST fest vorgegeben)
+    private volatile int bcryptCost = 12;
+
+    // Bei fest vorgegebenen Kosten werden Hashes auch herabgestuft, sonst nur erhöht
+    private volatile boolean costConfigured;
+
+    // Kalibrierung beim Anwendungsstart statt bei der ersten Anmeldung
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        logger.info("BCrypt-Kosten: {}", bcryptCost);
+    }
+
+    @PostConstruct
+    void init() {
+        int configured = EnvConfig.getInt("BCRYPT_COST", -1);
+        if (configured > 0) {
+            bcryptCost = clamp(configured);
+            costConfigured = true;
+            return;
+        }
+        long targetMillis = EnvConfig.getLong("BCRYPT_TARGET_MILLIS", DEFAULT_TARGET_MILLIS);
+        bcryptCost = calibrate(targetMillis);
+    }
+
+    /**
+     * Wählt die höchsten Kosten, deren Prüfdauer auf dieser Maschine die Zielzeit nicht überschreitet.
+     * Jede Kostenstufe verdoppelt die Rechenzeit, daher wird ab MIN_COST aufwärts gemessen.
+     */
+    int calibrate(long targetMillis) {
+        // Aufwärmen (JIT), damit die erste Messung nicht verfälscht wird
+        BCrypt.withDefaults().hash(6, CALIBRATION_PASSWORD);
+
+        int cost = MIN_COST;
+        long millis = measure(cost);
+        while (cost < MAX_COST && millis * 2 <= targetMillis) {
+            cost++;
+            millis = measure(cost);
+        }
+        if (millis > targetMillis && cost > MIN_COST) {
+            cost--;
+        }
+        logger.info("BCrypt-Kalibrierung: Kosten {} (Ziel {} ms, gemessen {} ms)", cost, targetMillis, millis);
+        return cost;
+    }
+
+    public int getCost() {
+        return bcryptCost;
+    }
 
     // Hashen Sie das Klartextpasswort mit BCrypt
     public String hashPassword(String plainPassword) {
-        return BCrypt.withDefaults().hashToString(BCRYPT_COST, plainPassword.toCharArray());
+        return BCrypt.withDefaults().hashToString(bcryptCost, plainPassword.toCharArray());
     }
 
     // Überprüfen Sie, ob das Klartextpasswort mit dem Hash übereinstimmt
@@ -19,4 +81,42 @@ public class PasswordUtil {
         BCrypt.Result result = BCrypt.verifyer().verify(plainPassword.toCharArray(), hashedPassword);
         return result.verified;
     }
+
+    /**
+     * Prüft, ob ein Hash mit veralteten Kosten erzeugt wurde und nach erfolgreicher Anmeldung
+     * neu berechnet werden sollte.
+     */
+    public boolean needsRehash(String hashedPassword) {
+        int cost = parseCost(hashedPassword);
+        if (cost < 0) {
+            return false;
+        }
+        return costConfigured ? cost != bcryptCost : cost < bcryptCost;
+    }
+
+    // Format: $2a$12$<Salt und Hash>
+    static int parseCost(String hashedPassword) {
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int costStart = hashedPassword.indexOf('$', 1) + 1;
+        if (costStart <= 0 || costStart + 2 > hashedPassword.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hashedPassword.substring(costStart, costStart + 2));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private long measure(int cost) {
+        long start = System.nanoTime();
+        BCrypt.withDefaults().hash(cost, CALIBRATION_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000L;
+    }
+
+    private int clamp(int cost) {
+        return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+    }
 }
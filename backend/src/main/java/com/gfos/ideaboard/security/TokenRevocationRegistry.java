@@ -0,0 +1,110 @@
+package com.gfos.ideaboard.security;
+
+import com.gfos.ideaboard.entity.User;
+import com.gfos.ideaboard.event.EventBus;
+import com.gfos.ideaboard.event.UserRoleChanged;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pro Benutzer ein Zeitpunkt "Tokens, die vorher ausgestellt wurden, sind ungültig".
+ * Wird bei Rollenänderung oder Deaktivierung gesetzt und von {@link JwtFilter} in O(1) geprüft.
+ * Die Zeitpunkte werden in der Tabelle token_revocations gespeichert und beim Start geladen;
+ * andere Instanzen erfahren Änderungen über das {@link UserRoleChanged}-Ereignis des {@link EventBus}.
+ */
+@ApplicationScoped
+public class TokenRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    // Ältere Einträge sind wirkungslos, da alle betroffenen Tokens bereits abgelaufen sind
+    private static final long MAX_TOKEN_LIFETIME_MILLIS = 7L * 24 * 60 * 60 * 1000;
+
+    private static final int PURGE_THRESHOLD = 10000;
+
+    private static final String UPSERT_QUERY =
+            "INSERT INTO token_revocations (user_id, not_before, updated_at) VALUES (?1, ?2, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "not_before = GREATEST(token_revocations.not_before, EXCLUDED.not_before), updated_at = CURRENT_TIMESTAMP";
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private EventBus eventBus;
+
+    private final Map<Long, Long> notBefore = new ConcurrentHashMap<>();
+
+    // Beim Anwendungsstart laden, damit widerrufene Tokens ab der ersten Anfrage abgewiesen werden
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        eventBus.subscribe(UserRoleChanged.class, event -> apply(event.userId(), event.notBeforeMillis()));
+        // Sobald die Listener-Verbindung abhört (erstmals und nach Unterbrechungen) erneut laden, damit auch
+        // Widerrufe zwischen diesem Laden und dem ersten LISTEN nicht verloren gehen
+        eventBus.onResync(this::reload);
+        reload();
+    }
+
+    /**
+     * Widerruft alle bis jetzt ausgestellten Tokens des Benutzers.
+     * Muss innerhalb einer Transaktion aufgerufen werden; andere Instanzen werden beim Commit benachrichtigt.
+     */
+    public long revokeAll(User user) {
+        Long userId = user.getId();
+        // Millisekundengenau, verglichen mit dem "iatMs"-Claim (siehe JwtUtil#getIssuedAtMillis)
+        long cutoff = System.currentTimeMillis();
+
+        em.createNativeQuery(UPSERT_QUERY)
+                .setParameter(1, userId)
+                .setParameter(2, new Timestamp(cutoff))
+                .executeUpdate();
+        eventBus.publish(new UserRoleChanged(userId, user.getRole().name(),
+                Boolean.TRUE.equals(user.getIsActive()), cutoff));
+
+        apply(userId, cutoff);
+        return cutoff;
+    }
+
+    /**
+     * Übernimmt einen Widerrufszeitpunkt (z.B. aus der Datenbank oder von einem anderen Knoten).
+     * Ein späterer Zeitpunkt gewinnt immer.
+     */
+    public void apply(Long userId, long notBeforeMillis) {
+        notBefore.merge(userId, notBeforeMillis, Math::max);
+        if (notBefore.size() > PURGE_THRESHOLD) {
+            long expired = System.currentTimeMillis() - MAX_TOKEN_LIFETIME_MILLIS;
+            notBefore.values().removeIf(cutoff -> cutoff < expired);
+        }
+    }
+
+    /**
+     * @param issuedAtMillis Ausstellungszeitpunkt des Tokens aus {@link JwtUtil#getIssuedAtMillis}
+     */
+    public boolean isRevoked(Long userId, Long issuedAtMillis) {
+        Long cutoff = notBefore.get(userId);
+        if (cutoff == null) return false;
+        return issuedAtMillis == null || issuedAtMillis < cutoff;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void reload() {
+        Timestamp since = new Timestamp(System.currentTimeMillis() - MAX_TOKEN_LIFETIME_MILLIS);
+        List<Object[]> rows = em.createNativeQuery(
+                        "SELECT user_id, not_before FROM token_revocations WHERE not_before > ?1")
+                .setParameter(1, since)
+                .getResultList();
+        for (Object[] row : rows) {
+            apply(((Number) row[0]).longValue(), ((Timestamp) row[1]).getTime());
+        }
+        logger.info("{} Token-Widerrufe geladen", rows.size());
+    }
+}
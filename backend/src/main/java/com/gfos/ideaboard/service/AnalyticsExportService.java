@@ -0,0 +1,327 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.entity.AuditAction;
+import com.gfos.ideaboard.entity.IdeaStatus;
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Spaltenorientierter Export (Apache Arrow IPC Stream) für BI-Werkzeuge.
+ * Jeder Block aus der Datenbank wird als eigener Record Batch geschrieben, daher bleibt der
+ * Speicherbedarf unabhängig von der Tabellengröße. Kategorie, Status, Tags und Audit-Aktionen
+ * werden dictionary-kodiert; die Wörterbücher werden vor dem ersten Batch einmal geladen.
+ * Wörterbücher und Batches werden in einer REPEATABLE-READ-Transaktion gelesen, also aus demselben Snapshot,
+ * damit während des Exports neu hinzukommende Werte nicht verloren gehen.
+ */
+@ApplicationScoped
+public class AnalyticsExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsExportService.class);
+
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
+    // Zeilen pro Record Batch
+    private static final int BATCH_SIZE = 10000;
+
+    // Obergrenze für den Arrow-Speicher eines einzelnen Exports
+    private static final long ALLOCATOR_LIMIT = 256L * 1024 * 1024;
+
+    private static final ArrowType.Int INDEX_TYPE = new ArrowType.Int(32, true);
+
+    // So viele unbekannte Werte pro Spalte werden im Log genannt
+    private static final int MAX_LOGGED_MISSING_VALUES = 10;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    public enum Dataset {
+        IDEAS("ideas",
+                "SELECT id, title, category, status, progress_percentage, author_id, like_count, comment_count, " +
+                "view_count, is_featured, created_at, updated_at FROM ideas",
+                Column.int64("id"), Column.text("title"), Column.dictionary("category", "category"),
+                Column.dictionary("status", "status"), Column.int32("progress_percentage"),
+                Column.int64("author_id"), Column.int32("like_count"), Column.int32("comment_count"),
+                Column.int32("view_count"), Column.bool("is_featured"),
+                Column.timestamp("created_at"), Column.timestamp("updated_at")),
+        IDEA_TAGS("idea-tags",
+                "SELECT id, idea_id, tag_name FROM idea_tags",
+                Column.int64("id"), Column.int64("idea_id"), Column.dictionary("tag", "tag")),
+        LIKES("likes",
+                "SELECT id, user_id, idea_id, created_at FROM likes",
+                Column.int64("id"), Column.int64("user_id"), Column.int64("idea_id"), Column.timestamp("created_at")),
+        COMMENTS("comments",
+                "SELECT id, idea_id, author_id, content, reaction_count, created_at, updated_at FROM comments",
+                Column.int64("id"), Column.int64("idea_id"), Column.int64("author_id"), Column.text("content"),
+                Column.int32("reaction_count"), Column.timestamp("created_at"), Column.timestamp("updated_at")),
+        SURVEY_VOTES("survey-votes",
+                "SELECT id, survey_id, option_id, user_id, created_at FROM survey_votes",
+                Column.int64("id"), Column.int64("survey_id"), Column.int64("option_id"),
+                Column.int64("user_id"), Column.timestamp("created_at")),
+        AUDIT_LOGS("audit-logs",
+                "SELECT id, user_id, action, entity_type, entity_id, old_value, new_value, created_at FROM audit_logs",
+                Column.int64("id"), Column.int64("user_id"), Column.dictionary("action", "action"),
+                Column.dictionary("entity_type", "entity_type"), Column.int64("entity_id"),
+                Column.text("old_value"), Column.text("new_value"), Column.timestamp("created_at"));
+
+        private final String name;
+        private final String selectSql;
+        private final List<Column> columns;
+
+        Dataset(String name, String selectSql, Column... columns) {
+            this.name = name;
+            this.selectSql = selectSql;
+            this.columns = Arrays.asList(columns);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getFileName() {
+            return name + ".arrows";
+        }
+
+        public static Dataset fromName(String name) {
+            for (Dataset dataset : values()) {
+                if (dataset.name.equalsIgnoreCase(name)) {
+                    return dataset;
+                }
+            }
+            throw ApiException.notFound("Unbekannter Datensatz: " + name);
+        }
+    }
+
+    private enum ColumnType { INT64, INT32, BOOL, TEXT, TIMESTAMP, DICTIONARY }
+
+    private static final class Column {
+        final String name;
+        final ColumnType type;
+        final String dictionary;
+
+        private Column(String name, ColumnType type, String dictionary) {
+            this.name = name;
+            this.type = type;
+            this.dictionary = dictionary;
+        }
+
+        static Column int64(String name) { return new Column(name, ColumnType.INT64, null); }
+        static Column int32(String name) { return new Column(name, ColumnType.INT32, null); }
+        static Column bool(String name) { return new Column(name, ColumnType.BOOL, null); }
+        static Column text(String name) { return new Column(name, ColumnType.TEXT, null); }
+        static Column timestamp(String name) { return new Column(name, ColumnType.TIMESTAMP, null); }
+        static Column dictionary(String name, String dictionary) { return new Column(name, ColumnType.DICTIONARY, dictionary); }
+    }
+
+    /**
+     * Schreibt den Datensatz als Arrow-Stream. Läuft in einer eigenen Transaktion, deren erste Anweisung die
+     * Isolationsstufe setzt; der Snapshot gilt damit für Wörterbücher und alle Batches.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void export(Dataset dataset, OutputStream out) throws IOException {
+        em.createNativeQuery("SET TRANSACTION ISOLATION LEVEL REPEATABLE READ READ ONLY").executeUpdate();
+
+        try (BufferAllocator allocator = new RootAllocator(ALLOCATOR_LIMIT)) {
+            DictionaryProvider.MapDictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider();
+            Map<String, Map<String, Integer>> lookups = new HashMap<>();
+            MissingValues missing = new MissingValues();
+            List<Field> fields = new ArrayList<>();
+
+            try {
+                long dictionaryId = 0;
+                for (Column column : dataset.columns) {
+                    fields.add(createField(column, allocator, provider, lookups, dictionaryId));
+                    if (column.type == ColumnType.DICTIONARY) {
+                        dictionaryId++;
+                    }
+                }
+
+                try (VectorSchemaRoot root = VectorSchemaRoot.create(new Schema(fields), allocator);
+                     ArrowStreamWriter writer = new ArrowStreamWriter(root, provider, Channels.newChannel(out))) {
+                    writer.start();
+
+                    long lastId = 0;
+                    List<Object[]> rows;
+                    do {
+                        rows = findBatch(dataset, lastId);
+                        if (rows.isEmpty()) {
+                            break;
+                        }
+                        root.allocateNew();
+                        for (int r = 0; r < rows.size(); r++) {
+                            Object[] row = rows.get(r);
+                            for (int c = 0; c < dataset.columns.size(); c++) {
+                                setValue(root.getVector(c), dataset.columns.get(c), lookups, missing, r, row[c]);
+                            }
+                        }
+                        root.setRowCount(rows.size());
+                        writer.writeBatch();
+                        lastId = ((Number) rows.get(rows.size() - 1)[0]).longValue();
+                    } while (rows.size() == BATCH_SIZE);
+
+                    writer.end();
+                }
+                missing.log(dataset);
+            } finally {
+                for (long id : provider.getDictionaryIds()) {
+                    provider.lookup(id).getVector().close();
+                }
+            }
+        }
+    }
+
+    private Field createField(Column column, BufferAllocator allocator,
+                              DictionaryProvider.MapDictionaryProvider provider,
+                              Map<String, Map<String, Integer>> lookups, long dictionaryId) {
+        switch (column.type) {
+            case INT64:
+                return Field.nullable(column.name, new ArrowType.Int(64, true));
+            case INT32:
+                return Field.nullable(column.name, new ArrowType.Int(32, true));
+            case BOOL:
+                return Field.nullable(column.name, ArrowType.Bool.INSTANCE);
+            case TEXT:
+                return Field.nullable(column.name, ArrowType.Utf8.INSTANCE);
+            case TIMESTAMP:
+                // Zeitstempel ohne Zeitzone, wie in der Datenbank gespeichert
+                return Field.nullable(column.name, new ArrowType.Timestamp(TimeUnit.MILLISECOND, null));
+            default:
+                DictionaryEncoding encoding = new DictionaryEncoding(dictionaryId, false, INDEX_TYPE);
+                List<String> values = loadDictionaryValues(column.dictionary);
+
+                VarCharVector dictionaryVector = new VarCharVector(column.dictionary, allocator);
+                dictionaryVector.allocateNew(values.size());
+                Map<String, Integer> lookup = new HashMap<>();
+                for (int i = 0; i < values.size(); i++) {
+                    dictionaryVector.setSafe(i, values.get(i).getBytes(StandardCharsets.UTF_8));
+                    lookup.put(values.get(i), i);
+                }
+                dictionaryVector.setValueCount(values.size());
+
+                provider.put(new Dictionary(dictionaryVector, encoding));
+                lookups.put(column.name, lookup);
+                // Der Vektor enthält die Indizes, der Stream-Writer schreibt Utf8 als Werttyp ins Schema
+                return new Field(column.name, new FieldType(true, INDEX_TYPE, encoding), null);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> loadDictionaryValues(String dictionary) {
+        switch (dictionary) {
+            case "status":
+                return Arrays.stream(IdeaStatus.values()).map(Enum::name).collect(Collectors.toList());
+            case "action":
+                return Arrays.stream(AuditAction.values()).map(Enum::name).collect(Collectors.toList());
+            case "category":
+                return em.createNativeQuery("SELECT DISTINCT category FROM ideas ORDER BY category").getResultList();
+            case "tag":
+                return em.createNativeQuery("SELECT DISTINCT tag_name FROM idea_tags ORDER BY tag_name").getResultList();
+            case "entity_type":
+                return em.createNativeQuery("SELECT DISTINCT entity_type FROM audit_logs ORDER BY entity_type").getResultList();
+            default:
+                throw new IllegalArgumentException("Unbekanntes Wörterbuch: " + dictionary);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> findBatch(Dataset dataset, long lastId) {
+        return em.createNativeQuery(dataset.selectSql + " WHERE id > ?1 ORDER BY id LIMIT ?2")
+                .setParameter(1, lastId)
+                .setParameter(2, BATCH_SIZE)
+                .getResultList();
+    }
+
+    private void setValue(FieldVector vector, Column column, Map<String, Map<String, Integer>> lookups,
+                          MissingValues missing, int index, Object value) {
+        if (value == null) {
+            vector.setNull(index);
+            return;
+        }
+        switch (column.type) {
+            case INT64:
+                ((BigIntVector) vector).setSafe(index, ((Number) value).longValue());
+                break;
+            case INT32:
+                ((IntVector) vector).setSafe(index, ((Number) value).intValue());
+                break;
+            case BOOL:
+                ((BitVector) vector).setSafe(index, (Boolean) value ? 1 : 0);
+                break;
+            case TEXT:
+                ((VarCharVector) vector).setSafe(index, value.toString().getBytes(StandardCharsets.UTF_8));
+                break;
+            case TIMESTAMP:
+                long millis = ((Timestamp) value).toLocalDateTime().toInstant(ZoneOffset.UTC).toEpochMilli();
+                ((TimeStampMilliVector) vector).setSafe(index, millis);
+                break;
+            default:
+                // Werte außerhalb des Wörterbuchs (z.B. unbekannte Enum-Werte) bleiben leer und werden gezählt
+                Integer code = lookups.get(column.name).get(value.toString());
+                if (code == null) {
+                    missing.add(column.name, value.toString());
+                    vector.setNull(index);
+                } else {
+                    ((IntVector) vector).setSafe(index, code);
+                }
+        }
+    }
+
+    /**
+     * Zählt Werte, die nicht im Wörterbuch ihrer Spalte stehen und deshalb leer exportiert wurden.
+     */
+    private static final class MissingValues {
+        private final Map<String, Long> counts = new LinkedHashMap<>();
+        private final Map<String, Set<String>> samples = new HashMap<>();
+
+        void add(String column, String value) {
+            counts.merge(column, 1L, Long::sum);
+            Set<String> values = samples.computeIfAbsent(column, c -> new LinkedHashSet<>());
+            if (values.size() < MAX_LOGGED_MISSING_VALUES) {
+                values.add(value);
+            }
+        }
+
+        void log(Dataset dataset) {
+            counts.forEach((column, count) -> logger.warn(
+                    "Arrow-Export {}: {} Werte der Spalte {} fehlen im Wörterbuch und wurden leer exportiert, z.B. {}",
+                    dataset.getName(), count, column, samples.get(column)));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.entity.AuditAction;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schreibt Audit-Einträge gesammelt per JDBC-Batch in die Tabelle audit_logs.
+ * Einträge werden in einer begrenzten Warteschlange gepuffert und von einem Hintergrund-Thread
+ * in Blöcken geschrieben. Ist die Warteschlange voll, schreibt der Aufrufer selbst (kein Verlust).
+ * Beim Herunterfahren wird die Warteschlange vollständig geleert.
+ */
+@ApplicationScoped
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    static final String INSERT_SQL =
+            "INSERT INTO audit_logs (user_id, action, entity_type, entity_id, old_value, new_value, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Maximale Wartezeit beim Herunterfahren
+    private static final long DRAIN_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Ein einzelner Audit-Eintrag; der Benutzer wird nur über seine ID referenziert.
+     */
+    public static final class AuditEvent {
+        final Long userId;
+        final AuditAction action;
+        final String entityType;
+        final Long entityId;
+        final String oldValue;
+        final String newValue;
+        final LocalDateTime createdAt;
+
+        public AuditEvent(Long userId, AuditAction action, String entityType, Long entityId,
+                          String oldValue, String newValue) {
+            this.userId = userId;
+            this.action = action;
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+
+    @Resource(lookup = "jdbc/ideaboard")
+    private DataSource dataSource;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private BlockingQueue<AuditEvent> queue;
+    private int batchSize;
+    private long flushIntervalMillis;
+    private Thread worker;
+    private volatile boolean running;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder callerWrites = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, EnvConfig.getInt("AUDIT_QUEUE_CAPACITY", 10000)));
+        batchSize = Math.max(1, EnvConfig.getInt("AUDIT_BATCH_SIZE", 200));
+        flushIntervalMillis = Math.max(10, EnvConfig.getLong("AUDIT_FLUSH_INTERVAL_MS", 500));
+
+        running = true;
+        worker = threadFactory.newThread(this::run);
+        worker.setName("audit-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        try {
+            worker.join(DRAIN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Falls der Thread nicht rechtzeitig fertig wurde, den Rest hier schreiben
+        List<AuditEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+        logger.info("Audit-Writer beendet: {} geschrieben, {} direkt vom Aufrufer, {} fehlgeschlagen",
+                written.sum(), callerWrites.sum(), failed.sum());
+    }
+
+    /**
+     * Stellt einen Eintrag in die Warteschlange. Ist sie voll, wird synchron geschrieben.
+     */
+    public void enqueue(AuditEvent event) {
+        if (!running || !queue.offer(event)) {
+            callerWrites.increment();
+            write(List.of(event));
+        }
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditEvent first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Schreibt die Einträge in einer eigenen Transaktion als JDBC-Batch.
+     */
+    void write(List<AuditEvent> events) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                for (AuditEvent event : events) {
+                    bind(statement, event);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                connection.commit();
+                written.add(events.size());
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            failed.add(events.size());
+            logger.error("{} Audit-Einträge konnten nicht geschrieben werden", events.size(), e);
+        }
+    }
+
+    static void bind(PreparedStatement statement, AuditEvent event) throws SQLException {
+        if (event.userId == null) {
+            statement.setNull(1, Types.BIGINT);
+        } else {
+            statement.setLong(1, event.userId);
+        }
+        statement.setString(2, event.action.name());
+        statement.setString(3, event.entityType);
+        if (event.entityId == null) {
+            statement.setNull(4, Types.BIGINT);
+        } else {
+            statement.setLong(4, event.entityId);
+        }
+        statement.setString(5, event.oldValue);
+        statement.setString(6, event.newValue);
+        statement.setTimestamp(7, Timestamp.valueOf(event.createdAt));
+    }
+}
@@ -0,0 +1,188 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.util.AdvisoryLock;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Wartung der monatlichen audit_logs-Partitionen.
+ * Legt Partitionen für die kommenden Monate an und entfernt Partitionen, die älter als die
+ * Aufbewahrungsfrist sind. Im Modus ARCHIVE wird die Partition vorher per COPY als gzip-CSV
+ * gesichert, im Modus DETACH bleibt sie als eigenständige Tabelle erhalten.
+ */
+@ApplicationScoped
+public class AuditPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditPartitionService.class);
+
+    public enum RetentionMode { ARCHIVE, DETACH }
+
+    private static final String PARTITION_PREFIX = "audit_logs_";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // Verhindert, dass mehrere Instanzen gleichzeitig Partitionen anlegen oder entfernen
+    private static final long ADVISORY_LOCK_KEY = 0x4155444954L;
+
+    @Resource(lookup = "jdbc/ideaboard")
+    private DataSource dataSource;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private int monthsAhead;
+    private int retentionMonths;
+    private RetentionMode retentionMode;
+    private Path archiveDir;
+    private ScheduledFuture<?> maintenanceTask;
+
+    @PostConstruct
+    void init() {
+        monthsAhead = Math.max(1, EnvConfig.getInt("AUDIT_PARTITIONS_AHEAD", 3));
+        // 0 = keine Aufbewahrungsgrenze
+        retentionMonths = Math.max(0, EnvConfig.getInt("AUDIT_RETENTION_MONTHS", 12));
+        String mode = EnvConfig.get("AUDIT_RETENTION_MODE", RetentionMode.ARCHIVE.name());
+        try {
+            retentionMode = RetentionMode.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unbekannter AUDIT_RETENTION_MODE-Wert '{}', verwende ARCHIVE", mode);
+            retentionMode = RetentionMode.ARCHIVE;
+        }
+        archiveDir = Paths.get(EnvConfig.get("AUDIT_ARCHIVE_DIR",
+                Paths.get(System.getProperty("java.io.tmpdir"), "ideaboard-audit-archive").toString()));
+    }
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        maintenanceTask = scheduler.scheduleAtFixedRate(this::runMaintenance, 0, 24, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (maintenanceTask != null) {
+            maintenanceTask.cancel(false);
+        }
+    }
+
+    public void runMaintenance() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!AdvisoryLock.tryLock(connection, ADVISORY_LOCK_KEY)) {
+                logger.debug("Audit-Partitionswartung läuft bereits auf einer anderen Instanz");
+                return;
+            }
+            try {
+                createUpcomingPartitions(connection);
+                if (retentionMonths > 0) {
+                    applyRetention(connection);
+                }
+            } finally {
+                AdvisoryLock.unlock(connection, ADVISORY_LOCK_KEY);
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            logger.error("Audit-Partitionswartung fehlgeschlagen", e);
+        }
+    }
+
+    private void createUpcomingPartitions(Connection connection) throws SQLException {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        try (PreparedStatement statement = connection.prepareStatement("SELECT create_audit_log_partition(?)")) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                statement.setDate(1, Date.valueOf(month.plusMonths(i)));
+                statement.executeQuery().close();
+            }
+        }
+    }
+
+    private void applyRetention(Connection connection) throws SQLException, IOException {
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        for (String partition : findPartitions(connection)) {
+            YearMonth month = parseMonth(partition);
+            if (month == null || !month.isBefore(cutoff)) {
+                continue;
+            }
+
+            if (retentionMode == RetentionMode.ARCHIVE) {
+                Path file = archive(connection, partition);
+                logger.info("Audit-Partition {} archiviert nach {}", partition, file);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE audit_logs DETACH PARTITION " + partition);
+                if (retentionMode == RetentionMode.ARCHIVE) {
+                    statement.execute("DROP TABLE " + partition);
+                }
+            }
+            logger.info("Audit-Partition {} entfernt ({})", partition, retentionMode);
+        }
+    }
+
+    private List<String> findPartitions(Connection connection) throws SQLException {
+        List<String> partitions = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                     "WHERE i.inhparent = 'audit_logs'::regclass ORDER BY c.relname")) {
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Liefert den Monat einer Partition oder null für Tabellen, die nicht dem Namensschema folgen
+     * (z.B. die Default-Partition).
+     */
+    static YearMonth parseMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private Path archive(Connection connection, String partition) throws SQLException, IOException {
+        Files.createDirectories(archiveDir);
+        Path file = archiveDir.resolve(partition + ".csv.gz");
+        Path tmp = archiveDir.resolve(partition + ".csv.gz.part");
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyOut("COPY " + partition + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+        }
+        // Erst nach vollständigem Schreiben umbenennen, damit keine halben Archive entstehen
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+}
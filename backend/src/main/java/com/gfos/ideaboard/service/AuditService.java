@@ -1,52 +1,166 @@
 package com.gfos.ideaboard.service;
 
+import com.gfos.ideaboard.config.EnvConfig;
 import com.gfos.ideaboard.dto.AuditLogDTO;
 import com.gfos.ideaboard.entity.AuditAction;
 import com.gfos.ideaboard.entity.AuditLog;
-import com.gfos.ideaboard.entity.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.TypedQuery;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Protokolliert Änderungen in audit_logs.
+ * Im Standardmodus (AUDIT_DURABILITY=ASYNC) werden Einträge nach dem Commit der aufrufenden Transaktion
+ * an {@link AuditLogWriter} übergeben und gesammelt geschrieben; bei einem Rollback entfällt der Eintrag.
+ * Mit AUDIT_DURABILITY=SYNC wird wie bisher innerhalb der aufrufenden Transaktion geschrieben.
+ */
 @ApplicationScoped
 public class AuditService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
+
+    public enum Durability { SYNC, ASYNC }
+
+    private static final int MAX_PAGE_SIZE = 500;
+
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
 
-    @Transactional
+    @Inject
+    private AuditLogWriter writer;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    private Durability durability;
+
+    @PostConstruct
+    void init() {
+        String mode = EnvConfig.get("AUDIT_DURABILITY", Durability.ASYNC.name());
+        try {
+            durability = Durability.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unbekannter AUDIT_DURABILITY-Wert '{}', verwende ASYNC", mode);
+            durability = Durability.ASYNC;
+        }
+    }
+
     public void log(Long userId, AuditAction action, String entityType, Long entityId,
                     String oldValue, String newValue) {
-        AuditLog log = new AuditLog();
-        if (userId != null) {
-            log.setUser(em.find(User.class, userId));
-        }
-        log.setAction(action);
-        log.setEntityType(entityType);
-        log.setEntityId(entityId);
-        log.setOldValue(oldValue);
-        log.setNewValue(newValue);
-        em.persist(log);
-    }
+        AuditLogWriter.AuditEvent event =
+                new AuditLogWriter.AuditEvent(userId, action, entityType, entityId, oldValue, newValue);
+        int status = transactionRegistry.getTransactionStatus();
 
-    public List<AuditLogDTO> getRecentLogs(int limit) {
-        List<AuditLog> logs = em.createNamedQuery("AuditLog.findRecent", AuditLog.class)
-                .setMaxResults(limit)
-                .getResultList();
-        return logs.stream()
-                .map(AuditLogDTO::fromEntity)
-                .collect(Collectors.toList());
+        if (status == Status.STATUS_MARKED_ROLLBACK) {
+            // Die Transaktion wird zurückgerollt, die protokollierte Änderung findet nicht statt
+            return;
+        }
+
+        if (status == Status.STATUS_NO_TRANSACTION) {
+            if (durability == Durability.SYNC) {
+                writer.write(List.of(event));
+            } else {
+                writer.enqueue(event);
+            }
+            return;
+        }
+
+        if (durability == Durability.SYNC) {
+            // Teil der aufrufenden Transaktion, ohne den Benutzer zu laden
+            em.createNativeQuery("INSERT INTO audit_logs (user_id, action, entity_type, entity_id, old_value, new_value, created_at) " +
+                            "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7)")
+                    .setParameter(1, userId)
+                    .setParameter(2, action.name())
+                    .setParameter(3, entityType)
+                    .setParameter(4, entityId)
+                    .setParameter(5, oldValue)
+                    .setParameter(6, newValue)
+                    .setParameter(7, Timestamp.valueOf(event.createdAt))
+                    .executeUpdate();
+            return;
+        }
+
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    writer.enqueue(event);
+                }
+            }
+        });
     }
 
-    public List<AuditLogDTO> getLogsByEntity(String entityType, Long entityId) {
-        List<AuditLog> logs = em.createNamedQuery("AuditLog.findByEntity", AuditLog.class)
-                .setParameter("entityType", entityType)
-                .setParameter("entityId", entityId)
-                .getResultList();
-        return logs.stream()
+    /**
+     * Liefert Audit-Einträge absteigend nach Zeit.
+     * Zeitraum (from inklusive, to exklusive) und Cursor schränken created_at direkt ein, sodass PostgreSQL
+     * nur die betroffenen Monatspartitionen liest. Der Cursor (beforeCreatedAt, beforeId) ist der letzte
+     * Eintrag der vorherigen Seite.
+     */
+    public List<AuditLogDTO> getLogs(String entityType, Long entityId, LocalDateTime from, LocalDateTime to,
+                                     LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT a FROM AuditLog a LEFT JOIN FETCH a.user WHERE 1=1");
+
+        if (entityType != null) {
+            jpql.append(" AND a.entityType = :entityType");
+        }
+        if (entityId != null) {
+            jpql.append(" AND a.entityId = :entityId");
+        }
+        if (from != null) {
+            jpql.append(" AND a.createdAt >= :from");
+        }
+        if (to != null) {
+            jpql.append(" AND a.createdAt < :to");
+        }
+        if (beforeCreatedAt != null) {
+            if (beforeId != null) {
+                jpql.append(" AND (a.createdAt < :before OR (a.createdAt = :before AND a.id < :beforeId))");
+            } else {
+                jpql.append(" AND a.createdAt < :before");
+            }
+        }
+        jpql.append(" ORDER BY a.createdAt DESC, a.id DESC");
+
+        TypedQuery<AuditLog> query = em.createQuery(jpql.toString(), AuditLog.class);
+        if (entityType != null) {
+            query.setParameter("entityType", entityType);
+        }
+        if (entityId != null) {
+            query.setParameter("entityId", entityId);
+        }
+        if (from != null) {
+            query.setParameter("from", from);
+        }
+        if (to != null) {
+            query.setParameter("to", to);
+        }
+        if (beforeCreatedAt != null) {
+            query.setParameter("before", beforeCreatedAt);
+            if (beforeId != null) {
+                query.setParameter("beforeId", beforeId);
+            }
+        }
+
+        return query.setMaxResults(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)))
+                .getResultList()
+                .stream()
                 .map(AuditLogDTO::fromEntity)
                 .collect(Collectors.toList());
     }
@@ -8,7 +8,13 @@ import com.gfos.ideaboard.entity.User;
 import com.gfos.ideaboard.entity.UserRole;
 import com.gfos.ideaboard.exception.ApiException;
 import com.gfos.ideaboard.security.JwtUtil;
+import com.gfos.ideaboard.security.LoginThrottle;
+import com.gfos.ideaboard.security.PasswordHashingExecutor;
 import com.gfos.ideaboard.security.PasswordUtil;
+import com.gfos.ideaboard.security.TokenRevocationRegistry;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
@@ -18,7 +24,7 @@ import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
+import java.util.concurrent.CompletionStage;
 
 @ApplicationScoped
 public class AuthService {
@@ -34,14 +40,37 @@ public class AuthService {
     @Inject
     private PasswordUtil passwordUtil;
 
-    @Transactional
-    public AuthResponse login(AuthRequest request) {
+    @Inject
+    private PasswordHashingExecutor hashingExecutor;
+
+    @Inject
+    private LoginThrottle loginThrottle;
+
+    @Inject
+    private UserService userService;
+
+    @Inject
+    private TokenRevocationRegistry revocationRegistry;
+
+    // Datenbankarbeit nach der Passwortprüfung, damit der Hashing-Pool nur BCrypt rechnet
+    @Resource
+    private ManagedExecutorService executor;
+
+    /**
+     * Meldet einen Benutzer an. Die Passwortprüfung läuft im {@link PasswordHashingExecutor},
+     * vorher werden Versuche pro IP und Konto begrenzt. Der aufrufende Thread wird nicht blockiert;
+     * das Speichern der Anmeldung und das Erzeugen der Tokens laufen danach auf dem Container-Executor.
+     */
+    public CompletionStage<AuthResponse> login(AuthRequest request, String clientIp) {
         logger.debug("Anmeldeversuch für Benutzername: {}", request.getUsername());
 
+        loginThrottle.checkAttempt(request.getUsername(), clientIp);
+
         User user = findByUsername(request.getUsername());
 
         if (user == null) {
             logger.warn("Anmeldung fehlgeschlagen: Benutzer nicht gefunden - {}", request.getUsername());
+            loginThrottle.recordFailure(request.getUsername());
             throw ApiException.unauthorized("Ungültiger Benutzername oder Passwort");
         }
 
@@ -50,18 +79,50 @@ public class AuthService {
             throw ApiException.unauthorized("Konto ist deaktiviert");
         }
 
-        if (!passwordUtil.verifyPassword(request.getPassword(), user.getPasswordHash())) {
-            logger.warn("Anmeldung fehlgeschlagen: Ungültiges Passwort für Benutzer - {}", request.getUsername());
-            throw ApiException.unauthorized("Ungültiger Benutzername oder Passwort");
-        }
+        Long userId = user.getId();
+        String passwordHash = user.getPasswordHash();
 
-        logger.info("Anmeldung erfolgreich für Benutzer: {} ({})", request.getUsername(), user.getRole());
+        return hashingExecutor.submit(() -> passwordUtil.verifyPassword(request.getPassword(), passwordHash))
+                .thenApplyAsync(verified -> {
+                    if (!verified) {
+                        logger.warn("Anmeldung fehlgeschlagen: Ungültiges Passwort für Benutzer - {}", request.getUsername());
+                        loginThrottle.recordFailure(request.getUsername());
+                        throw ApiException.unauthorized("Ungültiger Benutzername oder Passwort");
+                    }
 
-        // Letzte Anmeldung aktualisieren
-        user.setLastLogin(LocalDateTime.now());
-        em.merge(user);
+                    loginThrottle.recordSuccess(request.getUsername());
 
-        return createAuthResponse(user);
+                    if (passwordUtil.needsRehash(passwordHash)) {
+                        upgradePasswordHashAsync(userId, passwordHash, request.getPassword());
+                    }
+
+                    // Letzte Anmeldung aktualisieren (eigene Transaktion)
+                    User loggedIn = userService.recordLogin(userId);
+                    logger.info("Anmeldung erfolgreich für Benutzer: {} ({})", request.getUsername(), loggedIn.getRole());
+
+                    return createAuthResponse(loggedIn);
+                }, executor);
+    }
+
+    /**
+     * Berechnet den Hash mit den aktuellen Kosten neu, ohne die Anmeldung zu verzögern.
+     * Ist der Hashing-Pool ausgelastet, wird es bei der nächsten Anmeldung erneut versucht.
+     */
+    private void upgradePasswordHashAsync(Long userId, String oldHash, String password) {
+        try {
+            hashingExecutor.submit(() -> passwordUtil.hashPassword(password))
+                    .thenAcceptAsync(newHash -> {
+                        if (userService.upgradePasswordHash(userId, oldHash, newHash)) {
+                            logger.info("Passwort-Hash für Benutzer {} auf Kosten {} aktualisiert", userId, passwordUtil.getCost());
+                        }
+                    }, executor)
+                    .exceptionally(error -> {
+                        logger.warn("Aktualisierung des Passwort-Hashes für Benutzer {} fehlgeschlagen", userId, error);
+                        return null;
+                    });
+        } catch (ApiException e) {
+            logger.debug("Hashing-Pool ausgelastet, Hash-Aktualisierung für Benutzer {} verschoben", userId);
+        }
     }
 
     @Transactional
@@ -95,11 +156,16 @@ public class AuthService {
     }
 
     public AuthResponse refreshToken(String refreshToken) {
-        if (!jwtUtil.isTokenValid(refreshToken) || !jwtUtil.isRefreshToken(refreshToken)) {
+        Claims claims = jwtUtil.validateToken(refreshToken);
+        if (claims == null || !"refresh".equals(claims.get("type", String.class))) {
             throw ApiException.unauthorized("Ungültiger Aktualisierungstoken");
         }
 
-        Long userId = jwtUtil.getUserIdFromToken(refreshToken);
+        Long userId = claims.get("userId", Long.class);
+        if (revocationRegistry.isRevoked(userId, JwtUtil.getIssuedAtMillis(claims))) {
+            throw ApiException.unauthorized("Aktualisierungstoken wurde widerrufen");
+        }
+
         User user = em.find(User.class, userId);
 
         if (user == null || !user.getIsActive()) {
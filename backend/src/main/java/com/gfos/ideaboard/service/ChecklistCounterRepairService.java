@@ -0,0 +1,111 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Gleicht die Checklisten-Zähler der Ideen (total_items, completed_items) regelmäßig mit checklist_items ab.
+ * Die Zähler werden vom Trigger gepflegt; Abweichungen (z.B. nach manuellen Datenkorrekturen) werden
+ * hier blockweise korrigiert. Jeder Block sperrt zuerst die Ideen-Zeilen, damit gleichzeitige
+ * Checklisten-Änderungen nicht mit einem veralteten Zählerstand überschrieben werden.
+ */
+@ApplicationScoped
+public class ChecklistCounterRepairService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChecklistCounterRepairService.class);
+
+    private static final String LOCK_BATCH_SQL =
+            "SELECT id FROM ideas WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE";
+
+    // Fortschritt nur bei abweichenden Zählern neu berechnen, abgeschlossene Ideen bleiben unverändert
+    private static final String REPAIR_SQL =
+            "UPDATE ideas i SET total_items = c.total, completed_items = c.completed, " +
+            "  progress_percentage = CASE WHEN c.total > 0 AND i.status <> 'COMPLETED' " +
+            "    THEN ROUND(c.completed * 100.0 / c.total) ELSE i.progress_percentage END " +
+            "FROM (SELECT d.id, COUNT(ci.id) AS total, COUNT(ci.id) FILTER (WHERE ci.is_completed) AS completed " +
+            "      FROM ideas d LEFT JOIN checklist_items ci ON ci.idea_id = d.id " +
+            "      WHERE d.id > ? AND d.id <= ? GROUP BY d.id) c " +
+            "WHERE i.id = c.id AND (i.total_items <> c.total OR i.completed_items <> c.completed)";
+
+    @Resource(lookup = "jdbc/ideaboard")
+    private DataSource dataSource;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private int batchSize;
+    private ScheduledFuture<?> repairTask;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        batchSize = Math.max(1, EnvConfig.getInt("CHECKLIST_REPAIR_BATCH_SIZE", 500));
+        long intervalMinutes = Math.max(1, EnvConfig.getLong("CHECKLIST_REPAIR_INTERVAL_MINUTES", 60));
+        repairTask = scheduler.scheduleWithFixedDelay(this::repairCounters, 1, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (repairTask != null) {
+            repairTask.cancel(false);
+        }
+    }
+
+    /**
+     * Korrigiert alle abweichenden Zähler und liefert die Anzahl korrigierter Ideen.
+     */
+    public int repairCounters() {
+        int repaired = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement lock = connection.prepareStatement(LOCK_BATCH_SQL);
+                 PreparedStatement repair = connection.prepareStatement(REPAIR_SQL)) {
+                long lastId = 0;
+                while (true) {
+                    long firstId = lastId;
+                    lock.setLong(1, firstId);
+                    lock.setInt(2, batchSize);
+                    int locked = 0;
+                    try (ResultSet rs = lock.executeQuery()) {
+                        while (rs.next()) {
+                            lastId = rs.getLong(1);
+                            locked++;
+                        }
+                    }
+                    if (locked == 0) {
+                        connection.commit();
+                        break;
+                    }
+
+                    // Neue Anweisung = neuer Snapshot: zählt alles, was vor dem Sperren committet wurde
+                    repair.setLong(1, firstId);
+                    repair.setLong(2, lastId);
+                    repaired += repair.executeUpdate();
+                    connection.commit();
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Abgleich der Checklisten-Zähler fehlgeschlagen", e);
+        }
+
+        if (repaired > 0) {
+            logger.warn("Checklisten-Zähler von {} Ideen korrigiert", repaired);
+        }
+        return repaired;
+    }
+}
@@ -1,17 +1,24 @@
 package com.gfos.ideaboard.service;
 
+import com.gfos.ideaboard.dto.ChecklistBatchRequest;
+import com.gfos.ideaboard.dto.ChecklistBatchResponse;
 import com.gfos.ideaboard.dto.ChecklistItemDTO;
 import com.gfos.ideaboard.dto.ChecklistToggleResponse;
 import com.gfos.ideaboard.entity.ChecklistItem;
 import com.gfos.ideaboard.entity.Idea;
 import com.gfos.ideaboard.entity.IdeaStatus;
-import com.gfos.ideaboard.entity.User;
 import com.gfos.ideaboard.entity.UserRole;
+import com.gfos.ideaboard.event.EventBus;
+import com.gfos.ideaboard.event.IdeaChanged;
 import com.gfos.ideaboard.exception.ApiException;
+import com.gfos.ideaboard.security.AuthorizationService;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,10 +26,17 @@ import java.util.stream.Collectors;
 public class ChecklistService {
 
     private static final int MAX_TITLE_LENGTH = 200;
+    private static final int MAX_BATCH_OPERATIONS = 500;
 
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
 
+    @Inject
+    private AuthorizationService authorizationService;
+
+    @Inject
+    private EventBus eventBus;
+
     public List<ChecklistItemDTO> getChecklistByIdea(Long ideaId) {
         List<ChecklistItem> items = em.createNamedQuery("ChecklistItem.findByIdea", ChecklistItem.class)
                 .setParameter("ideaId", ideaId)
@@ -38,15 +52,11 @@ public class ChecklistService {
      * Erlaubt für: Autor der Idee, PROJECT_MANAGER oder ADMIN
      */
     private boolean canEditChecklist(Idea idea, Long currentUserId) {
-        User currentUser = em.find(User.class, currentUserId);
-        if (currentUser == null) return false;
-
         // Autor kann bearbeiten
         if (idea.getAuthor().getId().equals(currentUserId)) return true;
 
         // PM/Admin kann bearbeiten
-        return currentUser.getRole() == UserRole.PROJECT_MANAGER ||
-               currentUser.getRole() == UserRole.ADMIN;
+        return authorizationService.hasAnyRole(currentUserId, UserRole.PROJECT_MANAGER, UserRole.ADMIN);
     }
 
     /**
@@ -210,27 +220,168 @@ public class ChecklistService {
         return ChecklistItemDTO.fromEntity(item);
     }
 
+    /**
+     * Führt mehrere Checklisten-Operationen in einer Transaktion aus.
+     * Idee, Berechtigung und Checkliste werden einmal geladen; Änderungen schreibt EclipseLink beim Flush
+     * gebündelt (JDBC-Batch-Writing), der Fortschritt wird einmal am Ende aus den Zählern berechnet.
+     * Schlägt eine Operation fehl, wird der gesamte Stapel zurückgerollt.
+     */
+    @Transactional
+    public ChecklistBatchResponse applyBatch(Long ideaId, List<ChecklistBatchRequest.Operation> operations,
+                                             Long currentUserId) {
+        if (operations == null || operations.isEmpty()) {
+            throw ApiException.badRequest("Mindestens eine Operation ist erforderlich");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw ApiException.badRequest("Maximal " + MAX_BATCH_OPERATIONS + " Operationen pro Anfrage erlaubt");
+        }
+
+        Idea idea = em.find(Idea.class, ideaId);
+        if (idea == null) {
+            throw ApiException.notFound("Idee nicht gefunden");
+        }
+
+        // Prüfe Bearbeitungsberechtigung (Autor, PM oder Admin)
+        if (!canEditChecklist(idea, currentUserId)) {
+            throw ApiException.forbidden("Nicht berechtigt, Checklistenelemente zu bearbeiten");
+        }
+
+        // Prüfe, ob die Idee nicht abgeschlossen ist
+        validateChecklistEditable(idea);
+
+        List<ChecklistItem> items = new ArrayList<>(em.createNamedQuery("ChecklistItem.findByIdea", ChecklistItem.class)
+                .setParameter("ideaId", ideaId)
+                .getResultList());
+        int nextPosition = items.stream()
+                .mapToInt(ChecklistItem::getOrdinalPosition)
+                .max()
+                .orElse(-1) + 1;
+        boolean toggled = false;
+
+        for (ChecklistBatchRequest.Operation operation : operations) {
+            String type = operation.getType() == null ? "" : operation.getType().trim().toUpperCase();
+            switch (type) {
+                case "CREATE" -> {
+                    validateTitle(operation.getTitle());
+                    ChecklistItem item = new ChecklistItem();
+                    item.setIdea(idea);
+                    item.setTitle(operation.getTitle().trim());
+                    item.setIsCompleted(false);
+                    item.setOrdinalPosition(nextPosition++);
+                    em.persist(item);
+                    items.add(item);
+                }
+                case "UPDATE" -> {
+                    ChecklistItem item = findInBatch(items, operation.getItemId());
+                    validateTitle(operation.getTitle());
+                    item.setTitle(operation.getTitle().trim());
+                }
+                case "TOGGLE" -> {
+                    ChecklistItem item = findInBatch(items, operation.getItemId());
+                    // Mit "completed" lässt sich ein Zustand idempotent setzen (z.B. alle abhaken)
+                    item.setIsCompleted(operation.getCompleted() != null
+                            ? operation.getCompleted() : !item.getIsCompleted());
+                    toggled = true;
+                }
+                case "DELETE" -> {
+                    ChecklistItem item = findInBatch(items, operation.getItemId());
+                    items.remove(item);
+                    em.remove(item);
+                }
+                case "REORDER" -> {
+                    if (operation.getItemIds() == null || operation.getItemIds().isEmpty()) {
+                        throw ApiException.badRequest("Reihenfolge (itemIds) ist erforderlich");
+                    }
+                    // Genannte Elemente in der angegebenen Reihenfolge, übrige dahinter in bisheriger Reihenfolge
+                    List<ChecklistItem> ordered = new ArrayList<>();
+                    for (Long itemId : operation.getItemIds()) {
+                        ChecklistItem item = findInBatch(items, itemId);
+                        if (!ordered.contains(item)) {
+                            ordered.add(item);
+                        }
+                    }
+                    items.sort(Comparator.comparing(ChecklistItem::getOrdinalPosition));
+                    items.stream().filter(item -> !ordered.contains(item)).forEach(ordered::add);
+                    for (int i = 0; i < ordered.size(); i++) {
+                        ordered.get(i).setOrdinalPosition(i);
+                    }
+                    items = ordered;
+                    nextPosition = ordered.size();
+                }
+                default -> throw ApiException.badRequest("Unbekannte Checklisten-Operation: " + operation.getType());
+            }
+        }
+
+        // Fortschritt einmal für den gesamten Stapel berechnen (flusht alle Änderungen)
+        StatusTransitionResult result;
+        if (toggled) {
+            result = updateIdeaProgressWithTransitions(idea);
+        } else {
+            result = new StatusTransitionResult(false, updateIdeaProgress(idea));
+        }
+
+        List<ChecklistItemDTO> dtos = items.stream()
+                .sorted(Comparator.comparing(ChecklistItem::getOrdinalPosition))
+                .map(ChecklistItemDTO::fromEntity)
+                .collect(Collectors.toList());
+        return new ChecklistBatchResponse(dtos, result.transitionedToInProgress, result.allTodosCompleted);
+    }
+
+    /**
+     * Sucht ein Element der Checkliste dieser Idee; Elemente anderer Ideen gelten als nicht gefunden.
+     */
+    private ChecklistItem findInBatch(List<ChecklistItem> items, Long itemId) {
+        if (itemId == null) {
+            throw ApiException.badRequest("Checklistenelement-ID ist erforderlich");
+        }
+        return items.stream()
+                .filter(item -> itemId.equals(item.getId()))
+                .findFirst()
+                .orElseThrow(() -> ApiException.notFound("Checklistenelement nicht gefunden: " + itemId));
+    }
+
+    private void validateTitle(String title) {
+        if (title == null || title.trim().isEmpty()) {
+            throw ApiException.badRequest("Checklistenelement-Titel ist erforderlich");
+        }
+        if (title.length() > MAX_TITLE_LENGTH) {
+            throw ApiException.badRequest("Checklistenelement-Titel muss " + MAX_TITLE_LENGTH + " Zeichen oder weniger sein");
+        }
+    }
+
+    /**
+     * Liest die vom Trigger gepflegten Checklisten-Zähler der Idee (gesamt, erledigt).
+     * Vorher wird geflusht, damit der Trigger die Änderungen dieser Transaktion bereits gezählt hat;
+     * die Zeile der Idee bleibt dabei bis zum Commit gesperrt.
+     */
+    private int[] loadChecklistCounts(Idea idea) {
+        em.flush();
+        Object[] row = (Object[]) em.createNativeQuery(
+                "SELECT total_items, completed_items FROM ideas WHERE id = ?1")
+                .setParameter(1, idea.getId())
+                .getSingleResult();
+        return new int[] {((Number) row[0]).intValue(), ((Number) row[1]).intValue()};
+    }
+
     /**
      * Aktualisiert den Fortschrittsprozentsatz der Idee basierend auf der Checklistenfertigstellung.
      * Fortschritt = (fertiggestellte Elemente / Gesamtelemente) * 100
+     * @return true, wenn alle Elemente erledigt sind
      */
-    private void updateIdeaProgress(Idea idea) {
-        List<ChecklistItem> items = em.createNamedQuery("ChecklistItem.findByIdea", ChecklistItem.class)
-                .setParameter("ideaId", idea.getId())
-                .getResultList();
+    private boolean updateIdeaProgress(Idea idea) {
+        int[] counts = loadChecklistCounts(idea);
+        int totalCount = counts[0];
+        int completedCount = counts[1];
 
-        if (items.isEmpty()) {
+        if (totalCount == 0) {
             // Keine Checklistenelemente, Fortschritt nicht ändern
-            return;
+            return false;
         }
 
-        long completedCount = items.stream()
-                .filter(ChecklistItem::getIsCompleted)
-                .count();
-
-        int progressPercentage = (int) Math.round((double) completedCount / items.size() * 100);
+        int progressPercentage = (int) Math.round((double) completedCount / totalCount * 100);
         idea.setProgressPercentage(progressPercentage);
         em.merge(idea);
+        return completedCount == totalCount;
     }
 
     /**
@@ -238,34 +389,28 @@ public class ChecklistService {
      * @return StatusTransitionResult mit Informationen über Statusänderungen
      */
     private StatusTransitionResult updateIdeaProgressWithTransitions(Idea idea) {
-        List<ChecklistItem> items = em.createNamedQuery("ChecklistItem.findByIdea", ChecklistItem.class)
-                .setParameter("ideaId", idea.getId())
-                .getResultList();
+        int[] counts = loadChecklistCounts(idea);
+        int totalCount = counts[0];
+        int completedCount = counts[1];
 
-        if (items.isEmpty()) {
+        if (totalCount == 0) {
             return new StatusTransitionResult(false, false);
         }
 
-        long completedCount = items.stream()
-                .filter(ChecklistItem::getIsCompleted)
-                .count();
-
-        int progressPercentage = (int) Math.round((double) completedCount / items.size() * 100);
+        int progressPercentage = (int) Math.round((double) completedCount / totalCount * 100);
         idea.setProgressPercentage(progressPercentage);
 
         boolean transitionedToInProgress = false;
-        boolean allTodosCompleted = false;
 
         // Automatischer Übergang: CONCEPT -> IN_PROGRESS wenn erstes Todo erledigt
         if (idea.getStatus() == IdeaStatus.CONCEPT && completedCount > 0) {
             idea.setStatus(IdeaStatus.IN_PROGRESS);
             transitionedToInProgress = true;
+            eventBus.publish(new IdeaChanged(idea.getId(), IdeaChanged.STATUS_CHANGED));
         }
 
         // Prüfen, ob alle Todos erledigt sind (für Frontend-Bestätigungsdialog)
-        if (completedCount == items.size() && !items.isEmpty()) {
-            allTodosCompleted = true;
-        }
+        boolean allTodosCompleted = completedCount == totalCount;
 
         em.merge(idea);
 
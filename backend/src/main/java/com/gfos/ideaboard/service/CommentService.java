@@ -9,7 +9,11 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -17,6 +21,7 @@ public class CommentService {
 
     private static final int MAX_COMMENT_LENGTH = 200;
     private static final int XP_FOR_COMMENT = 5;
+    private static final int MAX_PAGE_SIZE = 100;
 
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
@@ -30,12 +35,46 @@ public class CommentService {
     @Inject
     private GamificationService gamificationService;
 
-    public List<CommentDTO> getCommentsByIdea(Long ideaId, Long currentUserId) {
+    /**
+     * Liefert eine Seite Kommentare (neueste zuerst). Reaktionen werden pro Seite mit einer gruppierten Abfrage
+     * gezählt und die eigenen Reaktionen mit einer weiteren Abfrage geladen, statt sie je Kommentar nachzuladen.
+     */
+    public List<CommentDTO> getCommentsByIdea(Long ideaId, int page, int size, Long currentUserId) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
         List<Comment> comments = em.createNamedQuery("Comment.findByIdea", Comment.class)
                 .setParameter("ideaId", ideaId)
+                .setFirstResult(Math.max(0, page) * pageSize)
+                .setMaxResults(pageSize)
                 .getResultList();
+        if (comments.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> commentIds = comments.stream().map(Comment::getId).collect(Collectors.toList());
+
+        Map<Long, Map<String, Long>> reactionCounts = new HashMap<>();
+        em.createNamedQuery("CommentReaction.countByComments", Object[].class)
+                .setParameter("commentIds", commentIds)
+                .getResultList()
+                .forEach(row -> reactionCounts
+                        .computeIfAbsent((Long) row[0], id -> new TreeMap<>())
+                        .put((String) row[1], ((Number) row[2]).longValue()));
+
+        Map<Long, List<String>> userEmojis = new HashMap<>();
+        if (currentUserId != null) {
+            em.createNamedQuery("CommentReaction.findEmojisByUser", Object[].class)
+                    .setParameter("userId", currentUserId)
+                    .setParameter("commentIds", commentIds)
+                    .getResultList()
+                    .forEach(row -> userEmojis
+                            .computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                            .add((String) row[1]));
+        }
+
         return comments.stream()
-                .map(comment -> CommentDTO.fromEntity(comment, currentUserId))
+                .map(comment -> CommentDTO.fromEntity(comment,
+                        reactionCounts.getOrDefault(comment.getId(), Map.of()),
+                        userEmojis.getOrDefault(comment.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
@@ -75,7 +114,8 @@ public class CommentService {
             notificationService.notifyComment(idea, author, content);
         }
 
-        return CommentDTO.fromEntity(comment, authorId);
+        // Neuer Kommentar hat noch keine Reaktionen
+        return CommentDTO.fromEntity(comment, Map.of(), List.of());
     }
 
     @Transactional
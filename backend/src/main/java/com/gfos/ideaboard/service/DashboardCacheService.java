@@ -0,0 +1,161 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.dto.IdeaDTO;
+import com.gfos.ideaboard.dto.PlatformStatistics;
+import com.gfos.ideaboard.dto.SurveyDTO;
+import com.gfos.ideaboard.event.EventBus;
+import com.gfos.ideaboard.event.IdeaChanged;
+import com.gfos.ideaboard.util.RefreshAheadCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Zwischenspeicher für die Dashboard-Endpunkte.
+ * Gecacht werden nur benutzerunabhängige Daten; Like- und Abstimmungsstatus des aktuellen
+ * Benutzers werden pro Anfrage mit je einer Abfrage ergänzt.
+ * Änderungen an Ideen auf irgendeiner Instanz ({@link IdeaChanged}) verwerfen die ideenbezogenen Einträge.
+ */
+@ApplicationScoped
+public class DashboardCacheService {
+
+    private static final String ALL = "all";
+
+    // Obergrenze für den "limit"-Parameter, damit die Anzahl der Cache-Schlüssel begrenzt bleibt
+    private static final int MAX_NEW_IDEAS = 50;
+
+    private static final int TOP_IDEAS_LIMIT = 3;
+
+    @Inject
+    private StatisticsService statisticsService;
+
+    @Inject
+    private IdeaService ideaService;
+
+    @Inject
+    private SurveyService surveyService;
+
+    @Inject
+    private SurveyTallyService tallyService;
+
+    @Inject
+    private EventBus eventBus;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    private RefreshAheadCache<String, PlatformStatistics> statisticsCache;
+    private RefreshAheadCache<String, List<IdeaDTO>> topIdeasCache;
+    private RefreshAheadCache<Integer, List<IdeaDTO>> newIdeasCache;
+    private RefreshAheadCache<String, List<SurveyDTO>> surveysCache;
+
+    @PostConstruct
+    void init() {
+        long ttlMillis = Math.max(1, EnvConfig.getLong("DASHBOARD_CACHE_TTL_SECONDS", 30)) * 1000L;
+
+        statisticsCache = new RefreshAheadCache<>("statistics", ttlMillis,
+                key -> statisticsService.getStatistics(), executor);
+        topIdeasCache = new RefreshAheadCache<>("top-ideas", ttlMillis,
+                key -> ideaService.getTopIdeasThisWeek(TOP_IDEAS_LIMIT, null), executor);
+        newIdeasCache = new RefreshAheadCache<>("new-ideas", ttlMillis,
+                limit -> ideaService.getIdeas(null, null, null, null, 0, limit, null), executor);
+        surveysCache = new RefreshAheadCache<>("active-surveys", ttlMillis,
+                key -> surveyService.getActiveSurveys(null), executor);
+    }
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        eventBus.subscribe(IdeaChanged.class, event -> invalidateIdeas());
+        eventBus.onResync(this::invalidateAll);
+    }
+
+    public PlatformStatistics getStatistics() {
+        return statisticsCache.get(ALL);
+    }
+
+    public List<IdeaDTO> getTopIdeas(Long userId) {
+        return withLikes(topIdeasCache.get(ALL), userId);
+    }
+
+    public List<IdeaDTO> getNewIdeas(int limit, Long userId) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_NEW_IDEAS));
+        return withLikes(newIdeasCache.get(boundedLimit), userId);
+    }
+
+    public List<SurveyDTO> getActiveSurveys(Long userId) {
+        // Umfragen, die seit dem Laden abgelaufen sind, sofort ausblenden
+        LocalDateTime now = LocalDateTime.now();
+        List<SurveyDTO> surveys = surveysCache.get(ALL).stream()
+                .filter(survey -> survey.getExpiresAt() == null || survey.getExpiresAt().isAfter(now))
+                .collect(Collectors.toList());
+        Map<Long, List<Long>> votes = surveyService.getUserVotedOptionIds(userId,
+                surveys.stream().map(SurveyDTO::getId).collect(Collectors.toList()));
+        return surveys.stream()
+                .map(survey -> tallyService.withLiveCounts(survey)
+                        .withUserVotes(votes.getOrDefault(survey.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Markiert alle Dashboard-Daten als veraltet (z.B. nach Änderungen an Ideen oder Umfragen).
+     */
+    public void invalidateAll() {
+        invalidateIdeas();
+        surveysCache.invalidateAll();
+    }
+
+    /**
+     * Verwirft die Umfrage-Einträge, sobald die laufende Transaktion (Anlegen oder Löschen einer Umfrage)
+     * erfolgreich abgeschlossen ist, damit ein gleichzeitiges Nachladen nicht den alten Stand übernimmt.
+     */
+    public void invalidateSurveysAfterCommit() {
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    // Die Statistik enthält die Zahl aktiver Umfragen
+                    statisticsCache.invalidateAll();
+                    surveysCache.invalidateAll();
+                }
+            }
+        });
+    }
+
+    private void invalidateIdeas() {
+        statisticsCache.invalidateAll();
+        topIdeasCache.invalidateAll();
+        newIdeasCache.invalidateAll();
+    }
+
+    public List<Map<String, Object>> getMetrics() {
+        return List.of(statisticsCache.getMetrics(), topIdeasCache.getMetrics(),
+                newIdeasCache.getMetrics(), surveysCache.getMetrics());
+    }
+
+    private List<IdeaDTO> withLikes(List<IdeaDTO> ideas, Long userId) {
+        Set<Long> liked = ideaService.getLikedIdeaIds(userId,
+                ideas.stream().map(IdeaDTO::getId).collect(Collectors.toList()));
+        return ideas.stream()
+                .map(idea -> idea.withLikedByCurrentUser(liked.contains(idea.getId())))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,339 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.dto.ExportJobDTO;
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Führt Exporte asynchron in einem begrenzten Thread-Pool aus.
+ * Die fertigen Dateien werden im Exportverzeichnis abgelegt und nach Ablauf der TTL gelöscht.
+ * Die eigentliche Erzeugung übernimmt {@link ExportService}.
+ */
+@ApplicationScoped
+public class ExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+    public enum JobType {
+        IDEAS_CSV("ideas", "csv", "ideas.csv", "text/csv"),
+        STATISTICS_CSV("statistics", "csv", "statistics.csv", "text/csv"),
+        STATISTICS_PDF("statistics", "pdf", "statistics.pdf", "application/pdf"),
+        USERS_CSV("users", "csv", "users.csv", "text/csv");
+
+        private final String type;
+        private final String format;
+        private final String fileName;
+        private final String mediaType;
+
+        JobType(String type, String format, String fileName, String mediaType) {
+            this.type = type;
+            this.format = format;
+            this.fileName = fileName;
+            this.mediaType = mediaType;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public static JobType of(String type, String format) {
+            for (JobType jobType : values()) {
+                if (jobType.type.equalsIgnoreCase(type) && jobType.format.equalsIgnoreCase(format)) {
+                    return jobType;
+                }
+            }
+            throw ApiException.badRequest("Unbekannter Exporttyp: " + type + "/" + format);
+        }
+    }
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        boolean isActive() {
+            return this == QUEUED || this == RUNNING;
+        }
+    }
+
+    @Inject
+    private ExportService exportService;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+    private ScheduledFuture<?> cleanupTask;
+    private Path exportDir;
+    private int maxJobsPerUser;
+    private long ttlMinutes;
+
+    @PostConstruct
+    void init() {
+        int workers = Math.max(1, EnvConfig.getInt("EXPORT_WORKERS", 2));
+        int queueCapacity = Math.max(1, EnvConfig.getInt("EXPORT_QUEUE_CAPACITY", 20));
+        maxJobsPerUser = Math.max(1, EnvConfig.getInt("EXPORT_MAX_JOBS_PER_USER", 2));
+        ttlMinutes = Math.max(1, EnvConfig.getLong("EXPORT_TTL_MINUTES", 60));
+        exportDir = Paths.get(EnvConfig.get("EXPORT_DIR",
+                Paths.get(System.getProperty("java.io.tmpdir"), "ideaboard-exports").toString()));
+
+        try {
+            Files.createDirectories(exportDir);
+        } catch (IOException e) {
+            throw new IllegalStateException("Exportverzeichnis konnte nicht angelegt werden: " + exportDir, e);
+        }
+
+        // Feste Poolgröße und begrenzte Warteschlange: überzählige Jobs werden abgelehnt statt gestapelt
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        cleanupTask = scheduler.scheduleAtFixedRate(this::removeExpiredJobs, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (cleanupTask != null) {
+            cleanupTask.cancel(false);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        // Jobs leben nur im Speicher; ohne sie sind die Dateien nicht mehr abrufbar
+        jobs.values().forEach(job -> deleteQuietly(job.file));
+        jobs.clear();
+    }
+
+    public ExportJobDTO submit(JobType type, Long userId) {
+        ExportJob job = new ExportJob(UUID.randomUUID().toString(), type, userId);
+
+        synchronized (jobs) {
+            long activeJobs = jobs.values().stream()
+                    .filter(j -> j.userId.equals(userId) && j.status.get().isActive())
+                    .count();
+            if (activeJobs >= maxJobsPerUser) {
+                throw ApiException.tooManyRequests(
+                        "Es laufen bereits " + activeJobs + " Exporte. Bitte warten Sie, bis diese abgeschlossen sind");
+            }
+            jobs.put(job.id, job);
+        }
+
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw ApiException.tooManyRequests("Die Export-Warteschlange ist voll. Bitte später erneut versuchen");
+        }
+
+        return toDTO(job);
+    }
+
+    public ExportJobDTO getJob(String jobId, Long userId) {
+        return toDTO(findJob(jobId, userId));
+    }
+
+    public List<ExportJobDTO> getJobsForUser(Long userId) {
+        return jobs.values().stream()
+                .filter(job -> job.userId.equals(userId))
+                .sorted(Comparator.comparing((ExportJob job) -> job.createdAt).reversed())
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Bricht einen laufenden oder wartenden Job ab. Bereits beendete Jobs werden samt Datei entfernt.
+     */
+    public void cancel(String jobId, Long userId) {
+        ExportJob job = findJob(jobId, userId);
+
+        if (job.status.compareAndSet(JobStatus.QUEUED, JobStatus.CANCELLED)
+                || job.status.compareAndSet(JobStatus.RUNNING, JobStatus.CANCELLED)) {
+            Future<?> future = job.future;
+            if (future != null) {
+                future.cancel(true);
+            }
+            job.completedAt = LocalDateTime.now();
+            job.expiresAt = job.completedAt.plusMinutes(ttlMinutes);
+            return;
+        }
+
+        jobs.remove(job.id);
+        deleteQuietly(job.file);
+    }
+
+    /**
+     * Liefert die fertige Exportdatei eines Jobs.
+     */
+    public Path getArtifact(String jobId, Long userId) {
+        ExportJob job = findJob(jobId, userId);
+        if (job.status.get() != JobStatus.COMPLETED || job.file == null || !Files.exists(job.file)) {
+            throw ApiException.conflict("Der Export ist noch nicht abgeschlossen");
+        }
+        return job.file;
+    }
+
+    public JobType getJobType(String jobId, Long userId) {
+        return findJob(jobId, userId).type;
+    }
+
+    private ExportJob findJob(String jobId, Long userId) {
+        ExportJob job = jobs.get(jobId);
+        // Fremde Jobs werden wie nicht existierende behandelt
+        if (job == null || !job.userId.equals(userId)) {
+            throw ApiException.notFound("Export-Job nicht gefunden");
+        }
+        return job;
+    }
+
+    private void run(ExportJob job) {
+        if (!job.status.compareAndSet(JobStatus.QUEUED, JobStatus.RUNNING)) {
+            return;
+        }
+
+        Path file = exportDir.resolve(job.id + "." + job.type.getFormat());
+        job.file = file;
+
+        try {
+            long total = switch (job.type) {
+                case IDEAS_CSV -> exportService.countIdeas();
+                case USERS_CSV -> exportService.countUsers();
+                default -> 0;
+            };
+
+            LongConsumer progress = rows -> {
+                if (job.status.get() == JobStatus.CANCELLED || Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                if (total > 0) {
+                    job.progress = (int) Math.min(99, rows * 100 / total);
+                }
+            };
+
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                switch (job.type) {
+                    case IDEAS_CSV -> exportService.exportIdeasToCsv(out, progress);
+                    case USERS_CSV -> exportService.exportUsersToCsv(out, progress);
+                    case STATISTICS_CSV -> exportService.exportStatisticsToCsv(out);
+                    case STATISTICS_PDF -> exportService.exportStatisticsToPdf(out);
+                }
+            }
+
+            if (job.status.compareAndSet(JobStatus.RUNNING, JobStatus.COMPLETED)) {
+                job.progress = 100;
+                job.completedAt = LocalDateTime.now();
+                job.expiresAt = job.completedAt.plusMinutes(ttlMinutes);
+            } else {
+                deleteQuietly(file);
+            }
+        } catch (CancellationException e) {
+            deleteQuietly(file);
+        } catch (Exception e) {
+            logger.error("Export-Job {} ({}) fehlgeschlagen", job.id, job.type, e);
+            deleteQuietly(file);
+            if (job.status.compareAndSet(JobStatus.RUNNING, JobStatus.FAILED)) {
+                job.errorMessage = "Fehler beim Erstellen des Exports";
+                job.completedAt = LocalDateTime.now();
+                job.expiresAt = job.completedAt.plusMinutes(ttlMinutes);
+            }
+        }
+    }
+
+    private void removeExpiredJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        jobs.values().removeIf(job -> {
+            if (job.expiresAt != null && job.expiresAt.isBefore(now)) {
+                deleteQuietly(job.file);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Exportdatei {} konnte nicht gelöscht werden", file, e);
+        }
+    }
+
+    private ExportJobDTO toDTO(ExportJob job) {
+        ExportJobDTO dto = new ExportJobDTO();
+        dto.setId(job.id);
+        dto.setType(job.type.getType());
+        dto.setFormat(job.type.getFormat());
+        dto.setStatus(job.status.get().name());
+        dto.setProgress(job.progress);
+        dto.setFileName(job.type.getFileName());
+        dto.setErrorMessage(job.errorMessage);
+        dto.setCreatedAt(job.createdAt);
+        dto.setCompletedAt(job.completedAt);
+        dto.setExpiresAt(job.expiresAt);
+        return dto;
+    }
+
+    private static class ExportJob {
+        final String id;
+        final JobType type;
+        final Long userId;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicReference<JobStatus> status = new AtomicReference<>(JobStatus.QUEUED);
+        volatile int progress;
+        volatile Path file;
+        volatile Future<?> future;
+        volatile String errorMessage;
+        volatile LocalDateTime completedAt;
+        volatile LocalDateTime expiresAt;
+
+        ExportJob(String id, JobType type, Long userId) {
+            this.id = id;
+            this.type = type;
+            this.userId = userId;
+        }
+    }
+}
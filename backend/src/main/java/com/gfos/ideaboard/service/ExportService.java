@@ -1,8 +1,7 @@
 package com.gfos.ideaboard.service;
 
-import com.gfos.ideaboard.entity.Idea;
+import com.gfos.ideaboard.dto.PlatformStatistics;
 import com.gfos.ideaboard.entity.IdeaStatus;
-import com.gfos.ideaboard.entity.User;
 import com.itextpdf.io.font.constants.StandardFonts;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.font.PdfFont;
@@ -16,14 +15,21 @@ import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -32,74 +38,115 @@ public class ExportService {
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
 
+    @Inject
+    private StatisticsService statisticsService;
+
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
-    public byte[] exportIdeasToCsv() {
-        List<Idea> ideas = em.createQuery("SELECT i FROM Idea i ORDER BY i.createdAt DESC", Idea.class)
-                .getResultList();
+    // Anzahl Zeilen pro Datenbankabfrage beim Streaming-Export
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final String USERS_EXPORT_QUERY =
+            "WITH page AS (" +
+            "  SELECT id, username, email, first_name, last_name, role, xp_points, level, is_active, created_at " +
+            "  FROM users WHERE id < ?1 ORDER BY id DESC LIMIT ?2" +
+            ") " +
+            "SELECT p.id, p.username, p.email, p.first_name, p.last_name, p.role, p.xp_points, p.level, " +
+            "  COALESCE(i.cnt, 0), COALESCE(l.cnt, 0), COALESCE(c.cnt, 0), p.is_active, p.created_at " +
+            "FROM page p " +
+            "LEFT JOIN (SELECT author_id, COUNT(*) AS cnt FROM ideas " +
+            "  WHERE author_id IN (SELECT id FROM page) GROUP BY author_id) i ON i.author_id = p.id " +
+            "LEFT JOIN (SELECT user_id, COUNT(*) AS cnt FROM likes " +
+            "  WHERE user_id IN (SELECT id FROM page) GROUP BY user_id) l ON l.user_id = p.id " +
+            "LEFT JOIN (SELECT author_id, COUNT(*) AS cnt FROM comments " +
+            "  WHERE author_id IN (SELECT id FROM page) GROUP BY author_id) c ON c.author_id = p.id " +
+            "ORDER BY p.id DESC";
+
+    /**
+     * Schreibt alle Ideen als CSV direkt in den Ausgabestrom.
+     * Die Ideen werden blockweise per Keyset-Abfrage (id absteigend) als Projektion geladen,
+     * sodass der Speicherbedarf unabhängig von der Anzahl der Ideen konstant bleibt.
+     */
+    public void exportIdeasToCsv(OutputStream out) throws IOException {
+        exportIdeasToCsv(out, rows -> {});
+    }
 
-        StringBuilder csv = new StringBuilder();
-        csv.append("ID,Titel,Beschreibung,Kategorie,Status,Fortschritt,Autor,Likes,Kommentare,Erstellt am\n");
-
-        for (Idea idea : ideas) {
-            csv.append(idea.getId()).append(",");
-            csv.append(escapeCsv(idea.getTitle())).append(",");
-            csv.append(escapeCsv(idea.getDescription())).append(",");
-            csv.append(escapeCsv(idea.getCategory())).append(",");
-            csv.append(idea.getStatus().name()).append(",");
-            csv.append(idea.getProgressPercentage()).append("%,");
-            csv.append(escapeCsv(idea.getAuthor().getUsername())).append(",");
-            csv.append(idea.getLikeCount()).append(",");
-            csv.append(idea.getCommentCount()).append(",");
-            csv.append(idea.getCreatedAt().format(DATE_FORMAT)).append("\n");
-        }
+    /**
+     * Wie {@link #exportIdeasToCsv(OutputStream)}, meldet nach jedem Block die Anzahl
+     * bisher geschriebener Zeilen (für Fortschrittsanzeige und Abbruch von Export-Jobs).
+     */
+    public void exportIdeasToCsv(OutputStream out, LongConsumer progress) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.write("ID,Titel,Beschreibung,Kategorie,Status,Fortschritt,Autor,Likes,Kommentare,Erstellt am\n");
+
+        long lastId = Long.MAX_VALUE;
+        long written = 0;
+        List<Object[]> rows;
+        do {
+            rows = em.createQuery(
+                    "SELECT i.id, i.title, i.description, i.category, i.status, i.progressPercentage, " +
+                    "a.username, i.likeCount, i.commentCount, i.createdAt " +
+                    "FROM Idea i JOIN i.author a WHERE i.id < :lastId ORDER BY i.id DESC", Object[].class)
+                    .setParameter("lastId", lastId)
+                    .setMaxResults(CHUNK_SIZE)
+                    .getResultList();
+
+            for (Object[] row : rows) {
+                csv.write(row[0] + ",");
+                csv.write(escapeCsv((String) row[1]) + ",");
+                csv.write(escapeCsv((String) row[2]) + ",");
+                csv.write(escapeCsv((String) row[3]) + ",");
+                csv.write(((IdeaStatus) row[4]).name() + ",");
+                csv.write(row[5] + "%,");
+                csv.write(escapeCsv((String) row[6]) + ",");
+                csv.write(row[7] + ",");
+                csv.write(row[8] + ",");
+                csv.write(((LocalDateTime) row[9]).format(DATE_FORMAT) + "\n");
+                lastId = (Long) row[0];
+            }
+            // Nach jedem Block an den Client weitergeben, statt alles zu puffern
+            csv.flush();
+            written += rows.size();
+            progress.accept(written);
+        } while (rows.size() == CHUNK_SIZE);
+    }
 
-        return csv.toString().getBytes();
+    public long countIdeas() {
+        return em.createQuery("SELECT COUNT(i) FROM Idea i", Long.class).getSingleResult();
     }
 
-    public byte[] exportStatisticsToCsv() {
+    public long countUsers() {
+        return em.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult();
+    }
+
+    public void exportStatisticsToCsv(OutputStream out) throws IOException {
+        PlatformStatistics stats = statisticsService.getStatistics();
+
         StringBuilder csv = new StringBuilder();
         csv.append("Metrik,Wert\n");
-
-        // Gesamtzahl Ideen
-        Long totalIdeas = em.createQuery("SELECT COUNT(i) FROM Idea i", Long.class).getSingleResult();
-        csv.append("Gesamtzahl Ideen,").append(totalIdeas).append("\n");
+        csv.append("Gesamtzahl Ideen,").append(stats.getTotalIdeas()).append("\n");
 
         // Ideen nach Status
         for (IdeaStatus status : IdeaStatus.values()) {
-            Long count = em.createQuery("SELECT COUNT(i) FROM Idea i WHERE i.status = :status", Long.class)
-                    .setParameter("status", status)
-                    .getSingleResult();
-            csv.append("Ideen - ").append(status.name()).append(",").append(count).append("\n");
+            csv.append("Ideen - ").append(status.name()).append(",").append(stats.getIdeasByStatus(status)).append("\n");
         }
 
-        // Gesamtzahl Benutzer
-        Long totalUsers = em.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult();
-        csv.append("Gesamtzahl Benutzer,").append(totalUsers).append("\n");
-
-        // Gesamtzahl Likes
-        Long totalLikes = em.createQuery("SELECT COUNT(l) FROM Like l", Long.class).getSingleResult();
-        csv.append("Gesamtzahl Likes,").append(totalLikes).append("\n");
-
-        // Gesamtzahl Kommentare
-        Long totalComments = em.createQuery("SELECT COUNT(c) FROM Comment c", Long.class).getSingleResult();
-        csv.append("Gesamtzahl Kommentare,").append(totalComments).append("\n");
+        csv.append("Gesamtzahl Benutzer,").append(stats.getTotalUsers()).append("\n");
+        csv.append("Gesamtzahl Likes,").append(stats.getTotalLikes()).append("\n");
+        csv.append("Gesamtzahl Kommentare,").append(stats.getTotalComments()).append("\n");
 
         // Ideen nach Kategorie
-        @SuppressWarnings("unchecked")
-        List<Object[]> categoryStats = em.createQuery(
-                "SELECT i.category, COUNT(i) FROM Idea i GROUP BY i.category ORDER BY COUNT(i) DESC")
-                .getResultList();
-        for (Object[] row : categoryStats) {
-            csv.append("Kategorie - ").append(row[0]).append(",").append(row[1]).append("\n");
+        for (PlatformStatistics.CategoryCount category : stats.getCategoryBreakdown()) {
+            csv.append("Kategorie - ").append(category.getCategory()).append(",").append(category.getCount()).append("\n");
         }
 
-        return csv.toString().getBytes();
+        out.write(csv.toString().getBytes(StandardCharsets.UTF_8));
     }
 
-    public byte[] exportStatisticsToPdf() throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
+    public void exportStatisticsToPdf(OutputStream out) throws IOException {
+        PlatformStatistics stats = statisticsService.getStatistics();
+
+        PdfWriter writer = new PdfWriter(out);
         PdfDocument pdf = new PdfDocument(writer);
         Document document = new Document(pdf);
 
@@ -115,7 +162,7 @@ public class ExportService {
         document.add(title);
 
         // Generierungsdatum
-        Paragraph date = new Paragraph("Erstellt: " + LocalDateTime.now().format(DATE_FORMAT))
+        Paragraph date = new Paragraph("Erstellt: " + stats.getGeneratedAt().format(DATE_FORMAT))
                 .setFont(regularFont)
                 .setFontSize(10)
                 .setTextAlignment(TextAlignment.RIGHT)
@@ -125,17 +172,12 @@ public class ExportService {
         // Übersichtsbereich
         document.add(new Paragraph("Übersicht").setFont(boldFont).setFontSize(14).setMarginTop(10));
 
-        Long totalIdeas = em.createQuery("SELECT COUNT(i) FROM Idea i", Long.class).getSingleResult();
-        Long totalUsers = em.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult();
-        Long totalLikes = em.createQuery("SELECT COUNT(l) FROM Like l", Long.class).getSingleResult();
-        Long totalComments = em.createQuery("SELECT COUNT(c) FROM Comment c", Long.class).getSingleResult();
-
         Table overviewTable = new Table(UnitValue.createPercentArray(new float[]{50, 50}))
                 .setWidth(UnitValue.createPercentValue(100));
-        addTableRow(overviewTable, "Gesamtzahl Ideen", String.valueOf(totalIdeas));
-        addTableRow(overviewTable, "Gesamtzahl Benutzer", String.valueOf(totalUsers));
-        addTableRow(overviewTable, "Gesamtzahl Likes", String.valueOf(totalLikes));
-        addTableRow(overviewTable, "Gesamtzahl Kommentare", String.valueOf(totalComments));
+        addTableRow(overviewTable, "Gesamtzahl Ideen", String.valueOf(stats.getTotalIdeas()));
+        addTableRow(overviewTable, "Gesamtzahl Benutzer", String.valueOf(stats.getTotalUsers()));
+        addTableRow(overviewTable, "Gesamtzahl Likes", String.valueOf(stats.getTotalLikes()));
+        addTableRow(overviewTable, "Gesamtzahl Kommentare", String.valueOf(stats.getTotalComments()));
         document.add(overviewTable);
 
         // Ideen nach Status
@@ -146,52 +188,38 @@ public class ExportService {
         addTableHeader(statusTable, "Status", "Anzahl");
 
         for (IdeaStatus status : IdeaStatus.values()) {
-            Long count = em.createQuery("SELECT COUNT(i) FROM Idea i WHERE i.status = :status", Long.class)
-                    .setParameter("status", status)
-                    .getSingleResult();
-            addTableRow(statusTable, status.name(), String.valueOf(count));
+            addTableRow(statusTable, status.name(), String.valueOf(stats.getIdeasByStatus(status)));
         }
         document.add(statusTable);
 
         // Ideen nach Kategorie
         document.add(new Paragraph("Ideen nach Kategorie").setFont(boldFont).setFontSize(14).setMarginTop(20));
 
-        @SuppressWarnings("unchecked")
-        List<Object[]> categoryStats = em.createQuery(
-                "SELECT i.category, COUNT(i) FROM Idea i GROUP BY i.category ORDER BY COUNT(i) DESC")
-                .getResultList();
-
         Table categoryTable = new Table(UnitValue.createPercentArray(new float[]{60, 40}))
                 .setWidth(UnitValue.createPercentValue(100));
         addTableHeader(categoryTable, "Kategorie", "Anzahl");
 
-        for (Object[] row : categoryStats) {
-            addTableRow(categoryTable, String.valueOf(row[0]), String.valueOf(row[1]));
+        for (PlatformStatistics.CategoryCount category : stats.getCategoryBreakdown()) {
+            addTableRow(categoryTable, category.getCategory(), String.valueOf(category.getCount()));
         }
         document.add(categoryTable);
 
         // Top-Ideen
         document.add(new Paragraph("Top 5 Ideen nach Likes").setFont(boldFont).setFontSize(14).setMarginTop(20));
 
-        List<Idea> topIdeas = em.createQuery(
-                "SELECT i FROM Idea i ORDER BY i.likeCount DESC", Idea.class)
-                .setMaxResults(5)
-                .getResultList();
-
         Table topIdeasTable = new Table(UnitValue.createPercentArray(new float[]{50, 25, 25}))
                 .setWidth(UnitValue.createPercentValue(100));
         addTableHeader(topIdeasTable, "Titel", "Autor", "Likes");
 
-        for (Idea idea : topIdeas) {
+        for (PlatformStatistics.TopIdea idea : stats.getTopIdeas()) {
             addTableRow(topIdeasTable,
                     truncate(idea.getTitle(), 40),
-                    idea.getAuthor().getUsername(),
-                    String.valueOf(idea.getLikeCount()));
+                    idea.getAuthor(),
+                    String.valueOf(idea.getLikes()));
         }
         document.add(topIdeasTable);
 
         document.close();
-        return baos.toByteArray();
     }
 
     private void addTableHeader(Table table, String... headers) {
@@ -232,40 +260,53 @@ public class ExportService {
         return value;
     }
 
-    public byte[] exportUsersToCsv() {
-        List<User> users = em.createQuery("SELECT u FROM User u ORDER BY u.createdAt DESC", User.class)
-                .getResultList();
+    /**
+     * Schreibt alle Benutzer inklusive Aktivitätszahlen als CSV in den Ausgabestrom.
+     * Pro Block wird genau eine Abfrage ausgeführt: die Zählungen für Ideen, Likes und Kommentare
+     * kommen aus gruppierten Teilabfragen, die auf die Benutzer des aktuellen Blocks beschränkt sind.
+     */
+    public void exportUsersToCsv(OutputStream out) throws IOException {
+        exportUsersToCsv(out, rows -> {});
+    }
 
-        StringBuilder csv = new StringBuilder();
-        csv.append("ID,Benutzername,E-Mail,Vorname,Nachname,Rolle,XP-Punkte,Level,Anzahl Ideen,Vergebene Likes,Kommentare,Aktiv,Erstellt am\n");
-
-        for (User user : users) {
-            Long ideasCount = em.createQuery("SELECT COUNT(i) FROM Idea i WHERE i.author.id = :userId", Long.class)
-                    .setParameter("userId", user.getId())
-                    .getSingleResult();
-            Long likesGiven = em.createQuery("SELECT COUNT(l) FROM Like l WHERE l.user.id = :userId", Long.class)
-                    .setParameter("userId", user.getId())
-                    .getSingleResult();
-            Long commentsCount = em.createQuery("SELECT COUNT(c) FROM Comment c WHERE c.author.id = :userId", Long.class)
-                    .setParameter("userId", user.getId())
-                    .getSingleResult();
-
-            csv.append(user.getId()).append(",");
-            csv.append(escapeCsv(user.getUsername())).append(",");
-            csv.append(escapeCsv(user.getEmail())).append(",");
-            csv.append(escapeCsv(user.getFirstName())).append(",");
-            csv.append(escapeCsv(user.getLastName())).append(",");
-            csv.append(user.getRole().name()).append(",");
-            csv.append(user.getXpPoints()).append(",");
-            csv.append(user.getLevel()).append(",");
-            csv.append(ideasCount).append(",");
-            csv.append(likesGiven).append(",");
-            csv.append(commentsCount).append(",");
-            csv.append(user.getIsActive()).append(",");
-            csv.append(user.getCreatedAt().format(DATE_FORMAT)).append("\n");
-        }
+    public void exportUsersToCsv(OutputStream out, LongConsumer progress) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.write("ID,Benutzername,E-Mail,Vorname,Nachname,Rolle,XP-Punkte,Level,Anzahl Ideen,Vergebene Likes,Kommentare,Aktiv,Erstellt am\n");
+
+        long lastId = Long.MAX_VALUE;
+        long written = 0;
+        List<Object[]> rows;
+        do {
+            rows = findUserExportPage(lastId);
+
+            for (Object[] row : rows) {
+                csv.write(row[0] + ",");
+                csv.write(escapeCsv((String) row[1]) + ",");
+                csv.write(escapeCsv((String) row[2]) + ",");
+                csv.write(escapeCsv((String) row[3]) + ",");
+                csv.write(escapeCsv((String) row[4]) + ",");
+                csv.write(row[5] + ",");
+                csv.write(row[6] + ",");
+                csv.write(row[7] + ",");
+                csv.write(row[8] + ",");
+                csv.write(row[9] + ",");
+                csv.write(row[10] + ",");
+                csv.write(row[11] + ",");
+                csv.write(((Timestamp) row[12]).toLocalDateTime().format(DATE_FORMAT) + "\n");
+                lastId = ((Number) row[0]).longValue();
+            }
+            csv.flush();
+            written += rows.size();
+            progress.accept(written);
+        } while (rows.size() == CHUNK_SIZE);
+    }
 
-        return csv.toString().getBytes();
+    @SuppressWarnings("unchecked")
+    private List<Object[]> findUserExportPage(long lastId) {
+        return em.createNativeQuery(USERS_EXPORT_QUERY)
+                .setParameter(1, lastId)
+                .setParameter(2, CHUNK_SIZE)
+                .getResultList();
     }
 
     private String truncate(String value, int maxLength) {
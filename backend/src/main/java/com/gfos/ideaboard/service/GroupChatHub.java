@@ -0,0 +1,385 @@
+package com.gfos.ideaboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.dto.GroupMessageDTO;
+import com.gfos.ideaboard.entity.GroupMessage;
+import com.gfos.ideaboard.event.EventBus;
+import com.gfos.ideaboard.event.UserRoleChanged;
+import com.gfos.ideaboard.util.SerialLanes;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Session;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Verteilt Ereignisse des Gruppenchats (neue Nachrichten, Tippen) an die per WebSocket verbundenen
+ * Mitglieder. Ereignisse laufen über den NOTIFY-Kanal {@value #CHANNEL}, damit alle Instanzen sie erhalten;
+ * Nachrichten werden innerhalb der Transaktion gesendet und damit erst nach dem Commit zugestellt.
+ * Verteilt wird nicht im Listener-Thread, sondern auf dem Executor, seriell pro Gruppe (über eine feste Zahl von
+ * Spuren, {@link SerialLanes}), damit die Reihenfolge im Chat erhalten bleibt.
+ * Jedes Ereignis wird pro Instanz einmal serialisiert. Pro Verbindung ist höchstens ein Sendevorgang unterwegs,
+ * alles, was währenddessen anfällt, wird als ein JSON-Array in einem Frame nachgeschickt. Läuft die Warteschlange
+ * einer langsamen Verbindung voll, werden Tipp-Ereignisse verworfen und die Verbindung danach geschlossen,
+ * damit der Client neu verbindet und fehlende Nachrichten per REST nachlädt.
+ * Verbindungen werden mit 1008 geschlossen, sobald ihr Token abläuft oder über {@link UserRoleChanged}
+ * widerrufen wird (Rollenwechsel, Deaktivierung).
+ */
+@ApplicationScoped
+public class GroupChatHub implements PgNotificationListener.Subscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(GroupChatHub.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    static final String CHANNEL = "group_chat";
+
+    // Proxies schließen inaktive Verbindungen; ein Ping hält sie offen
+    private static final long PING_INTERVAL_SECONDS = 30;
+
+    // Tipp-Ereignisse höchstens alle zwei Sekunden pro Verbindung weitergeben
+    private static final long TYPING_THROTTLE_MILLIS = 2000;
+
+    private static final int LANES = 8;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private PgNotificationListener notificationListener;
+
+    @Inject
+    private GroupMembershipCache membershipCache;
+
+    @Inject
+    private EventBus eventBus;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private final Map<Long, Set<Connection>> connectionsByGroup = new ConcurrentHashMap<>();
+
+    private SerialLanes<String> lanes;
+
+    private int maxPendingFrames;
+    private ScheduledFuture<?> pingTask;
+
+    @PostConstruct
+    void init() {
+        maxPendingFrames = Math.max(16, EnvConfig.getInt("GROUP_CHAT_MAX_PENDING_FRAMES", 256));
+        lanes = new SerialLanes<>(LANES, executor, this::deliver);
+    }
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        notificationListener.subscribe(CHANNEL, this);
+        eventBus.subscribe(UserRoleChanged.class, this::onUserRoleChanged);
+        pingTask = scheduler.scheduleAtFixedRate(this::ping, PING_INTERVAL_SECONDS, PING_INTERVAL_SECONDS,
+                TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (pingTask != null) {
+            pingTask.cancel(false);
+        }
+    }
+
+    /**
+     * Eine WebSocket-Verbindung eines Mitglieds zu einer Gruppe mit eigener, begrenzter Sendewarteschlange.
+     */
+    public final class Connection {
+        private final Session session;
+        private final Long groupId;
+        private final Long userId;
+        private final String username;
+        private final Long issuedAtMillis;
+        private final ArrayDeque<String> pending = new ArrayDeque<>();
+        private volatile ScheduledFuture<?> expiryTask;
+        private boolean sending;
+        private long lastTypingAt;
+
+        private Connection(Session session, Long groupId, Long userId, String username, Long issuedAtMillis) {
+            this.session = session;
+            this.groupId = groupId;
+            this.userId = userId;
+            this.username = username;
+            this.issuedAtMillis = issuedAtMillis;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        /**
+         * Reiht einen Frame ein. Verwerfbare Frames (Tippen) entfallen bereits ab halb voller Warteschlange.
+         */
+        void enqueue(String frame, boolean droppable) {
+            synchronized (this) {
+                if (!session.isOpen()) {
+                    return;
+                }
+                int limit = droppable ? maxPendingFrames / 2 : maxPendingFrames;
+                if (pending.size() >= limit) {
+                    if (!droppable) {
+                        overflow();
+                    }
+                    return;
+                }
+                pending.add(frame);
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            flush();
+        }
+
+        private void flush() {
+            String batch;
+            synchronized (this) {
+                if (pending.isEmpty() || !session.isOpen()) {
+                    sending = false;
+                    return;
+                }
+                batch = "[" + String.join(",", pending) + "]";
+                pending.clear();
+            }
+            session.getAsyncRemote().sendText(batch, result -> {
+                if (!result.isOK()) {
+                    logger.debug("Senden an WebSocket {} fehlgeschlagen: {}", session.getId(),
+                            String.valueOf(result.getException()));
+                    close(CloseReason.CloseCodes.UNEXPECTED_CONDITION, "Senden fehlgeschlagen");
+                    return;
+                }
+                flush();
+            });
+        }
+
+        private void overflow() {
+            pending.clear();
+            logger.info("WebSocket {} von Benutzer {} zu langsam, Verbindung wird geschlossen", session.getId(), userId);
+            close(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Zu viele ausstehende Nachrichten");
+        }
+
+        private void close(CloseReason.CloseCode code, String reason) {
+            try {
+                session.close(new CloseReason(code, reason));
+            } catch (IOException e) {
+                logger.debug("WebSocket {} konnte nicht geschlossen werden", session.getId(), e);
+            }
+        }
+
+        private synchronized boolean allowTyping(long now) {
+            if (now - lastTypingAt < TYPING_THROTTLE_MILLIS) {
+                return false;
+            }
+            lastTypingAt = now;
+            return true;
+        }
+    }
+
+    /**
+     * Meldet eine Verbindung an. Token und Mitgliedschaft müssen bereits geprüft sein; läuft das Token ab,
+     * wird die Verbindung geschlossen.
+     */
+    public Connection register(Session session, Long groupId, Long userId, String username,
+                               Long issuedAtMillis, long expiresAtMillis) {
+        Connection connection = new Connection(session, groupId, userId, username, issuedAtMillis);
+        connectionsByGroup.computeIfAbsent(groupId, id -> ConcurrentHashMap.newKeySet()).add(connection);
+        long delay = Math.max(0, expiresAtMillis - System.currentTimeMillis());
+        connection.expiryTask = scheduler.schedule(
+                () -> connection.close(CloseReason.CloseCodes.VIOLATED_POLICY, "Token abgelaufen"),
+                delay, TimeUnit.MILLISECONDS);
+        return connection;
+    }
+
+    public void unregister(Connection connection) {
+        ScheduledFuture<?> expiryTask = connection.expiryTask;
+        if (expiryTask != null) {
+            expiryTask.cancel(false);
+        }
+        connectionsByGroup.computeIfPresent(connection.groupId, (id, connections) -> {
+            connections.remove(connection);
+            return connections.isEmpty() ? null : connections;
+        });
+    }
+
+    /**
+     * Kündigt eine neue Nachricht an. Muss innerhalb der Transaktion aufgerufen werden, die sie speichert.
+     */
+    public void messageSent(Long groupId, Long messageId) {
+        PgNotificationListener.notify(em, CHANNEL, "message:" + groupId + ":" + messageId);
+    }
+
+    /**
+     * Gibt ein Tipp-Ereignis weiter (gedrosselt, ohne Transaktion, sofort zugestellt).
+     */
+    public void typing(Connection connection) {
+        if (!connection.allowTyping(System.currentTimeMillis())) {
+            return;
+        }
+        PgNotificationListener.notify(em, CHANNEL,
+                "typing:" + connection.groupId + ":" + connection.userId + ":" + connection.username);
+    }
+
+    @Override
+    public void onNotification(String payload) {
+        // Formate: "message:<groupId>:<messageId>", "typing:<groupId>:<userId>:<username>"
+        String[] parts = payload.split(":", 4);
+        if (parts.length < 3) {
+            logger.warn("Ungültiges Chat-Ereignis: {}", payload);
+            return;
+        }
+        Long groupId;
+        try {
+            groupId = Long.valueOf(parts[1]);
+        } catch (NumberFormatException e) {
+            logger.warn("Ungültiges Chat-Ereignis: {}", payload);
+            return;
+        }
+        if (!connectionsByGroup.containsKey(groupId)) {
+            // Keine Verbindung zu dieser Gruppe auf dieser Instanz
+            return;
+        }
+        // Nachrichten werden aus der Datenbank gelesen; das soll den gemeinsamen Listener-Thread nicht aufhalten
+        lanes.enqueue(groupId, payload);
+    }
+
+    private void deliver(String payload) {
+        String[] parts = payload.split(":", 4);
+        Long groupId = Long.valueOf(parts[1]);
+        Set<Connection> connections = connectionsByGroup.get(groupId);
+        if (connections == null || connections.isEmpty()) {
+            return;
+        }
+
+        try {
+            switch (parts[0]) {
+                case "message" -> deliverMessage(groupId, Long.valueOf(parts[2]), connections);
+                case "typing" -> {
+                    Long userId = Long.valueOf(parts[2]);
+                    Map<String, Object> event = event("typing", groupId);
+                    event.put("userId", userId);
+                    event.put("username", parts.length > 3 ? parts[3] : null);
+                    broadcast(connections, toJson(event), userId, true);
+                }
+                default -> logger.warn("Unbekanntes Chat-Ereignis: {}", payload);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Chat-Ereignis {} konnte nicht verteilt werden", payload, e);
+        }
+    }
+
+    /**
+     * Schließt die Verbindungen eines Benutzers, dessen Token durch eine Rollen- oder Statusänderung
+     * ungültig geworden sind (wie im {@link com.gfos.ideaboard.security.TokenRevocationRegistry}).
+     */
+    private void onUserRoleChanged(UserRoleChanged event) {
+        for (Set<Connection> connections : connectionsByGroup.values()) {
+            for (Connection connection : connections) {
+                if (!connection.userId.equals(event.userId())) {
+                    continue;
+                }
+                if (!event.active() || connection.issuedAtMillis == null
+                        || connection.issuedAtMillis < event.notBeforeMillis()) {
+                    connection.close(CloseReason.CloseCodes.VIOLATED_POLICY, "Token widerrufen");
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onReconnect() {
+        // Während der Unterbrechung verpasste Ereignisse sind unbekannt: Clients laden fehlende Nachrichten nach
+        for (Map.Entry<Long, Set<Connection>> entry : connectionsByGroup.entrySet()) {
+            broadcast(entry.getValue(), toJson(event("resync", entry.getKey())), null, false);
+        }
+    }
+
+    private void deliverMessage(Long groupId, Long messageId, Set<Connection> connections) {
+        List<GroupMessage> messages = em.createQuery(
+                        "SELECT gm FROM GroupMessage gm JOIN FETCH gm.sender WHERE gm.id = :id", GroupMessage.class)
+                .setParameter("id", messageId)
+                .getResultList();
+        if (messages.isEmpty()) {
+            return;
+        }
+        Map<String, Object> event = event("message", groupId);
+        event.put("message", GroupMessageDTO.fromEntity(messages.get(0)));
+        broadcast(connections, toJson(event), null, false);
+    }
+
+    private void broadcast(Set<Connection> connections, String frame, Long excludeUserId, boolean droppable) {
+        for (Connection connection : new ArrayList<>(connections)) {
+            if (connection.userId.equals(excludeUserId)) {
+                continue;
+            }
+            // Wer die Gruppe inzwischen verlassen hat, erhält nichts mehr
+            if (!membershipCache.isMember(connection.groupId, connection.userId)) {
+                connection.close(CloseReason.CloseCodes.VIOLATED_POLICY, "Keine Mitgliedschaft");
+                continue;
+            }
+            connection.enqueue(frame, droppable);
+        }
+    }
+
+    private void ping() {
+        ByteBuffer payload = ByteBuffer.allocate(0);
+        for (Set<Connection> connections : connectionsByGroup.values()) {
+            for (Connection connection : connections) {
+                try {
+                    if (connection.session.isOpen()) {
+                        connection.session.getAsyncRemote().sendPing(payload.duplicate());
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Ping an WebSocket {} fehlgeschlagen", connection.session.getId(), e);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Object> event(String type, Long groupId) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("groupId", groupId);
+        return event;
+    }
+
+    private static String toJson(Map<String, Object> event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Chat-Ereignis konnte nicht serialisiert werden", e);
+        }
+    }
+}
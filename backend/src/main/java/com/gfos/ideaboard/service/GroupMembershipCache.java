@@ -0,0 +1,115 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.event.EventBus;
+import com.gfos.ideaboard.event.MembershipChanged;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Speicherinterner Index der Gruppenmitgliedschaften: pro Benutzer die Menge seiner Gruppen-IDs.
+ * Ein Eintrag wird beim ersten Zugriff mit einer Abfrage geladen; danach sind Mitgliedschaftsprüfungen reine
+ * Speicherzugriffe. Beitritte und Austritte werden als {@link MembershipChanged} über den {@link EventBus}
+ * veröffentlicht und nach dem Commit auf allen Instanzen übernommen.
+ */
+@ApplicationScoped
+public class GroupMembershipCache {
+
+    // Obergrenze für zwischengespeicherte Benutzer; darüber wird der Index verworfen und neu aufgebaut
+    private static final int MAX_CACHED_USERS = 50000;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    @Inject
+    private EventBus eventBus;
+
+    private final Map<Long, Set<Long>> groupsByUser = new ConcurrentHashMap<>();
+
+    // Wird bei jeder Änderung erhöht, damit ein parallel geladener, bereits veralteter Stand nicht übernommen wird
+    private final AtomicLong generation = new AtomicLong();
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        eventBus.subscribe(MembershipChanged.class, event -> apply(event.groupId(), event.userId(), event.joined()));
+        eventBus.onResync(this::clear);
+    }
+
+    public boolean isMember(Long groupId, Long userId) {
+        if (groupId == null || userId == null) {
+            return false;
+        }
+        return groupsOf(userId).contains(groupId);
+    }
+
+    /**
+     * Vermerkt einen Beitritt. Muss innerhalb der Transaktion aufgerufen werden, die die Mitgliedschaft anlegt.
+     */
+    public void memberAdded(Long groupId, Long userId) {
+        eventBus.publish(new MembershipChanged(groupId, userId, true));
+    }
+
+    /**
+     * Vermerkt einen Austritt. Muss innerhalb der Transaktion aufgerufen werden, die die Mitgliedschaft entfernt.
+     */
+    public void memberRemoved(Long groupId, Long userId) {
+        eventBus.publish(new MembershipChanged(groupId, userId, false));
+    }
+
+    private void apply(Long groupId, Long userId, boolean member) {
+        generation.incrementAndGet();
+        // Nur vorhandene Einträge anpassen; fehlende werden beim nächsten Zugriff vollständig geladen
+        groupsByUser.computeIfPresent(userId, (id, groups) -> {
+            if (member) {
+                groups.add(groupId);
+            } else {
+                groups.remove(groupId);
+            }
+            return groups;
+        });
+    }
+
+    private Set<Long> groupsOf(Long userId) {
+        Set<Long> cached = groupsByUser.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadedAt = generation.get();
+        Set<Long> loaded = load(userId);
+        if (generation.get() != loadedAt) {
+            // Während des Ladens hat sich eine Mitgliedschaft geändert: Ergebnis nur für diese Prüfung verwenden
+            return loaded;
+        }
+        if (groupsByUser.size() >= MAX_CACHED_USERS) {
+            groupsByUser.clear();
+        }
+        Set<Long> existing = groupsByUser.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> load(Long userId) {
+        List<Number> rows = em.createNativeQuery("SELECT group_id FROM group_members WHERE user_id = ?1")
+                .setParameter(1, userId)
+                .getResultList();
+        Set<Long> groups = ConcurrentHashMap.newKeySet(Math.max(16, rows.size() * 2));
+        for (Number row : rows) {
+            groups.add(row.longValue());
+        }
+        return groups;
+    }
+
+    private void clear() {
+        // Während der Unterbrechung verpasste Änderungen sind unbekannt: Index verwerfen und neu laden
+        generation.incrementAndGet();
+        groupsByUser.clear();
+    }
+}
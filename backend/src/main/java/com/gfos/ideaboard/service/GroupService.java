@@ -10,13 +10,60 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class GroupService {
 
     private static final int MAX_MESSAGE_LENGTH = 2000;
+    // Anzahl Mitglieder, die in der Gruppenliste mitgeliefert werden (memberCount enthält alle)
+    private static final int MEMBER_PREVIEW_SIZE = 5;
+
+    private static final String UNREAD_CONDITION =
+            "msg.sender_id <> ?1 AND NOT EXISTS (SELECT 1 FROM group_message_reads r " +
+            "  WHERE r.message_id = msg.id AND r.user_id = ?1)";
+
+    /**
+     * Je Gruppe des Benutzers: ID, Mitgliederzahl, IDs der ersten Mitglieder (kommagetrennt),
+     * ID der letzten Nachricht und Anzahl ungelesener Nachrichten.
+     */
+    private static final String USER_GROUP_SUMMARY =
+            "SELECT g.id, mc.member_count, mp.member_ids, lm.id, ur.unread_count " +
+            "FROM group_members me " +
+            "JOIN idea_groups g ON g.id = me.group_id " +
+            "CROSS JOIN LATERAL (SELECT COUNT(*) AS member_count FROM group_members m WHERE m.group_id = g.id) mc " +
+            "CROSS JOIN LATERAL (SELECT string_agg(p.id::text, ',' ORDER BY p.joined_at, p.id) AS member_ids " +
+            "  FROM (SELECT m.id, m.joined_at FROM group_members m WHERE m.group_id = g.id " +
+            "        ORDER BY m.joined_at, m.id LIMIT ?2) p) mp " +
+            "LEFT JOIN LATERAL (SELECT msg.id FROM group_messages msg WHERE msg.group_id = g.id " +
+            "  ORDER BY msg.created_at DESC, msg.id DESC LIMIT 1) lm ON TRUE " +
+            "CROSS JOIN LATERAL (SELECT COUNT(*) AS unread_count FROM group_messages msg " +
+            "  WHERE msg.group_id = g.id AND " + UNREAD_CONDITION + ") ur " +
+            "WHERE me.user_id = ?1 " +
+            "ORDER BY g.updated_at DESC";
+
+    private static final String TOTAL_UNREAD =
+            "SELECT COUNT(*) FROM group_messages msg " +
+            "JOIN group_members me ON me.group_id = msg.group_id AND me.user_id = ?1 " +
+            "WHERE " + UNREAD_CONDITION;
+
+    /**
+     * Markiert nur Nachrichten zwischen bisherigem und neuem Lesestand und schiebt den Lesestand in derselben
+     * Anweisung vor; liegt messageId nicht über dem Lesestand, geschieht nichts.
+     */
+    private static final String MARK_READ_UP_TO =
+            "WITH prev AS (SELECT last_read_message_id AS last_read FROM group_members " +
+            "  WHERE group_id = ?1 AND user_id = ?2 AND last_read_message_id < ?3 FOR UPDATE), " +
+            "bump AS (UPDATE group_members gm SET last_read_message_id = ?3 FROM prev " +
+            "  WHERE gm.group_id = ?1 AND gm.user_id = ?2) " +
+            "INSERT INTO group_message_reads (message_id, user_id) " +
+            "SELECT msg.id, ?2 FROM group_messages msg, prev " +
+            "WHERE msg.group_id = ?1 AND msg.id > prev.last_read AND msg.id <= ?3 AND msg.sender_id <> ?2 " +
+            "ON CONFLICT (message_id, user_id) DO NOTHING";
 
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
@@ -24,6 +71,12 @@ public class GroupService {
     @Inject
     private NotificationService notificationService;
 
+    @Inject
+    private GroupMembershipCache membershipCache;
+
+    @Inject
+    private GroupChatHub chatHub;
+
     /**
      * Erstellt eine Gruppe für eine Idee. Wird automatisch aufgerufen, wenn eine Idee erstellt wird.
      */
@@ -44,29 +97,82 @@ public class GroupService {
         creatorMember.setRole(GroupMemberRole.CREATOR);
 
         em.persist(creatorMember);
+        em.flush(); // ID der Gruppe für den Mitgliedschaftsindex
+        membershipCache.memberAdded(group.getId(), creator.getId());
 
         return group;
     }
 
     /**
      * Ruft alle Gruppen ab, in denen ein Benutzer Mitglied ist.
+     * Mitgliederzahl, Vorschau-Mitglieder, letzte Nachricht und ungelesene Nachrichten kommen aus einer
+     * LATERAL-Abfrage; Gruppen, Vorschau-Mitglieder und letzte Nachrichten werden danach je mit einer Abfrage
+     * über alle Gruppen geladen. Die Zahl der Abfragen hängt damit nicht von der Zahl der Gruppen ab.
      */
     public List<IdeaGroupDTO> getUserGroups(Long userId) {
-        List<IdeaGroup> groups = em.createNamedQuery("IdeaGroup.findByUser", IdeaGroup.class)
-                .setParameter("userId", userId)
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(USER_GROUP_SUMMARY)
+                .setParameter(1, userId)
+                .setParameter(2, MEMBER_PREVIEW_SIZE)
                 .getResultList();
+        if (rows.isEmpty()) {
+            return List.of();
+        }
 
-        return groups.stream()
-                .map(group -> {
-                    // Mitglieder eifrig für DTO-Konvertierung abrufen
-                    List<GroupMember> members = em.createNamedQuery("GroupMember.findByGroupWithUser", GroupMember.class)
-                            .setParameter("groupId", group.getId())
-                            .getResultList();
-                    int unreadCount = getUnreadMessageCount(group.getId(), userId);
-                    GroupMessageDTO lastMessage = getLastMessage(group.getId());
-                    return IdeaGroupDTO.fromEntity(group, members, unreadCount, lastMessage);
-                })
-                .collect(Collectors.toList());
+        List<Long> groupIds = new ArrayList<>();
+        List<Long> memberIds = new ArrayList<>();
+        List<Long> messageIds = new ArrayList<>();
+        for (Object[] row : rows) {
+            groupIds.add(((Number) row[0]).longValue());
+            if (row[2] != null) {
+                for (String memberId : ((String) row[2]).split(",")) {
+                    memberIds.add(Long.valueOf(memberId));
+                }
+            }
+            if (row[3] != null) {
+                messageIds.add(((Number) row[3]).longValue());
+            }
+        }
+
+        Map<Long, IdeaGroup> groups = em.createQuery(
+                "SELECT g FROM IdeaGroup g LEFT JOIN FETCH g.idea LEFT JOIN FETCH g.createdBy WHERE g.id IN :ids",
+                IdeaGroup.class)
+                .setParameter("ids", groupIds)
+                .getResultStream()
+                .collect(Collectors.toMap(IdeaGroup::getId, Function.identity()));
+
+        Map<Long, GroupMember> members = memberIds.isEmpty() ? Map.of() : em.createQuery(
+                "SELECT gm FROM GroupMember gm JOIN FETCH gm.user WHERE gm.id IN :ids", GroupMember.class)
+                .setParameter("ids", memberIds)
+                .getResultStream()
+                .collect(Collectors.toMap(GroupMember::getId, Function.identity()));
+
+        Map<Long, GroupMessage> messages = messageIds.isEmpty() ? Map.of() : em.createQuery(
+                "SELECT gm FROM GroupMessage gm JOIN FETCH gm.sender WHERE gm.id IN :ids", GroupMessage.class)
+                .setParameter("ids", messageIds)
+                .getResultStream()
+                .collect(Collectors.toMap(GroupMessage::getId, Function.identity()));
+
+        List<IdeaGroupDTO> result = new ArrayList<>();
+        for (Object[] row : rows) {
+            IdeaGroup group = groups.get(((Number) row[0]).longValue());
+            if (group == null) {
+                continue;
+            }
+            List<GroupMember> preview = new ArrayList<>();
+            if (row[2] != null) {
+                for (String memberId : ((String) row[2]).split(",")) {
+                    GroupMember member = members.get(Long.valueOf(memberId));
+                    if (member != null) {
+                        preview.add(member);
+                    }
+                }
+            }
+            GroupMessage lastMessage = row[3] != null ? messages.get(((Number) row[3]).longValue()) : null;
+            result.add(IdeaGroupDTO.fromEntity(group, preview, ((Number) row[1]).intValue(),
+                    ((Number) row[4]).intValue(), lastMessage != null ? GroupMessageDTO.fromEntity(lastMessage) : null));
+        }
+        return result;
     }
 
     /**
@@ -160,6 +266,7 @@ public class GroupService {
 
         em.persist(member);
         em.flush(); // Sicherstellen, dass das Mitglied vor dem Abrufen persistiert wird
+        membershipCache.memberAdded(groupId, userId);
 
         // Gruppenersteller benachrichtigen, dass jemand beigetreten ist
         notificationService.notifyGroupJoin(group, user);
@@ -213,20 +320,27 @@ public class GroupService {
         }
 
         em.remove(members.get(0));
+        membershipCache.memberRemoved(groupId, userId);
     }
 
     /**
-     * Ruft alle Nachrichten in einer Gruppe ab.
+     * Ruft die Nachrichten einer Gruppe ab. Mit afterId nur die Nachrichten danach, z.B. zum Nachladen
+     * nach einem Verbindungsabbruch des Live-Chats.
      */
-    public List<GroupMessageDTO> getGroupMessages(Long groupId, Long userId) {
+    public List<GroupMessageDTO> getGroupMessages(Long groupId, Long userId, Long afterId) {
         // Verifizieren, dass Benutzer Mitglied ist
         if (!isMember(groupId, userId)) {
             throw ApiException.forbidden("You are not a member of this group");
         }
 
-        List<GroupMessage> messages = em.createNamedQuery("GroupMessage.findByGroup", GroupMessage.class)
-                .setParameter("groupId", groupId)
-                .getResultList();
+        List<GroupMessage> messages = afterId == null
+                ? em.createNamedQuery("GroupMessage.findByGroup", GroupMessage.class)
+                        .setParameter("groupId", groupId)
+                        .getResultList()
+                : em.createNamedQuery("GroupMessage.findByGroupAfter", GroupMessage.class)
+                        .setParameter("groupId", groupId)
+                        .setParameter("afterId", afterId)
+                        .getResultList();
 
         return messages.stream()
                 .map(GroupMessageDTO::fromEntity)
@@ -281,6 +395,8 @@ public class GroupService {
 
         // Andere Gruppenmitglieder benachrichtigen
         notificationService.notifyGroupMessage(group, sender, content);
+        // Verbundene Chat-Clients erhalten die Nachricht nach dem Commit
+        chatHub.messageSent(groupId, message.getId());
 
         return GroupMessageDTO.fromEntity(message);
     }
@@ -290,27 +406,30 @@ public class GroupService {
      */
     @Transactional
     public void markAllMessagesAsRead(Long groupId, Long userId) {
-        // Alle ungelesenen Nachrichten abrufen
-        List<GroupMessage> messages = em.createNamedQuery("GroupMessage.findByGroup", GroupMessage.class)
-                .setParameter("groupId", groupId)
-                .getResultList();
-
-        for (GroupMessage message : messages) {
-            // Vom Benutzer gesendete Nachrichten überspringen
-            if (message.getSender().getId().equals(userId)) {
-                continue;
-            }
-
-            // Prüfen, ob bereits gelesen
-            List<GroupMessageRead> reads = em.createNamedQuery("GroupMessageRead.findByMessageAndUser", GroupMessageRead.class)
-                    .setParameter("messageId", message.getId())
-                    .setParameter("userId", userId)
-                    .getResultList();
+        Number latest = (Number) em.createNativeQuery("SELECT MAX(id) FROM group_messages WHERE group_id = ?1")
+                .setParameter(1, groupId)
+                .getSingleResult();
+        if (latest != null) {
+            markReadUpTo(groupId, userId, latest.longValue());
+        }
+    }
 
-            if (reads.isEmpty()) {
-                markMessageAsRead(message.getId(), userId);
-            }
+    /**
+     * Setzt den Lesestand eines Benutzers: alle fremden Nachrichten der Gruppe bis einschließlich messageId
+     * gelten als gelesen. Eine Anweisung statt einer Abfrage pro Nachricht, die nur den Bereich seit dem
+     * bisherigen Lesestand des Mitglieds berührt.
+     */
+    @Transactional
+    public void markReadUpTo(Long groupId, Long userId, Long messageId) {
+        if (!isMember(groupId, userId)) {
+            throw ApiException.forbidden("You are not a member of this group");
         }
+
+        em.createNativeQuery(MARK_READ_UP_TO)
+                .setParameter(1, groupId)
+                .setParameter(2, userId)
+                .setParameter(3, messageId)
+                .executeUpdate();
     }
 
     /**
@@ -343,15 +462,10 @@ public class GroupService {
     }
 
     /**
-     * Prüft, ob ein Benutzer Mitglied einer Gruppe ist.
+     * Prüft, ob ein Benutzer Mitglied einer Gruppe ist. Beantwortet aus dem {@link GroupMembershipCache}.
      */
     public boolean isMember(Long groupId, Long userId) {
-        Long count = em.createQuery(
-                "SELECT COUNT(gm) FROM GroupMember gm WHERE gm.group.id = :groupId AND gm.user.id = :userId", Long.class)
-                .setParameter("groupId", groupId)
-                .setParameter("userId", userId)
-                .getSingleResult();
-        return count > 0;
+        return membershipCache.isMember(groupId, userId);
     }
 
     /**
@@ -385,14 +499,9 @@ public class GroupService {
      * Ruft die Gesamtzahl ungelesener Gruppennachrichten für einen Benutzer über alle Gruppen hinweg ab.
      */
     public int getTotalUnreadCount(Long userId) {
-        List<IdeaGroup> groups = em.createNamedQuery("IdeaGroup.findByUser", IdeaGroup.class)
-                .setParameter("userId", userId)
-                .getResultList();
-
-        int total = 0;
-        for (IdeaGroup group : groups) {
-            total += getUnreadMessageCount(group.getId(), userId);
-        }
-        return total;
+        Number count = (Number) em.createNativeQuery(TOTAL_UNREAD)
+                .setParameter(1, userId)
+                .getSingleResult();
+        return count.intValue();
     }
 }
@@ -2,7 +2,10 @@ package com.gfos.ideaboard.service;
 
 import com.gfos.ideaboard.dto.IdeaDTO;
 import com.gfos.ideaboard.entity.*;
+import com.gfos.ideaboard.event.EventBus;
+import com.gfos.ideaboard.event.IdeaChanged;
 import com.gfos.ideaboard.exception.ApiException;
+import com.gfos.ideaboard.security.AuthorizationService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
@@ -13,7 +16,10 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.TemporalAdjusters;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -40,6 +46,12 @@ public class IdeaService {
     @Inject
     private GroupService groupService;
 
+    @Inject
+    private AuthorizationService authorizationService;
+
+    @Inject
+    private EventBus eventBus;
+
     public Idea findById(Long id) {
         return em.find(Idea.class, id);
     }
@@ -162,6 +174,7 @@ public class IdeaService {
 
         // Audit-Protokoll
         auditService.log(authorId, AuditAction.CREATE, "Idea", idea.getId(), null, null);
+        eventBus.publish(new IdeaChanged(idea.getId(), IdeaChanged.CREATED));
 
         return IdeaDTO.fromEntity(idea);
     }
@@ -219,6 +232,7 @@ public class IdeaService {
 
         // Audit-Protokoll
         auditService.log(authorId, AuditAction.CREATE, "Idea", idea.getId(), null, null);
+        eventBus.publish(new IdeaChanged(idea.getId(), IdeaChanged.CREATED));
 
         return IdeaDTO.fromEntity(idea);
     }
@@ -232,11 +246,8 @@ public class IdeaService {
         }
 
         // Prüfe Eigentumsrecht (nur Autor oder Admin können aktualisieren)
-        if (!idea.getAuthor().getId().equals(currentUserId)) {
-            User currentUser = em.find(User.class, currentUserId);
-            if (currentUser == null || currentUser.getRole() != UserRole.ADMIN) {
-                throw ApiException.forbidden("Nicht berechtigt, diese Idee zu aktualisieren");
-            }
+        if (!idea.getAuthor().getId().equals(currentUserId) && !authorizationService.isAdmin(currentUserId)) {
+            throw ApiException.forbidden("Nicht berechtigt, diese Idee zu aktualisieren");
         }
 
         if (title != null) idea.setTitle(title);
@@ -247,6 +258,7 @@ public class IdeaService {
         em.merge(idea);
 
         auditService.log(currentUserId, AuditAction.UPDATE, "Idea", id, null, null);
+        eventBus.publish(new IdeaChanged(id, IdeaChanged.UPDATED));
 
         return IdeaDTO.fromEntity(idea);
     }
@@ -258,14 +270,14 @@ public class IdeaService {
             throw ApiException.notFound("Idee nicht gefunden");
         }
 
-        User currentUser = em.find(User.class, currentUserId);
-        if (currentUser == null) {
+        UserRole currentRole = authorizationService.getRole(currentUserId);
+        if (currentRole == null) {
             throw ApiException.forbidden("Benutzer nicht gefunden");
         }
 
         boolean isAuthor = idea.getAuthor().getId().equals(currentUserId);
-        boolean isPMOrAdmin = currentUser.getRole() == UserRole.PROJECT_MANAGER ||
-                              currentUser.getRole() == UserRole.ADMIN;
+        boolean isPMOrAdmin = currentRole == UserRole.PROJECT_MANAGER ||
+                              currentRole == UserRole.ADMIN;
 
         // Prüfe Berechtigung (Autor kann eigene Idee ändern, PM/Admin alle)
         if (!isAuthor && !isPMOrAdmin) {
@@ -298,10 +310,13 @@ public class IdeaService {
 
         // Benachrichtige den Autor über die Statusänderung
         if (oldStatus != status) {
-            notificationService.notifyStatusChange(idea, oldStatus, status, currentUser);
+            // Nur als Absender-Referenz benötigt, kein Laden für die Rollenprüfung
+            User changedBy = em.getReference(User.class, currentUserId);
+            notificationService.notifyStatusChange(idea, oldStatus, status, changedBy);
             auditService.log(currentUserId, AuditAction.STATUS_CHANGE, "Idea", id,
                     "{\"status\":\"" + oldStatus + "\"}",
                     "{\"status\":\"" + status + "\"}");
+            eventBus.publish(new IdeaChanged(id, IdeaChanged.STATUS_CHANGED));
         }
 
         return IdeaDTO.fromEntity(idea);
@@ -315,13 +330,13 @@ public class IdeaService {
         }
 
         // Nur Admin kann löschen
-        User currentUser = em.find(User.class, currentUserId);
-        if (currentUser == null || currentUser.getRole() != UserRole.ADMIN) {
+        if (!authorizationService.isAdmin(currentUserId)) {
             throw ApiException.forbidden("Nur Administratoren können Ideen löschen");
         }
 
         auditService.log(currentUserId, AuditAction.DELETE, "Idea", id, null, null);
         em.remove(idea);
+        eventBus.publish(new IdeaChanged(id, IdeaChanged.DELETED));
     }
 
     @Transactional
@@ -358,6 +373,18 @@ public class IdeaService {
                 .getResultList();
     }
 
+    /**
+     * Ermittelt mit einer Abfrage, welche der angegebenen Ideen der Benutzer geliked hat.
+     */
+    public Set<Long> getLikedIdeaIds(Long userId, Collection<Long> ideaIds) {
+        if (userId == null || ideaIds.isEmpty()) return Set.of();
+        return new HashSet<>(em.createQuery(
+                "SELECT l.idea.id FROM Like l WHERE l.user.id = :userId AND l.idea.id IN :ideaIds", Long.class)
+                .setParameter("userId", userId)
+                .setParameter("ideaIds", ideaIds)
+                .getResultList());
+    }
+
     private boolean isLikedByUser(Long ideaId, Long userId) {
         if (userId == null) return false;
         Long count = em.createQuery(
@@ -0,0 +1,105 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fasst ältere ungelesene Benachrichtigungen (Likes, Kommentare, Reaktionen, Gruppennachrichten) periodisch
+ * zu einer DIGEST-Benachrichtigung pro Benutzer und Tag zusammen und entfernt die Einzelbenachrichtigungen.
+ * Standardmäßig deaktiviert; aktiv, wenn NOTIFICATION_DIGEST_INTERVAL_HOURS größer 0 ist.
+ */
+@ApplicationScoped
+public class NotificationDigestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDigestService.class);
+
+    private static final String DIGESTIBLE =
+            "n.is_read = FALSE AND n.created_at < ? AND (n.type IN ('LIKE', 'COMMENT', 'REACTION') " +
+            "  OR (n.type = 'MESSAGE' AND n.coalesce_key LIKE 'group-message:%'))";
+
+    private static final String DIGEST_SQL =
+            "WITH candidates AS (" +
+            "  SELECT n.user_id FROM notifications n WHERE " + DIGESTIBLE +
+            "  GROUP BY n.user_id HAVING COUNT(*) >= ?" +
+            "), collapsed AS (" +
+            "  DELETE FROM notifications n USING candidates c WHERE n.user_id = c.user_id AND " + DIGESTIBLE +
+            "  RETURNING n.user_id, n.type, n.aggregate_count" +
+            "), per_type AS (" +
+            "  SELECT user_id, type, SUM(aggregate_count) AS events FROM collapsed GROUP BY user_id, type" +
+            ") " +
+            "INSERT INTO notifications (user_id, type, title, message, coalesce_key, aggregate_count, created_at) " +
+            "SELECT user_id, 'DIGEST', 'Zusammenfassung: ' || SUM(events) || ' verpasste Ereignisse', " +
+            "  LEFT(string_agg(events || ' ' || CASE type WHEN 'LIKE' THEN 'Likes' WHEN 'COMMENT' THEN 'Kommentare' " +
+            "    WHEN 'REACTION' THEN 'Reaktionen' ELSE 'Gruppennachrichten' END, ', ' ORDER BY type), 500), " +
+            "  'digest:' || CURRENT_DATE, SUM(events), CURRENT_TIMESTAMP " +
+            "FROM per_type GROUP BY user_id " +
+            "ON CONFLICT (user_id, coalesce_key) WHERE coalesce_key IS NOT NULL AND is_read = FALSE " +
+            "DO UPDATE SET aggregate_count = notifications.aggregate_count + EXCLUDED.aggregate_count, " +
+            "  title = 'Zusammenfassung: ' || (notifications.aggregate_count + EXCLUDED.aggregate_count) " +
+            "    || ' verpasste Ereignisse', " +
+            "  message = LEFT(notifications.message || '; ' || EXCLUDED.message, 500), " +
+            "  created_at = EXCLUDED.created_at";
+
+    @Resource(lookup = "jdbc/ideaboard")
+    private DataSource dataSource;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private long digestAfterHours;
+    private int minItems;
+    private ScheduledFuture<?> digestTask;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        long intervalHours = EnvConfig.getLong("NOTIFICATION_DIGEST_INTERVAL_HOURS", 0);
+        if (intervalHours <= 0) {
+            return;
+        }
+        digestAfterHours = Math.max(1, EnvConfig.getLong("NOTIFICATION_DIGEST_AFTER_HOURS", 24));
+        minItems = Math.max(2, EnvConfig.getInt("NOTIFICATION_DIGEST_MIN_ITEMS", 5));
+        digestTask = scheduler.scheduleAtFixedRate(this::createDigests, intervalHours, intervalHours, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (digestTask != null) {
+            digestTask.cancel(false);
+        }
+    }
+
+    /**
+     * Erstellt die Zusammenfassungen und liefert die Anzahl betroffener Benutzer.
+     */
+    public int createDigests() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(DIGEST_SQL)) {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(digestAfterHours));
+            statement.setTimestamp(1, cutoff);
+            statement.setInt(2, minItems);
+            statement.setTimestamp(3, cutoff);
+            int users = statement.executeUpdate();
+            if (users > 0) {
+                logger.info("Benachrichtigungs-Zusammenfassungen für {} Benutzer erstellt", users);
+            }
+            return users;
+        } catch (SQLException e) {
+            logger.error("Erstellen der Benachrichtigungs-Zusammenfassungen fehlgeschlagen", e);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.util.AdvisoryLock;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aufbewahrung für Benachrichtigungen.
+ * Gelesene Benachrichtigungen älter als NOTIFICATION_RETENTION_DAYS Tage und alles über NOTIFICATION_MAX_PER_USER
+ * Einträge je Benutzer werden in kleinen Blöcken (je eigene Transaktion) archiviert oder gelöscht, damit keine
+ * langen Sperren entstehen. Danach wird die Tabelle per VACUUM ANALYZE aufgeräumt. Der Bericht des letzten
+ * Laufs ist für Administratoren abrufbar.
+ */
+@ApplicationScoped
+public class NotificationRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+    // "NOTIF" als Schlüssel, damit nur eine Instanz gleichzeitig aufräumt
+    private static final long ADVISORY_LOCK_KEY = 0x4E4F544946L;
+
+    private static final String COLUMNS =
+            "id, user_id, type, title, message, link, is_read, sender_id, related_entity_type, related_entity_id, " +
+            "coalesce_key, aggregate_count, created_at";
+
+    private static final String EXPIRED_BATCH =
+            "doomed AS (SELECT id FROM notifications WHERE is_read = TRUE AND created_at < ? " +
+            "  ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    // Einmal pro Lauf: Benutzer mit mehr als NOTIFICATION_MAX_PER_USER Einträgen
+    private static final String OVER_CAP_USERS =
+            "SELECT user_id FROM notifications GROUP BY user_id HAVING COUNT(*) > ?";
+
+    // Pro Benutzer über idx_notifications_user: alles nach den neuesten maxPerUser Einträgen, blockweise
+    private static final String OVER_CAP_BATCH =
+            "doomed AS (SELECT id FROM notifications WHERE user_id = ? " +
+            "  ORDER BY created_at DESC, id DESC OFFSET ? LIMIT ?)";
+
+    public enum RetentionMode {
+        ARCHIVE,
+        DELETE
+    }
+
+    @Resource(lookup = "jdbc/ideaboard")
+    private DataSource dataSource;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    private int retentionDays;
+    private int maxPerUser;
+    private int batchSize;
+    private RetentionMode retentionMode;
+    private ScheduledFuture<?> maintenanceTask;
+
+    private volatile Map<String, Object> lastReport = Map.of();
+
+    @PostConstruct
+    void init() {
+        // 0 = jeweilige Regel deaktiviert
+        retentionDays = Math.max(0, EnvConfig.getInt("NOTIFICATION_RETENTION_DAYS", 90));
+        maxPerUser = Math.max(0, EnvConfig.getInt("NOTIFICATION_MAX_PER_USER", 1000));
+        batchSize = Math.max(1, EnvConfig.getInt("NOTIFICATION_RETENTION_BATCH_SIZE", 1000));
+        String mode = EnvConfig.get("NOTIFICATION_RETENTION_MODE", RetentionMode.ARCHIVE.name());
+        try {
+            retentionMode = RetentionMode.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unbekannter NOTIFICATION_RETENTION_MODE-Wert '{}', verwende ARCHIVE", mode);
+            retentionMode = RetentionMode.ARCHIVE;
+        }
+    }
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        maintenanceTask = scheduler.scheduleAtFixedRate(this::runMaintenance, 10, 24 * 60, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (maintenanceTask != null) {
+            maintenanceTask.cancel(false);
+        }
+    }
+
+    public Map<String, Object> getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Führt die Aufbewahrungsregeln aus und liefert einen Bericht über die verarbeiteten Zeilen.
+     */
+    public synchronized Map<String, Object> runMaintenance() {
+        long start = System.currentTimeMillis();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startedAt", LocalDateTime.now().toString());
+        report.put("mode", retentionMode.name());
+        report.put("retentionDays", retentionDays);
+        report.put("maxPerUser", maxPerUser);
+
+        try (Connection connection = dataSource.getConnection()) {
+            if (!AdvisoryLock.tryLock(connection, ADVISORY_LOCK_KEY)) {
+                report.put("skipped", "Wartung läuft bereits auf einer anderen Instanz");
+                return finish(report, start);
+            }
+            try {
+                int expired = 0;
+                if (retentionDays > 0) {
+                    Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+                    expired = runBatches(connection, sqlFor(EXPIRED_BATCH), statement -> {
+                        statement.setTimestamp(1, cutoff);
+                        statement.setInt(2, batchSize);
+                    });
+                }
+                report.put("expired", expired);
+
+                int capped = 0;
+                if (maxPerUser > 0) {
+                    String sql = sqlFor(OVER_CAP_BATCH);
+                    for (long userId : findOverCapUsers(connection)) {
+                        capped += runBatches(connection, sql, statement -> {
+                            statement.setLong(1, userId);
+                            statement.setInt(2, maxPerUser);
+                            statement.setInt(3, batchSize);
+                        });
+                    }
+                }
+                report.put("capped", capped);
+
+                boolean vacuumed = expired + capped > 0;
+                if (vacuumed) {
+                    vacuum(connection);
+                }
+                report.put("vacuumed", vacuumed);
+            } finally {
+                AdvisoryLock.unlock(connection, ADVISORY_LOCK_KEY);
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.error("Aufbewahrung für Benachrichtigungen fehlgeschlagen", e);
+            report.put("error", e.getMessage());
+        }
+        return finish(report, start);
+    }
+
+    private Map<String, Object> finish(Map<String, Object> report, long start) {
+        report.put("durationMs", System.currentTimeMillis() - start);
+        logger.info("Aufbewahrung für Benachrichtigungen: {}", report);
+        lastReport = report;
+        return report;
+    }
+
+    private List<Long> findOverCapUsers(Connection connection) throws SQLException {
+        List<Long> userIds = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(OVER_CAP_USERS)) {
+            statement.setInt(1, maxPerUser);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    userIds.add(rs.getLong(1));
+                }
+            }
+        }
+        return userIds;
+    }
+
+    private String sqlFor(String doomedCte) {
+        if (retentionMode == RetentionMode.ARCHIVE) {
+            return "WITH " + doomedCte + ", moved AS (" +
+                   "  DELETE FROM notifications n USING doomed d WHERE n.id = d.id " +
+                   "  RETURNING " + prefixed("n.") + ") " +
+                   "INSERT INTO notifications_archive (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved";
+        }
+        return "WITH " + doomedCte + " DELETE FROM notifications n USING doomed d WHERE n.id = d.id";
+    }
+
+    private static String prefixed(String prefix) {
+        return prefix + COLUMNS.replace(", ", ", " + prefix);
+    }
+
+    /**
+     * Wiederholt einen Block, bis weniger als batchSize Zeilen betroffen sind. Jeder Block wird sofort committet.
+     */
+    private int runBatches(Connection connection, String sql, StatementBinder binder) throws SQLException {
+        int total = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int affected;
+            do {
+                binder.bind(statement);
+                affected = statement.executeUpdate();
+                total += affected;
+            } while (affected == batchSize);
+        }
+        return total;
+    }
+
+    // VACUUM darf nicht in einer Transaktion laufen, die Verbindung ist im Autocommit-Modus
+    private void vacuum(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM (ANALYZE) notifications");
+            if (retentionMode == RetentionMode.ARCHIVE) {
+                statement.execute("ANALYZE notifications_archive");
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+}
@@ -1,15 +1,16 @@
 package com.gfos.ideaboard.service;
 
+import com.gfos.ideaboard.config.EnvConfig;
 import com.gfos.ideaboard.dto.NotificationDTO;
 import com.gfos.ideaboard.entity.Badge;
 import com.gfos.ideaboard.entity.Comment;
-import com.gfos.ideaboard.entity.GroupMember;
 import com.gfos.ideaboard.entity.Idea;
 import com.gfos.ideaboard.entity.IdeaGroup;
 import com.gfos.ideaboard.entity.IdeaStatus;
 import com.gfos.ideaboard.entity.Notification;
 import com.gfos.ideaboard.entity.NotificationType;
 import com.gfos.ideaboard.entity.User;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -20,9 +21,42 @@ import java.util.stream.Collectors;
 @ApplicationScoped
 public class NotificationService {
 
+    private static final String GROUP_MESSAGE_FANOUT =
+            "INSERT INTO notifications (user_id, type, title, message, link, sender_id, " +
+            "  related_entity_type, related_entity_id, coalesce_key, aggregate_count, created_at) " +
+            "SELECT gm.user_id, 'MESSAGE', ?1, ?2, ?3, ?4, 'IdeaGroup', ?5, ?6, 1, CURRENT_TIMESTAMP " +
+            "FROM group_members gm WHERE gm.group_id = ?5 AND gm.user_id <> ?4 " +
+            // Feste Reihenfolge der Zeilensperren, damit sich parallele Fan-outs nicht gegenseitig blockieren
+            "ORDER BY gm.user_id " +
+            "ON CONFLICT (user_id, coalesce_key) WHERE coalesce_key IS NOT NULL AND is_read = FALSE " +
+            "DO UPDATE SET aggregate_count = notifications.aggregate_count + 1, " +
+            "  title = 'Neue Gruppennachrichten (' || (notifications.aggregate_count + 1) || ')', " +
+            "  message = EXCLUDED.message, sender_id = EXCLUDED.sender_id, created_at = EXCLUDED.created_at";
+
+    /**
+     * Legt eine Benachrichtigung an oder fasst sie mit einer ungelesenen Benachrichtigung gleichen Schlüssels zusammen.
+     * ?10 ist der Titel, ?11 der Text hinter der Anzahl der zusammengefassten Ereignisse.
+     */
+    private static final String COALESCING_UPSERT =
+            "INSERT INTO notifications (user_id, type, title, message, link, sender_id, " +
+            "  related_entity_type, related_entity_id, coalesce_key, aggregate_count, created_at) " +
+            "VALUES (?1, ?2, ?3, ?4, ?5, ?6, ?7, ?8, ?9, 1, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (user_id, coalesce_key) WHERE coalesce_key IS NOT NULL AND is_read = FALSE " +
+            "DO UPDATE SET aggregate_count = notifications.aggregate_count + 1, title = ?10, " +
+            "  message = (notifications.aggregate_count + 1) || ?11, " +
+            "  sender_id = EXCLUDED.sender_id, created_at = EXCLUDED.created_at";
+
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
 
+    // Zeitfenster, in dem gleichartige Ereignisse zu einer Benachrichtigung zusammengefasst werden
+    private long coalesceWindowMillis;
+
+    @PostConstruct
+    void init() {
+        coalesceWindowMillis = Math.max(1, EnvConfig.getLong("NOTIFICATION_COALESCE_WINDOW_MINUTES", 60)) * 60_000L;
+    }
+
     public List<NotificationDTO> getNotificationsByUser(Long userId, int limit) {
         List<Notification> notifications = em.createNamedQuery("Notification.findByUser", Notification.class)
                 .setParameter("userId", userId)
@@ -57,44 +91,32 @@ public class NotificationService {
 
     @Transactional
     public void notifyLike(Idea idea, User liker) {
-        Notification notification = new Notification();
-        notification.setUser(idea.getAuthor());
-        notification.setType(NotificationType.LIKE);
-        notification.setTitle("Neues Like");
-        notification.setMessage(liker.getFirstName() + " hat deine Idee \"" + truncate(idea.getTitle(), 50) + "\" geliked");
-        notification.setLink("/ideas/" + idea.getId());
-        notification.setSender(liker);
-        notification.setRelatedEntityType("Idea");
-        notification.setRelatedEntityId(idea.getId());
-        em.persist(notification);
+        String ideaTitle = truncate(idea.getTitle(), 50);
+        upsertCoalesced(idea.getAuthor().getId(), NotificationType.LIKE,
+                "Neues Like", liker.getFirstName() + " hat deine Idee \"" + ideaTitle + "\" geliked",
+                "Neue Likes", " Likes für deine Idee \"" + ideaTitle + "\", zuletzt von " + liker.getFirstName(),
+                "/ideas/" + idea.getId(), liker, "Idea", idea.getId(), "like:idea:" + idea.getId());
     }
 
     @Transactional
     public void notifyComment(Idea idea, User commenter, String commentContent) {
-        Notification notification = new Notification();
-        notification.setUser(idea.getAuthor());
-        notification.setType(NotificationType.COMMENT);
-        notification.setTitle("Neuer Kommentar");
-        notification.setMessage(commenter.getFirstName() + " hat \"" + truncate(idea.getTitle(), 30) + "\" kommentiert: " + truncate(commentContent, 50));
-        notification.setLink("/ideas/" + idea.getId());
-        notification.setSender(commenter);
-        notification.setRelatedEntityType("Idea");
-        notification.setRelatedEntityId(idea.getId());
-        em.persist(notification);
+        String ideaTitle = truncate(idea.getTitle(), 30);
+        upsertCoalesced(idea.getAuthor().getId(), NotificationType.COMMENT,
+                "Neuer Kommentar",
+                commenter.getFirstName() + " hat \"" + ideaTitle + "\" kommentiert: " + truncate(commentContent, 50),
+                "Neue Kommentare",
+                " Kommentare zu \"" + ideaTitle + "\", zuletzt von " + commenter.getFirstName() + ": "
+                        + truncate(commentContent, 50),
+                "/ideas/" + idea.getId(), commenter, "Idea", idea.getId(), "comment:idea:" + idea.getId());
     }
 
     @Transactional
     public void notifyReaction(Comment comment, User reactor, String emoji) {
-        Notification notification = new Notification();
-        notification.setUser(comment.getAuthor());
-        notification.setType(NotificationType.REACTION);
-        notification.setTitle("Neue Reaktion");
-        notification.setMessage(reactor.getFirstName() + " hat auf deinen Kommentar reagiert");
-        notification.setLink("/ideas/" + comment.getIdea().getId());
-        notification.setSender(reactor);
-        notification.setRelatedEntityType("Comment");
-        notification.setRelatedEntityId(comment.getId());
-        em.persist(notification);
+        upsertCoalesced(comment.getAuthor().getId(), NotificationType.REACTION,
+                "Neue Reaktion", reactor.getFirstName() + " hat auf deinen Kommentar reagiert",
+                "Neue Reaktionen", " Reaktionen auf deinen Kommentar, zuletzt von " + reactor.getFirstName(),
+                "/ideas/" + comment.getIdea().getId(), reactor, "Comment", comment.getId(),
+                "reaction:comment:" + comment.getId());
     }
 
     @Transactional
@@ -153,6 +175,7 @@ public class NotificationService {
             case LEVEL_UP -> "Level Up!";
             case MENTION -> "Erwähnung";
             case MESSAGE -> "Neue Nachricht";
+            case DIGEST -> "Zusammenfassung";
         };
         notification.setTitle(gerTitle);
         notification.setMessage(message);
@@ -179,33 +202,49 @@ public class NotificationService {
         em.persist(notification);
     }
 
+    /**
+     * Benachrichtigt alle Gruppenmitglieder außer dem Absender mit einer einzigen INSERT ... SELECT-Anweisung,
+     * unabhängig von der Gruppengröße. Hat ein Mitglied noch eine ungelesene Benachrichtigung zu dieser Gruppe,
+     * wird diese per ON CONFLICT aktualisiert (Zähler, neueste Nachricht) statt eine weitere anzulegen.
+     */
     @Transactional
     public void notifyGroupMessage(IdeaGroup group, User sender, String content) {
-        // Mitglieder mit eifrig geladenen Benutzern abfragen, um Lazy-Loading-Probleme zu vermeiden
-        List<GroupMember> members = em.createNamedQuery("GroupMember.findByGroupWithUser", GroupMember.class)
-                .setParameter("groupId", group.getId())
-                .getResultList();
-
         // Absendernamen sicher abrufen
         String senderName = sender.getFirstName() != null ? sender.getFirstName() : sender.getUsername();
         String groupName = group.getName() != null ? group.getName() : "Group";
 
-        // Alle Gruppenmitglieder außer dem Absender benachrichtigen
-        for (GroupMember member : members) {
-            User memberUser = member.getUser();
-            if (memberUser != null && !memberUser.getId().equals(sender.getId())) {
-                Notification notification = new Notification();
-                notification.setUser(memberUser);
-                notification.setType(NotificationType.MESSAGE);
-                notification.setTitle("Neue Gruppennachricht");
-                notification.setMessage(senderName + " in \"" + truncate(groupName, 20) + "\": " + truncate(content, 50));
-                notification.setLink("/messages?group=" + group.getId());
-                notification.setSender(sender);
-                notification.setRelatedEntityType("IdeaGroup");
-                notification.setRelatedEntityId(group.getId());
-                em.persist(notification);
-            }
-        }
+        em.createNativeQuery(GROUP_MESSAGE_FANOUT)
+                .setParameter(1, "Neue Gruppennachricht")
+                .setParameter(2, senderName + " in \"" + truncate(groupName, 20) + "\": " + truncate(content, 50))
+                .setParameter(3, "/messages?group=" + group.getId())
+                .setParameter(4, sender.getId())
+                .setParameter(5, group.getId())
+                .setParameter(6, "group-message:" + group.getId())
+                .executeUpdate();
+    }
+
+    /**
+     * Schreibt eine Benachrichtigung, die mit gleichartigen ungelesenen Ereignissen desselben Zeitfensters
+     * zusammengefasst wird ("5 Likes für deine Idee ..."). Statt einer neuen Zeile wird dann die bestehende
+     * aktualisiert, sodass Schreiblast und Listenlänge nicht mit jedem Ereignis wachsen.
+     */
+    private void upsertCoalesced(Long recipientId, NotificationType type, String title, String message,
+                                 String aggregateTitle, String aggregateMessageSuffix, String link, User sender,
+                                 String relatedEntityType, Long relatedEntityId, String key) {
+        long bucket = System.currentTimeMillis() / coalesceWindowMillis;
+        em.createNativeQuery(COALESCING_UPSERT)
+                .setParameter(1, recipientId)
+                .setParameter(2, type.name())
+                .setParameter(3, title)
+                .setParameter(4, message)
+                .setParameter(5, link)
+                .setParameter(6, sender.getId())
+                .setParameter(7, relatedEntityType)
+                .setParameter(8, relatedEntityId)
+                .setParameter(9, key + ":" + bucket)
+                .setParameter(10, aggregateTitle)
+                .setParameter(11, aggregateMessageSuffix)
+                .executeUpdate();
     }
 
     private String truncate(String text, int maxLength) {
@@ -0,0 +1,174 @@
+package com.gfos.ideaboard.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Empfängt PostgreSQL-Benachrichtigungen (LISTEN/NOTIFY) über eine eigene, dauerhaft offene Verbindung.
+ * Dient dazu, In-Memory-Zustand zwischen mehreren Backend-Instanzen abzugleichen.
+ * Nach einem Verbindungsabbruch wird neu verbunden und {@link Subscriber#onReconnect()} aufgerufen,
+ * da in der Zwischenzeit Benachrichtigungen verloren gegangen sein können. Dasselbe gilt, sobald ein Kanal
+ * erstmals abgehört wird: LISTEN läuft erst im nächsten Durchlauf des Listener-Threads, und bis dahin gesendete
+ * Benachrichtigungen erreichen diese Instanz nicht.
+ * Typisierte Ereignisse zwischen den Instanzen laufen über den {@link com.gfos.ideaboard.event.EventBus},
+ * der diesen Listener als Transport nutzt.
+ */
+@ApplicationScoped
+public class PgNotificationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(PgNotificationListener.class);
+
+    private static final int POLL_TIMEOUT_MILLIS = 1000;
+
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    public interface Subscriber {
+        void onNotification(String payload);
+
+        /**
+         * Wird aufgerufen, nachdem LISTEN auf dem Kanal aktiv geworden ist (erstmals und nach jeder Neuverbindung).
+         * Ein hier neu geladener Zustand verpasst keine späteren Benachrichtigungen mehr.
+         */
+        default void onReconnect() {
+        }
+    }
+
+    @Resource(lookup = "jdbc/ideaboard")
+    private DataSource dataSource;
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Registriert einen Empfänger für einen Kanal. Der Empfang startet mit der ersten Registrierung.
+     */
+    public void subscribe(String channel, Subscriber subscriber) {
+        subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(subscriber);
+        start();
+    }
+
+    /**
+     * Sendet eine Benachrichtigung innerhalb der laufenden Transaktion.
+     * PostgreSQL stellt sie erst beim Commit zu, bei einem Rollback entfällt sie.
+     */
+    public static void notify(EntityManager em, String channel, String payload) {
+        em.createNativeQuery("SELECT pg_notify(?1, ?2)")
+                .setParameter(1, channel)
+                .setParameter(2, payload)
+                .getSingleResult();
+    }
+
+    private synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        running = true;
+        thread = threadFactory.newThread(this::run);
+        thread.setName("pg-notification-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                Set<String> listening = new HashSet<>();
+
+                while (running) {
+                    // Abgleich erst nach LISTEN, damit keine Änderung zwischen Laden und Abhören verloren geht
+                    for (String channel : listen(connection, listening)) {
+                        notifyReconnect(channel);
+                    }
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getName(), notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("LISTEN-Verbindung unterbrochen, neuer Versuch in {} ms", RECONNECT_DELAY_MILLIS, e);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Führt LISTEN für alle noch nicht abgehörten Kanäle aus und gibt diese zurück.
+     */
+    private List<String> listen(Connection connection, Set<String> listening) throws SQLException {
+        List<String> added = new ArrayList<>();
+        for (String channel : subscribers.keySet()) {
+            if (!listening.contains(channel)) {
+                try (Statement statement = connection.createStatement()) {
+                    // Kanalnamen stammen aus Konstanten im Code, nicht aus Benutzereingaben
+                    statement.execute("LISTEN \"" + channel + "\"");
+                }
+                listening.add(channel);
+                added.add(channel);
+            }
+        }
+        return added;
+    }
+
+    private void dispatch(String channel, String payload) {
+        for (Subscriber subscriber : subscribers.getOrDefault(channel, List.of())) {
+            try {
+                subscriber.onNotification(payload);
+            } catch (RuntimeException e) {
+                logger.warn("Verarbeitung der Benachrichtigung auf Kanal {} fehlgeschlagen: {}", channel, payload, e);
+            }
+        }
+    }
+
+    private void notifyReconnect(String channel) {
+        for (Subscriber subscriber : subscribers.getOrDefault(channel, List.of())) {
+            try {
+                subscriber.onReconnect();
+            } catch (RuntimeException e) {
+                logger.warn("Abgleich nach LISTEN auf Kanal {} fehlgeschlagen", channel, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.gfos.ideaboard.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfos.ideaboard.dto.PlatformStatistics;
+import com.gfos.ideaboard.entity.IdeaStatus;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Berechnet alle Plattformkennzahlen mit einer einzigen SQL-Abfrage.
+ * Statuszahlen werden über FILTER-Klauseln in einem Durchlauf über die Ideen-Tabelle ermittelt,
+ * Kategorien, Wochenaktivität und Top-Ideen kommen als JSON-Aggregate in derselben Zeile zurück.
+ */
+@ApplicationScoped
+public class StatisticsService {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String STATISTICS_QUERY = buildStatisticsQuery();
+
+    // Anzahl der Top-Ideen im Bericht
+    private static final int TOP_IDEAS_LIMIT = 5;
+
+    @PersistenceContext(unitName = "IdeaBoardPU")
+    private EntityManager em;
+
+    public PlatformStatistics getStatistics() {
+        // Woche beginnt am Sonntag (wie bisher im Dashboard)
+        LocalDateTime weekStart = LocalDate.now()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY)).atStartOfDay();
+
+        Object[] row = (Object[]) em.createNativeQuery(STATISTICS_QUERY)
+                .setParameter(1, Timestamp.valueOf(weekStart))
+                .setParameter(2, TOP_IDEAS_LIMIT)
+                .getSingleResult();
+
+        PlatformStatistics stats = new PlatformStatistics();
+        int col = 0;
+        stats.setTotalIdeas(toLong(row[col++]));
+        Map<IdeaStatus, Long> byStatus = new EnumMap<>(IdeaStatus.class);
+        for (IdeaStatus status : IdeaStatus.values()) {
+            byStatus.put(status, toLong(row[col++]));
+        }
+        stats.setIdeasByStatus(byStatus);
+        stats.setIdeasThisWeek(toLong(row[col++]));
+        stats.setTotalUsers(toLong(row[col++]));
+        stats.setActiveUsers(toLong(row[col++]));
+        stats.setTotalLikes(toLong(row[col++]));
+        stats.setTotalComments(toLong(row[col++]));
+        stats.setActiveSurveys(toLong(row[col++]));
+
+        List<PlatformStatistics.CategoryCount> categories = new ArrayList<>();
+        for (JsonNode node : parseJson(row[col++])) {
+            categories.add(new PlatformStatistics.CategoryCount(node.get(0).asText(), node.get(1).asLong()));
+        }
+        stats.setCategoryBreakdown(categories);
+
+        List<PlatformStatistics.DailyActivity> activity = new ArrayList<>();
+        for (JsonNode node : parseJson(row[col++])) {
+            activity.add(new PlatformStatistics.DailyActivity(node.get(0).asText(), node.get(1).asLong()));
+        }
+        stats.setWeeklyActivity(activity);
+
+        List<PlatformStatistics.TopIdea> topIdeas = new ArrayList<>();
+        for (JsonNode node : parseJson(row[col])) {
+            topIdeas.add(new PlatformStatistics.TopIdea(node.get(0).asText(), node.get(1).asText(), node.get(2).asLong()));
+        }
+        stats.setTopIdeas(topIdeas);
+
+        stats.setGeneratedAt(LocalDateTime.now());
+        return stats;
+    }
+
+    private static String buildStatisticsQuery() {
+        StringBuilder statusCounts = new StringBuilder();
+        for (IdeaStatus status : IdeaStatus.values()) {
+            statusCounts.append("COUNT(*) FILTER (WHERE status = '").append(status.name()).append("'), ");
+        }
+
+        return "WITH idea_stats AS (" +
+                "  SELECT COUNT(*) AS total, " + statusCounts +
+                "    COUNT(*) FILTER (WHERE created_at >= ?1) AS this_week FROM ideas" +
+                "), user_stats AS (" +
+                "  SELECT COUNT(*) AS total, COUNT(*) FILTER (WHERE is_active) AS active FROM users" +
+                ") " +
+                "SELECT i.*, u.total, u.active, " +
+                "  (SELECT COUNT(*) FROM likes), " +
+                "  (SELECT COUNT(*) FROM comments), " +
+                "  (SELECT COUNT(*) FILTER (WHERE is_active) FROM surveys), " +
+                "  (SELECT COALESCE(json_agg(json_build_array(category, cnt) ORDER BY cnt DESC, category), '[]'::json)::text " +
+                "     FROM (SELECT category, COUNT(*) AS cnt FROM ideas GROUP BY category) c), " +
+                "  (SELECT COALESCE(json_agg(json_build_array(day::text, cnt) ORDER BY day), '[]'::json)::text " +
+                "     FROM (SELECT DATE(created_at) AS day, COUNT(*) AS cnt FROM ideas " +
+                "           WHERE created_at >= ?1 GROUP BY DATE(created_at)) w), " +
+                "  (SELECT COALESCE(json_agg(json_build_array(t.title, t.username, t.like_count) ORDER BY t.like_count DESC, t.id), '[]'::json)::text " +
+                "     FROM (SELECT i2.id, i2.title, a.username, i2.like_count FROM ideas i2 " +
+                "           JOIN users a ON a.id = i2.author_id ORDER BY i2.like_count DESC, i2.id LIMIT ?2) t) " +
+                "FROM idea_stats i, user_stats u";
+    }
+
+    private JsonNode parseJson(Object value) {
+        try {
+            return objectMapper.readTree(value == null ? "[]" : value.toString());
+        } catch (IOException e) {
+            throw new IllegalStateException("Statistikdaten konnten nicht gelesen werden", e);
+        }
+    }
+
+    private long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+}
@@ -0,0 +1,100 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Beendet abgelaufene Umfragen automatisch.
+ * Pro Lauf werden blockweise bis zu SURVEY_EXPIRY_BATCH_SIZE Umfragen mit einer Anweisung deaktiviert;
+ * dabei werden die Zähler aus survey_votes festgeschrieben und der Endstand als Zeile in
+ * survey_result_summaries gespeichert. Mehrere Instanzen teilen sich die Arbeit über SKIP LOCKED.
+ */
+@ApplicationScoped
+public class SurveyExpiryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyExpiryService.class);
+
+    private static final String EXPIRE_SQL =
+            "WITH expired AS (" +
+            "  UPDATE surveys s SET is_active = FALSE, " +
+            "    total_votes = (SELECT COUNT(*) FROM survey_votes v WHERE v.survey_id = s.id) " +
+            "  WHERE s.id IN (SELECT id FROM surveys WHERE is_active AND expires_at <= CURRENT_TIMESTAMP " +
+            "                 ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "  RETURNING s.id, s.total_votes" +
+            "), final_counts AS (" +
+            "  UPDATE survey_options o SET vote_count = (SELECT COUNT(*) FROM survey_votes v WHERE v.option_id = o.id) " +
+            "  FROM expired e WHERE o.survey_id = e.id " +
+            "  RETURNING o.survey_id, o.id, o.option_text, o.display_order, o.vote_count" +
+            ") " +
+            "INSERT INTO survey_result_summaries (survey_id, total_votes, results, closed_at) " +
+            "SELECT e.id, e.total_votes, " +
+            "  (SELECT COALESCE(json_agg(json_build_object('optionId', c.id, 'optionText', c.option_text, " +
+            "          'voteCount', c.vote_count) ORDER BY c.display_order, c.id), '[]'::json)::text " +
+            "     FROM final_counts c WHERE c.survey_id = e.id), " +
+            "  CURRENT_TIMESTAMP " +
+            "FROM expired e " +
+            "ON CONFLICT (survey_id) DO NOTHING";
+
+    @Resource(lookup = "jdbc/ideaboard")
+    private DataSource dataSource;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    @Inject
+    private DashboardCacheService dashboardCacheService;
+
+    private int batchSize;
+    private ScheduledFuture<?> expiryTask;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        batchSize = Math.max(1, EnvConfig.getInt("SURVEY_EXPIRY_BATCH_SIZE", 100));
+        long intervalSeconds = Math.max(5, EnvConfig.getLong("SURVEY_EXPIRY_INTERVAL_SECONDS", 60));
+        expiryTask = scheduler.scheduleWithFixedDelay(this::expireSurveys, 0, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (expiryTask != null) {
+            expiryTask.cancel(false);
+        }
+    }
+
+    /**
+     * Beendet alle fälligen Umfragen und liefert deren Anzahl.
+     */
+    public int expireSurveys() {
+        int total = 0;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(EXPIRE_SQL)) {
+            int expired;
+            do {
+                statement.setInt(1, batchSize);
+                expired = statement.executeUpdate();
+                total += expired;
+            } while (expired == batchSize);
+        } catch (SQLException e) {
+            logger.error("Beenden abgelaufener Umfragen fehlgeschlagen", e);
+        }
+
+        if (total > 0) {
+            logger.info("{} abgelaufene Umfragen beendet", total);
+            dashboardCacheService.invalidateAll();
+        }
+        return total;
+    }
+}
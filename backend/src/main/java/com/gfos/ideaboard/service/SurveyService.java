@@ -3,19 +3,52 @@ package com.gfos.ideaboard.service;
 import com.gfos.ideaboard.dto.SurveyDTO;
 import com.gfos.ideaboard.entity.*;
 import com.gfos.ideaboard.exception.ApiException;
+import com.gfos.ideaboard.security.AuthorizationService;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class SurveyService {
 
+    /**
+     * Speichert die Stimmen und liefert je Option, ob sie neu gespeichert wurde und ob der Benutzer
+     * (jetzt oder früher) für sie gestimmt hat. Die Zähler pflegt {@link SurveyTallyService}.
+     * Datenmodifizierende CTEs sehen die eingefügten Zeilen nicht, daher kommen neue Stimmen aus RETURNING.
+     */
+    private static final String VOTE_QUERY =
+            "WITH ins AS (" +
+            "  INSERT INTO survey_votes (survey_id, option_id, user_id, exclusive, created_at) " +
+            "  SELECT o.survey_id, o.id, ?2, ?4, CURRENT_TIMESTAMP FROM survey_options o " +
+            "  WHERE o.survey_id = ?1 AND o.id = ANY(CAST(?3 AS BIGINT[])) " +
+            "  ON CONFLICT DO NOTHING " +
+            "  RETURNING option_id" +
+            ") " +
+            "SELECT o.id, EXISTS (SELECT 1 FROM ins WHERE ins.option_id = o.id), " +
+            "  EXISTS (SELECT 1 FROM survey_votes v WHERE v.survey_id = ?1 AND v.user_id = ?2 AND v.option_id = o.id) " +
+            "FROM survey_options o WHERE o.survey_id = ?1";
+
     @PersistenceContext(unitName = "IdeaBoardPU")
     private EntityManager em;
 
+    @Inject
+    private AuthorizationService authorizationService;
+
+    @Inject
+    private SurveyTallyService tallyService;
+
+    @Inject
+    private DashboardCacheService dashboardCacheService;
+
     public List<SurveyDTO> getSurveys(int page, int size, Long userId) {
         List<Survey> surveys = em.createQuery(
                 "SELECT s FROM Survey s ORDER BY s.createdAt DESC", Survey.class)
@@ -23,7 +56,7 @@ public class SurveyService {
                 .setMaxResults(size)
                 .getResultList();
         return surveys.stream()
-                .map(s -> SurveyDTO.fromEntity(s, getUserVotedOptionIds(s.getId(), userId)))
+                .map(s -> tallyService.withLiveCounts(SurveyDTO.fromEntity(s, getUserVotedOptionIds(s.getId(), userId))))
                 .collect(Collectors.toList());
     }
 
@@ -32,7 +65,7 @@ public class SurveyService {
                 .setMaxResults(10)
                 .getResultList();
         return surveys.stream()
-                .map(s -> SurveyDTO.fromEntity(s, getUserVotedOptionIds(s.getId(), userId)))
+                .map(s -> tallyService.withLiveCounts(SurveyDTO.fromEntity(s, getUserVotedOptionIds(s.getId(), userId))))
                 .collect(Collectors.toList());
     }
 
@@ -41,15 +74,19 @@ public class SurveyService {
         if (survey == null) {
             throw ApiException.notFound("Survey not found");
         }
-        return SurveyDTO.fromEntity(survey, getUserVotedOptionIds(id, userId));
+        return tallyService.withLiveCounts(SurveyDTO.fromEntity(survey, getUserVotedOptionIds(id, userId)));
     }
 
     @Transactional
     public SurveyDTO createSurvey(String question, String description, List<String> options,
-                                   Boolean isAnonymous, Boolean allowMultipleVotes, Long creatorId) {
+                                   Boolean isAnonymous, Boolean allowMultipleVotes, LocalDateTime expiresAt,
+                                   Long creatorId) {
         if (options == null || options.size() < 2) {
             throw ApiException.badRequest("At least 2 options are required");
         }
+        if (expiresAt != null && !expiresAt.isAfter(LocalDateTime.now())) {
+            throw ApiException.badRequest("Expiry date must be in the future");
+        }
 
         User creator = em.find(User.class, creatorId);
         if (creator == null) {
@@ -63,6 +100,7 @@ public class SurveyService {
         survey.setIsActive(true);
         survey.setIsAnonymous(isAnonymous != null ? isAnonymous : false);
         survey.setAllowMultipleVotes(allowMultipleVotes != null ? allowMultipleVotes : false);
+        survey.setExpiresAt(expiresAt);
 
         em.persist(survey);
 
@@ -74,6 +112,7 @@ public class SurveyService {
             survey.addOption(option);
             em.persist(option);
         }
+        dashboardCacheService.invalidateSurveysAfterCommit();
 
         return SurveyDTO.fromEntity(survey, List.of());
     }
@@ -85,58 +124,75 @@ public class SurveyService {
             throw ApiException.notFound("Survey not found");
         }
 
-        if (!survey.getIsActive()) {
+        // Abgelaufene Umfragen sind geschlossen, auch wenn der Ablauf-Job sie noch nicht beendet hat
+        if (!survey.getIsActive() || survey.isExpired()) {
             throw ApiException.badRequest("Survey is closed");
         }
 
-        User user = em.find(User.class, userId);
-        if (user == null) {
-            throw ApiException.notFound("User not found");
+        if (optionIds == null || optionIds.isEmpty()) {
+            throw ApiException.badRequest("At least one option is required");
         }
 
-        // Prüfen, ob bereits abgestimmt
-        List<Long> existingVotes = getUserVotedOptionIds(surveyId, userId);
-        if (!existingVotes.isEmpty() && !survey.getAllowMultipleVotes()) {
-            throw ApiException.conflict("Already voted on this survey");
+        boolean singleChoice = !survey.getAllowMultipleVotes();
+        if (singleChoice && optionIds.stream().distinct().count() > 1) {
+            throw ApiException.badRequest("Only one option can be selected");
         }
 
         // Validieren, dass Optionen zu dieser Umfrage gehören
-        List<Long> validOptionIds = survey.getOptions().stream()
+        Set<Long> validOptionIds = survey.getOptions().stream()
                 .map(SurveyOption::getId)
-                .collect(Collectors.toList());
-
+                .collect(Collectors.toSet());
         for (Long optionId : optionIds) {
             if (!validOptionIds.contains(optionId)) {
                 throw ApiException.badRequest("Invalid option ID: " + optionId);
             }
+        }
 
-            // Prüfen, ob für diese Option bereits abgestimmt wurde
-            if (existingVotes.contains(optionId)) {
-                continue;
-            }
-
-            SurveyOption option = em.find(SurveyOption.class, optionId);
+        // Doppelte Stimmen verhindern die Unique-Constraints (ON CONFLICT DO NOTHING), nicht eine vorherige Abfrage
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(VOTE_QUERY)
+                .setParameter(1, surveyId)
+                .setParameter(2, userId)
+                .setParameter(3, optionIds.stream().map(String::valueOf).collect(Collectors.joining(",", "{", "}")))
+                .setParameter(4, singleChoice)
+                .getResultList();
 
-            SurveyVote vote = new SurveyVote();
-            vote.setSurvey(survey);
-            vote.setOption(option);
-            vote.setUser(user);
-            em.persist(vote);
+        List<Long> insertedOptionIds = new ArrayList<>();
+        List<Long> votedOptionIds = new ArrayList<>();
+        for (Object[] row : rows) {
+            Long optionId = ((Number) row[0]).longValue();
+            boolean inserted = Boolean.TRUE.equals(row[1]);
+            if (inserted) {
+                insertedOptionIds.add(optionId);
+            }
+            if (inserted || Boolean.TRUE.equals(row[2])) {
+                votedOptionIds.add(optionId);
+            }
+        }
 
-            // Hinweis: vote_count und total_votes werden automatisch durch Datenbank-Trigger aktualisiert
-            // Hier NICHT manuell inkrementieren, um Doppelzählung zu vermeiden
+        if (insertedOptionIds.isEmpty() && singleChoice) {
+            throw ApiException.conflict("Already voted on this survey");
         }
 
-        // Flushen, um sicherzustellen, dass Trigger vor der Rückgabe ausgeführt wurden
-        em.flush();
+        // Live-Zählerstand vor dem Commit laden, die eigenen Stimmen werden erst nach dem Commit gezählt
+        SurveyTally tally = tallyService.getTally(surveyId);
+        tallyService.recordVotesAfterCommit(surveyId, insertedOptionIds);
 
-        // Entitäten aktualisieren, um aktualisierte Zählungen von Datenbank-Triggern zu erhalten
-        em.refresh(survey);
-        for (SurveyOption opt : survey.getOptions()) {
-            em.refresh(opt);
+        SurveyDTO dto = SurveyDTO.fromEntity(survey, votedOptionIds);
+        if (tally == null) {
+            return dto;
         }
+        Map<Long, Integer> counts = tally.counts();
+        insertedOptionIds.forEach(optionId -> counts.merge(optionId, 1, Integer::sum));
+        return dto.withCounts(counts, tally.total() + insertedOptionIds.size());
+    }
 
-        return SurveyDTO.fromEntity(survey, getUserVotedOptionIds(surveyId, userId));
+    public SurveyResultSummary getResultSummary(Long surveyId) {
+        return em.createNamedQuery("SurveyResultSummary.findBySurvey", SurveyResultSummary.class)
+                .setParameter("surveyId", surveyId)
+                .getResultStream()
+                .findFirst()
+                .orElseThrow(() -> ApiException.notFound("No results stored for this survey"));
     }
 
     @Transactional
@@ -147,12 +203,28 @@ public class SurveyService {
         }
 
         // Nur Ersteller oder Admin können löschen
-        User user = em.find(User.class, userId);
-        if (!survey.getCreator().getId().equals(userId) && user.getRole() != UserRole.ADMIN) {
+        if (!survey.getCreator().getId().equals(userId) && !authorizationService.isAdmin(userId)) {
             throw ApiException.forbidden("Not authorized to delete this survey");
         }
 
         em.remove(survey);
+        dashboardCacheService.invalidateSurveysAfterCommit();
+    }
+
+    /**
+     * Liefert die Stimmen eines Benutzers für mehrere Umfragen mit einer Abfrage (Umfrage-ID → Options-IDs).
+     */
+    public Map<Long, List<Long>> getUserVotedOptionIds(Long userId, Collection<Long> surveyIds) {
+        if (userId == null || surveyIds.isEmpty()) return Map.of();
+        List<Object[]> rows = em.createQuery(
+                "SELECT v.survey.id, v.option.id FROM SurveyVote v WHERE v.user.id = :userId AND v.survey.id IN :surveyIds",
+                Object[].class)
+                .setParameter("userId", userId)
+                .setParameter("surveyIds", surveyIds)
+                .getResultList();
+        return rows.stream().collect(Collectors.groupingBy(
+                row -> (Long) row[0],
+                Collectors.mapping(row -> (Long) row[1], Collectors.toList())));
     }
 
     private List<Long> getUserVotedOptionIds(Long surveyId, Long userId) {
@@ -0,0 +1,314 @@
+package com.gfos.ideaboard.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.exception.ApiException;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Überträgt Live-Ergebnisse aktiver Umfragen per Server-Sent Events.
+ * Pro Umfrage gibt es einen Broadcaster; ein Taktgeber prüft alle SURVEY_STREAM_INTERVAL_MS Millisekunden
+ * die Zählerstände im Speicher ({@link SurveyTallyService}) und sendet alle Änderungen seit dem letzten Takt
+ * als ein Ereignis an alle Zuschauer. Das JSON wird pro Takt genau einmal erzeugt, unabhängig von der Zahl
+ * der Zuschauer; neue Zuschauer erhalten das zuletzt erzeugte Ereignis, ohne dass die Datenbank gelesen wird.
+ * Gesendet wird pro Kanal auf dem Executor, nicht im Taktgeber, damit ein langsamer Client nur seine eigene Umfrage
+ * aufhält. Läuft das Senden eines Kanals noch, wird der Kanal in diesem Takt übersprungen; der nächste Takt
+ * enthält dann alle Änderungen.
+ */
+@ApplicationScoped
+public class SurveyStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyStreamService.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Kommentar-Ereignis, damit Proxies die Verbindung bei ausbleibenden Änderungen nicht schließen
+    private static final long KEEPALIVE_MILLIS = 15000;
+
+    @Inject
+    private SurveyTallyService tallyService;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    @Resource
+    private ManagedExecutorService executor;
+
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+
+    private volatile Sse sse;
+    private ScheduledFuture<?> ticker;
+
+    private static final class Channel {
+        final Long surveyId;
+        final SseBroadcaster broadcaster;
+        final AtomicInteger viewers = new AtomicInteger();
+        // Registrierte Verbindungen; jede wird genau einmal von viewers abgezogen
+        final Set<SseEventSink> sinks = ConcurrentHashMap.newKeySet();
+        // Höchstens ein Sendevorgang pro Kanal
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile Map<Long, Integer> lastCounts = Map.of();
+        volatile OutboundSseEvent snapshot;
+        volatile long lastSentAt = System.currentTimeMillis();
+        // Nur unter der Sperre des Kanals gesetzt bzw. gelesen
+        boolean closed;
+
+        Channel(Long surveyId, SseBroadcaster broadcaster) {
+            this.surveyId = surveyId;
+            this.broadcaster = broadcaster;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (ticker != null) {
+            ticker.cancel(false);
+        }
+        channels.values().forEach(channel -> channel.broadcaster.close());
+    }
+
+    /**
+     * Meldet einen Zuschauer an und sendet ihm sofort den aktuellen Stand.
+     * Zuschauerzähler und Entfernen des Kanals laufen atomar über {@code channels}, sodass der Taktgeber keinen
+     * Kanal schließt, dem gerade ein Zuschauer beitritt. Registrieren und Senden des Stands laufen unter der
+     * Sperre des Kanals, damit kein Ereignis eines Takts zwischen Stand und Registrierung verloren geht.
+     */
+    public void subscribe(Long surveyId, SseEventSink sink, Sse sse) {
+        SurveyTally tally = tallyService.getTally(surveyId);
+        if (tally == null) {
+            throw ApiException.notFound("Survey not found or closed");
+        }
+        startTicker(sse);
+
+        Channel channel = channels.compute(surveyId, (id, existing) -> {
+            Channel current = existing != null ? existing : openChannel(id, sse);
+            current.viewers.incrementAndGet();
+            return current;
+        });
+        synchronized (channel) {
+            if (channel.closed) {
+                // Umfrage wurde zwischenzeitlich beendet
+                sink.send(sse.newEvent("closed", String.valueOf(surveyId)));
+                sink.close();
+                return;
+            }
+            channel.sinks.add(sink);
+            channel.broadcaster.register(sink);
+            OutboundSseEvent snapshot = channel.snapshot;
+            if (snapshot == null) {
+                snapshot = buildSnapshot(channel, tally);
+            }
+            sink.send(snapshot);
+        }
+    }
+
+    private Channel openChannel(Long surveyId, Sse sse) {
+        Channel channel = new Channel(surveyId, sse.newBroadcaster());
+        // onClose meldet Jersey nur beim Schließen des Broadcasters, abgebrochene Verbindungen kommen über onError
+        channel.broadcaster.onClose(sink -> release(channel, sink));
+        channel.broadcaster.onError((sink, error) -> {
+            logger.debug("SSE-Verbindung für Umfrage {} abgebrochen: {}", surveyId, error.toString());
+            release(channel, sink);
+        });
+        return channel;
+    }
+
+    private void release(Channel channel, SseEventSink sink) {
+        if (channel.sinks.remove(sink)) {
+            channel.viewers.decrementAndGet();
+        }
+    }
+
+    /**
+     * Entfernt Verbindungen, die der Client geschlossen hat, ohne dass ein Senden fehlgeschlagen ist.
+     */
+    private void pruneClosedSinks(Channel channel) {
+        for (SseEventSink sink : channel.sinks) {
+            if (sink.isClosed()) {
+                release(channel, sink);
+            }
+        }
+    }
+
+    private synchronized void startTicker(Sse sse) {
+        if (ticker != null) {
+            return;
+        }
+        this.sse = sse;
+        long intervalMillis = Math.max(50, EnvConfig.getLong("SURVEY_STREAM_INTERVAL_MS", 500));
+        ticker = scheduler.scheduleWithFixedDelay(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void tick() {
+        long now = System.currentTimeMillis();
+        for (Channel channel : new ArrayList<>(channels.values())) {
+            try {
+                pruneClosedSinks(channel);
+                if (channel.viewers.get() <= 0) {
+                    if (removeChannel(channel, true)) {
+                        close(channel, false);
+                    }
+                    continue;
+                }
+
+                SurveyTally tally = tallyService.getTally(channel.surveyId);
+                if (tally == null) {
+                    // Umfrage beendet oder gelöscht
+                    if (removeChannel(channel, false)) {
+                        close(channel, true);
+                    }
+                    continue;
+                }
+
+                if (!channel.sending.compareAndSet(false, true)) {
+                    // Vorheriges Senden läuft noch (langsamer Client)
+                    continue;
+                }
+                Map<Long, Integer> counts = tally.counts();
+                OutboundSseEvent event = null;
+                // Unter der Sperre nur das Ereignis erzeugen, gesendet wird außerhalb
+                synchronized (channel) {
+                    if (!counts.equals(channel.lastCounts)) {
+                        event = buildDelta(channel, counts);
+                        channel.lastSentAt = now;
+                    } else if (now - channel.lastSentAt >= KEEPALIVE_MILLIS) {
+                        event = sse.newEventBuilder().comment("keepalive").build();
+                        channel.lastSentAt = now;
+                    }
+                }
+                if (event == null) {
+                    channel.sending.set(false);
+                } else {
+                    send(channel, event);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Live-Ergebnisse für Umfrage {} konnten nicht gesendet werden", channel.surveyId, e);
+            }
+        }
+    }
+
+    private void send(Channel channel, OutboundSseEvent event) {
+        try {
+            executor.execute(() -> {
+                try {
+                    channel.broadcaster.broadcast(event);
+                } catch (RuntimeException e) {
+                    logger.warn("Live-Ergebnisse für Umfrage {} konnten nicht gesendet werden", channel.surveyId, e);
+                } finally {
+                    channel.sending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Beim Herunterfahren; jedes Ereignis enthält den vollständigen Stand, nichts geht verloren
+            channel.sending.set(false);
+        }
+    }
+
+    /**
+     * Entfernt den Kanal, sofern er noch eingetragen ist und (falls verlangt) keine Zuschauer mehr hat.
+     * Läuft atomar mit der Anmeldung in {@link #subscribe}.
+     */
+    private boolean removeChannel(Channel channel, boolean onlyWithoutViewers) {
+        boolean[] removed = {false};
+        channels.computeIfPresent(channel.surveyId, (id, current) -> {
+            if (current != channel || (onlyWithoutViewers && current.viewers.get() > 0)) {
+                return current;
+            }
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    private void close(Channel channel, boolean announce) {
+        synchronized (channel) {
+            channel.closed = true;
+            if (announce) {
+                channel.broadcaster.broadcast(sse.newEvent("closed", String.valueOf(channel.surveyId)));
+            }
+            channel.broadcaster.close();
+        }
+    }
+
+    private OutboundSseEvent buildSnapshot(Channel channel, SurveyTally tally) {
+        Map<Long, Integer> counts = tally.counts();
+        OutboundSseEvent snapshot = event(payload(channel.surveyId, counts, List.of()));
+        // Der nächste Takt meldet nur Änderungen gegenüber diesem Stand
+        channel.lastCounts = counts;
+        channel.snapshot = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Jedes Ereignis enthält den vollständigen Stand (wenige Optionen), damit ein verpasstes oder
+     * überholtes Ereignis beim nächsten Takt korrigiert wird; "changed" nennt die geänderten Optionen.
+     */
+    private OutboundSseEvent buildDelta(Channel channel, Map<Long, Integer> counts) {
+        List<Long> changed = new ArrayList<>();
+        counts.forEach((optionId, count) -> {
+            if (!count.equals(channel.lastCounts.get(optionId))) {
+                changed.add(optionId);
+            }
+        });
+        channel.lastCounts = counts;
+        OutboundSseEvent event = event(payload(channel.surveyId, counts, changed));
+        channel.snapshot = event;
+        return event;
+    }
+
+    private Map<String, Object> payload(Long surveyId, Map<Long, Integer> counts, List<Long> changed) {
+        int total = counts.values().stream().mapToInt(Integer::intValue).sum();
+        List<Map<String, Object>> options = new ArrayList<>();
+        counts.forEach((optionId, count) -> {
+            Map<String, Object> option = new LinkedHashMap<>();
+            option.put("id", optionId);
+            option.put("voteCount", count);
+            option.put("percentage", total > 0 ? (double) count / total * 100 : 0.0);
+            options.add(option);
+        });
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("surveyId", surveyId);
+        payload.put("totalVotes", total);
+        payload.put("options", options);
+        payload.put("changed", changed);
+        return payload;
+    }
+
+    private OutboundSseEvent event(Map<String, Object> payload) {
+        try {
+            // Einmal serialisieren und als Text an alle Zuschauer senden
+            return sse.newEventBuilder()
+                    .name("results")
+                    .mediaType(MediaType.TEXT_PLAIN_TYPE)
+                    .data(String.class, objectMapper.writeValueAsString(payload))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Live-Ergebnis konnte nicht serialisiert werden", e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.gfos.ideaboard.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live-Zählerstand einer Umfrage im Speicher.
+ * Pro Option gibt es einen zuletzt aus der Datenbank bekannten Stand und einen gestreiften Zähler
+ * ({@link LongAdder}) für lokal hinzugekommene Stimmen, sodass gleichzeitige Abstimmungen nicht
+ * um dieselbe Speicherstelle konkurrieren.
+ */
+final class SurveyTally {
+
+    private static final class Counter {
+        final AtomicLong base = new AtomicLong();
+        final LongAdder pending = new LongAdder();
+    }
+
+    private final Long surveyId;
+    private final Map<Long, Counter> counters;
+
+    SurveyTally(Long surveyId, Map<Long, Long> counts) {
+        this.surveyId = surveyId;
+        Map<Long, Counter> map = new LinkedHashMap<>();
+        counts.forEach((optionId, count) -> {
+            Counter counter = new Counter();
+            counter.base.set(count);
+            map.put(optionId, counter);
+        });
+        this.counters = Collections.unmodifiableMap(map);
+    }
+
+    Long getSurveyId() {
+        return surveyId;
+    }
+
+    /**
+     * Zählt eine lokal gespeicherte Stimme. Unbekannte Optionen werden ignoriert.
+     */
+    void increment(Long optionId) {
+        Counter counter = counters.get(optionId);
+        if (counter != null) {
+            counter.pending.increment();
+        }
+    }
+
+    /**
+     * Aktuelle Stimmen je Option in Anzeigereihenfolge.
+     */
+    Map<Long, Integer> counts() {
+        Map<Long, Integer> result = new LinkedHashMap<>();
+        counters.forEach((optionId, counter) ->
+                result.put(optionId, (int) (counter.base.get() + counter.pending.sum())));
+        return result;
+    }
+
+    int total() {
+        long total = 0;
+        for (Counter counter : counters.values()) {
+            total += counter.base.get() + counter.pending.sum();
+        }
+        return (int) total;
+    }
+
+    /**
+     * Liefert die seit dem letzten Abgleich lokal gezählten Stimmen je Option (nur Optionen mit Änderungen).
+     * Die Werte bleiben bis {@link #sync} im Zähler, damit Lesezugriffe nichts verlieren.
+     */
+    Map<Long, Long> pending() {
+        Map<Long, Long> result = new HashMap<>();
+        counters.forEach((optionId, counter) -> {
+            long delta = counter.pending.sum();
+            if (delta != 0) {
+                result.put(optionId, delta);
+            }
+        });
+        return result;
+    }
+
+    boolean hasPending() {
+        for (Counter counter : counters.values()) {
+            if (counter.pending.sum() != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Übernimmt den Datenbankstand. {@code flushed} sind die Stimmen aus {@link #pending()}, die im
+     * Datenbankstand bereits enthalten sind; danach hinzugekommene Stimmen bleiben ausstehend.
+     */
+    void sync(Map<Long, Long> databaseCounts, Map<Long, Long> flushed) {
+        counters.forEach((optionId, counter) -> {
+            Long count = databaseCounts.get(optionId);
+            if (count == null) {
+                return;
+            }
+            long delta = flushed.getOrDefault(optionId, 0L);
+            // Erst den Basiswert setzen, dann ausstehende Stimmen abziehen: kurzzeitig eher zu hoch als zu niedrig
+            counter.base.set(count);
+            if (delta != 0) {
+                counter.pending.add(-delta);
+            }
+        });
+    }
+}
@@ -0,0 +1,279 @@
+package com.gfos.ideaboard.service;
+
+import com.gfos.ideaboard.config.EnvConfig;
+import com.gfos.ideaboard.dto.SurveyDTO;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Live-Ergebnisse aktiver Umfragen aus dem Speicher.
+ * Abstimmungen schreiben nur noch die Zeile in survey_votes; die Zähler in survey_options und surveys
+ * werden periodisch für alle geänderten Optionen gesammelt aus survey_votes neu gezählt. Dadurch
+ * konkurrieren gleichzeitige Abstimmungen nicht mehr um die Zeilensperren der Zählerzeilen, und das
+ * Neuzählen bleibt auch bei mehreren Instanzen korrekt (keine Deltas, die doppelt addiert werden könnten).
+ */
+@ApplicationScoped
+public class SurveyTallyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SurveyTallyService.class);
+
+    private static final String RECOUNT_OPTIONS_SQL =
+            "UPDATE survey_options o SET vote_count = (SELECT COUNT(*) FROM survey_votes v WHERE v.option_id = o.id) " +
+            "WHERE o.id = ANY(?)";
+
+    private static final String RECOUNT_SURVEYS_SQL =
+            "UPDATE surveys s SET total_votes = (SELECT COUNT(*) FROM survey_votes v WHERE v.survey_id = s.id) " +
+            "WHERE s.id = ANY(?)";
+
+    private static final String LOAD_COUNTS_SQL =
+            "SELECT o.survey_id, o.id, o.vote_count FROM survey_options o JOIN surveys s ON s.id = o.survey_id " +
+            "WHERE o.survey_id = ANY(?) AND s.is_active ORDER BY o.survey_id, o.display_order, o.id";
+
+    // Gleicht beim Start die Zähler aller aktiven Umfragen mit survey_votes ab
+    private static final String RECONCILE_OPTIONS_SQL =
+            "UPDATE survey_options o SET vote_count = c.cnt " +
+            "FROM (SELECT o2.id, COUNT(v.id) AS cnt FROM survey_options o2 " +
+            "      JOIN surveys s ON s.id = o2.survey_id AND s.is_active " +
+            "      LEFT JOIN survey_votes v ON v.option_id = o2.id GROUP BY o2.id) c " +
+            "WHERE o.id = c.id AND o.vote_count <> c.cnt";
+
+    private static final String RECONCILE_SURVEYS_SQL =
+            "UPDATE surveys s SET total_votes = c.cnt " +
+            "FROM (SELECT s2.id, COUNT(v.id) AS cnt FROM surveys s2 " +
+            "      LEFT JOIN survey_votes v ON v.survey_id = s2.id WHERE s2.is_active GROUP BY s2.id) c " +
+            "WHERE s.id = c.id AND s.total_votes <> c.cnt";
+
+    @Resource(lookup = "jdbc/ideaboard")
+    private DataSource dataSource;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    @Resource
+    private TransactionSynchronizationRegistry transactionRegistry;
+
+    private final Map<Long, SurveyTally> tallies = new ConcurrentHashMap<>();
+
+    // Optionen mit neuen Stimmen, für deren Umfrage kein Zählerstand im Speicher liegt
+    private final Map<Long, Set<Long>> dirtyWithoutTally = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> flushTask;
+
+    void onStartup(@Observes @Initialized(ApplicationScoped.class) Object init) {
+        reconcile();
+        long intervalMillis = Math.max(100, EnvConfig.getLong("SURVEY_TALLY_FLUSH_MS", 1000));
+        flushTask = scheduler.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        flush();
+    }
+
+    /**
+     * Ersetzt bei aktiven Umfragen die Zählerstände durch die Live-Werte.
+     */
+    public SurveyDTO withLiveCounts(SurveyDTO survey) {
+        if (!Boolean.TRUE.equals(survey.getIsActive())) {
+            return survey;
+        }
+        SurveyTally tally = getTally(survey.getId());
+        if (tally == null) {
+            return survey;
+        }
+        return survey.withCounts(tally.counts(), tally.total());
+    }
+
+    /**
+     * Liefert den Zählerstand einer aktiven Umfrage und lädt ihn bei Bedarf aus der Datenbank.
+     */
+    SurveyTally getTally(Long surveyId) {
+        SurveyTally tally = tallies.get(surveyId);
+        if (tally != null) {
+            return tally;
+        }
+        try {
+            Map<Long, SurveyTally> loaded = load(List.of(surveyId));
+            tally = loaded.get(surveyId);
+            if (tally == null) {
+                return null;
+            }
+            SurveyTally existing = tallies.putIfAbsent(surveyId, tally);
+            return existing != null ? existing : tally;
+        } catch (SQLException e) {
+            logger.warn("Zählerstand für Umfrage {} konnte nicht geladen werden", surveyId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Zählt neue Stimmen, sobald die aufrufende Transaktion erfolgreich abgeschlossen ist.
+     */
+    void recordVotesAfterCommit(Long surveyId, List<Long> optionIds) {
+        if (optionIds.isEmpty()) {
+            return;
+        }
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != Status.STATUS_COMMITTED) {
+                    return;
+                }
+                SurveyTally tally = tallies.get(surveyId);
+                if (tally != null) {
+                    optionIds.forEach(tally::increment);
+                } else {
+                    // Zählerstand konnte nicht geladen werden: beim nächsten Lauf trotzdem neu zählen
+                    dirtyWithoutTally.computeIfAbsent(surveyId, id -> ConcurrentHashMap.newKeySet()).addAll(optionIds);
+                }
+            }
+        });
+    }
+
+    /**
+     * Zählt alle Optionen mit lokalen Stimmen neu und übernimmt den Datenbankstand für alle geladenen Umfragen.
+     */
+    void flush() {
+        Map<Long, Map<Long, Long>> flushed = new HashMap<>();
+        Set<Long> optionIds = new HashSet<>();
+        Set<Long> surveyIds = new HashSet<>();
+        for (SurveyTally tally : tallies.values()) {
+            Map<Long, Long> pending = tally.pending();
+            if (!pending.isEmpty()) {
+                flushed.put(tally.getSurveyId(), pending);
+                optionIds.addAll(pending.keySet());
+                surveyIds.add(tally.getSurveyId());
+            }
+        }
+        Map<Long, Set<Long>> dirty = new HashMap<>();
+        for (Long surveyId : new ArrayList<>(dirtyWithoutTally.keySet())) {
+            Set<Long> options = dirtyWithoutTally.remove(surveyId);
+            if (options != null) {
+                dirty.put(surveyId, options);
+                optionIds.addAll(options);
+                surveyIds.add(surveyId);
+            }
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            if (!optionIds.isEmpty()) {
+                recount(connection, optionIds, surveyIds);
+            }
+            if (tallies.isEmpty()) {
+                return;
+            }
+
+            Map<Long, SurveyTally> current = load(connection, tallies.keySet());
+            for (SurveyTally tally : tallies.values()) {
+                SurveyTally fresh = current.get(tally.getSurveyId());
+                Map<Long, Long> flushedForSurvey = flushed.getOrDefault(tally.getSurveyId(), Map.of());
+                if (fresh == null) {
+                    // Umfrage beendet oder gelöscht; nur entfernen, wenn keine neuen Stimmen ausstehen
+                    if (!tally.hasPending() || tally.pending().equals(flushedForSurvey)) {
+                        tallies.remove(tally.getSurveyId(), tally);
+                    }
+                    continue;
+                }
+                tally.sync(toLongMap(fresh.counts()), flushedForSurvey);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Ausstehende Stimmen bleiben im Zähler und werden beim nächsten Lauf erneut gezählt
+            logger.error("Abgleich der Umfragezähler fehlgeschlagen", e);
+            dirty.forEach((surveyId, options) ->
+                    dirtyWithoutTally.computeIfAbsent(surveyId, id -> ConcurrentHashMap.newKeySet()).addAll(options));
+        }
+    }
+
+    private void recount(Connection connection, Set<Long> optionIds, Set<Long> surveyIds) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement options = connection.prepareStatement(RECOUNT_OPTIONS_SQL);
+             PreparedStatement surveys = connection.prepareStatement(RECOUNT_SURVEYS_SQL)) {
+            options.setArray(1, connection.createArrayOf("bigint", optionIds.toArray()));
+            options.executeUpdate();
+            surveys.setArray(1, connection.createArrayOf("bigint", surveyIds.toArray()));
+            surveys.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private Map<Long, SurveyTally> load(List<Long> surveyIds) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return load(connection, surveyIds);
+        }
+    }
+
+    private Map<Long, SurveyTally> load(Connection connection, Collection<Long> surveyIds) throws SQLException {
+        Map<Long, Map<Long, Long>> counts = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(LOAD_COUNTS_SQL)) {
+            Array ids = connection.createArrayOf("bigint", surveyIds.toArray());
+            statement.setArray(1, ids);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    counts.computeIfAbsent(rs.getLong(1), id -> new LinkedHashMap<>()).put(rs.getLong(2), rs.getLong(3));
+                }
+            }
+        }
+        Map<Long, SurveyTally> result = new HashMap<>();
+        counts.forEach((surveyId, optionCounts) -> result.put(surveyId, new SurveyTally(surveyId, optionCounts)));
+        return result;
+    }
+
+    private void reconcile() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            int options = statement.executeUpdate(RECONCILE_OPTIONS_SQL);
+            int surveys = statement.executeUpdate(RECONCILE_SURVEYS_SQL);
+            if (options > 0 || surveys > 0) {
+                logger.info("Umfragezähler abgeglichen: {} Optionen, {} Umfragen korrigiert", options, surveys);
+            }
+        } catch (SQLException e) {
+            logger.error("Abgleich der Umfragezähler beim Start fehlgeschlagen", e);
+        }
+    }
+
+    private static Map<Long, Long> toLongMap(Map<Long, Integer> counts) {
+        Map<Long, Long> result = new HashMap<>();
+        counts.forEach((id, count) -> result.put(id, count.longValue()));
+        return result;
+    }
+}
@@ -5,11 +5,13 @@ import com.gfos.ideaboard.entity.User;
 import com.gfos.ideaboard.entity.UserRole;
 import com.gfos.ideaboard.exception.ApiException;
 import com.gfos.ideaboard.security.PasswordUtil;
+import com.gfos.ideaboard.security.TokenRevocationRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,6 +24,9 @@ public class UserService {
     @Inject
     private PasswordUtil passwordUtil;
 
+    @Inject
+    private TokenRevocationRegistry revocationRegistry;
+
     public User findById(Long id) {
         return em.find(User.class, id);
     }
@@ -73,8 +78,14 @@ public class UserService {
         if (user == null) {
             throw ApiException.notFound("User not found");
         }
+        UserRole previousRole = user.getRole();
         user.setRole(role);
         em.merge(user);
+
+        // Bestehende Tokens tragen noch die alte Rolle
+        if (previousRole != role) {
+            revocationRegistry.revokeAll(user);
+        }
     }
 
     @Transactional
@@ -85,6 +96,38 @@ public class UserService {
         }
         user.setIsActive(isActive);
         em.merge(user);
+
+        if (!isActive) {
+            revocationRegistry.revokeAll(user);
+        }
+    }
+
+    /**
+     * Setzt den Zeitpunkt der letzten Anmeldung und liefert den aktualisierten Benutzer.
+     */
+    @Transactional
+    public User recordLogin(Long userId) {
+        User user = findById(userId);
+        if (user == null) {
+            throw ApiException.unauthorized("Ungültiger Benutzername oder Passwort");
+        }
+        user.setLastLogin(LocalDateTime.now());
+        return em.merge(user);
+    }
+
+    /**
+     * Ersetzt den Passwort-Hash nur, wenn er seit dem Lesen nicht geändert wurde
+     * (z.B. durch eine parallele Passwortänderung).
+     */
+    @Transactional
+    public boolean upgradePasswordHash(Long userId, String expectedHash, String newHash) {
+        int updated = em.createQuery(
+                "UPDATE User u SET u.passwordHash = :newHash WHERE u.id = :userId AND u.passwordHash = :expectedHash")
+                .setParameter("newHash", newHash)
+                .setParameter("userId", userId)
+                .setParameter("expectedHash", expectedHash)
+                .executeUpdate();
+        return updated > 0;
     }
 
     @Transactional
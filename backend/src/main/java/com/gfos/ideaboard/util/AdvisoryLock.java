@@ -0,0 +1,35 @@
+package com.gfos.ideaboard.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * PostgreSQL-Advisory-Locks auf Sitzungsebene, damit Wartungsaufgaben nur auf einer Instanz gleichzeitig laufen.
+ * Die Sperre gehört zur Verbindung und muss auf derselben Verbindung wieder freigegeben werden.
+ */
+public final class AdvisoryLock {
+
+    private AdvisoryLock() {
+    }
+
+    /**
+     * @return {@code true}, wenn die Sperre erhalten wurde; {@code false}, wenn eine andere Sitzung sie hält
+     */
+    public static boolean tryLock(Connection connection, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    public static void unlock(Connection connection, long key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, key);
+            statement.executeQuery().close();
+        }
+    }
+}
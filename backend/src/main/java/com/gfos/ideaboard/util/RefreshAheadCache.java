@@ -0,0 +1,199 @@
+package com.gfos.ideaboard.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache mit Hintergrundaktualisierung ("refresh ahead").
+ * <ul>
+ *   <li>Erster Zugriff auf einen Schlüssel: genau ein Aufrufer lädt, alle anderen warten auf dasselbe Ergebnis.</li>
+ *   <li>Ab {@code refreshAfter} (75 % der TTL) wird im Hintergrund neu berechnet; bis zum Ablauf der TTL wird
+ *       der bisherige Wert geliefert und als "stale hit" gezählt. Pro Schlüssel läuft höchstens eine
+ *       Neuberechnung gleichzeitig.</li>
+ *   <li>Werte älter als die TTL und invalidierte Werte werden nie geliefert: der nächste Zugriff lädt
+ *       blockierend neu, wie beim ersten Zugriff nur ein Aufrufer.</li>
+ * </ul>
+ */
+public class RefreshAheadCache<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+    private final String name;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final Function<K, V> loader;
+    private final Executor executor;
+    private final LongSupplier clock;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanosTotal = new LongAdder();
+    private final AtomicLong loadNanosMax = new AtomicLong();
+    private final AtomicLong loadNanosLast = new AtomicLong();
+
+    public RefreshAheadCache(String name, long ttlMillis, Function<K, V> loader, Executor executor) {
+        this(name, ttlMillis, loader, executor, System::nanoTime);
+    }
+
+    RefreshAheadCache(String name, long ttlMillis, Function<K, V> loader, Executor executor, LongSupplier clock) {
+        this.name = name;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        // Neuberechnung bei 75 % der TTL, damit die meisten Zugriffe nie einen veralteten Wert sehen
+        this.refreshAfterNanos = ttlNanos * 3 / 4;
+        this.loader = loader;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    public V get(K key) {
+        while (true) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                Entry<V> created = new Entry<>();
+                entry = entries.putIfAbsent(key, created);
+                if (entry == null) {
+                    return loadInto(key, created);
+                }
+            }
+
+            if (!entry.initial.isDone()) {
+                // Berechnung läuft bereits in einem anderen Thread
+                misses.increment();
+                try {
+                    return entry.initial.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException re ? re : e;
+                }
+            }
+
+            long age = clock.getAsLong() - entry.loadedAt;
+            if (entry.invalidated || age >= ttlNanos) {
+                // Invalidiert oder abgelaufen: wie ein Fehlzugriff neu laden, genau ein Thread lädt
+                Entry<V> created = new Entry<>();
+                if (entries.replace(key, entry, created)) {
+                    return loadInto(key, created);
+                }
+                // Ein anderer Thread hat den Eintrag bereits ersetzt, auf dessen Ergebnis warten
+                continue;
+            }
+            if (age >= refreshAfterNanos) {
+                scheduleRefresh(key, entry);
+                staleHits.increment();
+            } else {
+                hits.increment();
+            }
+            return entry.value;
+        }
+    }
+
+    /**
+     * Markiert alle Einträge als ungültig. Der nächste Zugriff lädt blockierend neu (einmal pro Schlüssel),
+     * damit nach einer Änderung kein alter Stand mehr geliefert wird.
+     */
+    public void invalidateAll() {
+        entries.values().forEach(entry -> entry.invalidated = true);
+    }
+
+    public Map<String, Object> getMetrics() {
+        long hitCount = hits.sum();
+        long staleCount = staleHits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + staleCount + missCount;
+        long loadCount = loads.sum();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("name", name);
+        metrics.put("entries", entries.size());
+        metrics.put("ttlMillis", ttlNanos / 1_000_000L);
+        metrics.put("hits", hitCount);
+        metrics.put("staleHits", staleCount);
+        metrics.put("misses", missCount);
+        metrics.put("hitRate", requests == 0 ? 0.0 : (double) (hitCount + staleCount) / requests);
+        metrics.put("refreshes", refreshes.sum());
+        metrics.put("failures", failures.sum());
+        metrics.put("avgLoadMillis", loadCount == 0 ? 0.0 : loadNanosTotal.sum() / 1_000_000.0 / loadCount);
+        metrics.put("maxLoadMillis", loadNanosMax.get() / 1_000_000.0);
+        metrics.put("lastLoadMillis", loadNanosLast.get() / 1_000_000.0);
+        return metrics;
+    }
+
+    private V loadInto(K key, Entry<V> created) {
+        misses.increment();
+        try {
+            V value = load(key);
+            created.update(value, clock.getAsLong());
+            created.initial.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.initial.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void scheduleRefresh(K key, Entry<V> entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        refreshes.increment();
+        try {
+            executor.execute(() -> {
+                try {
+                    V value = load(key);
+                    // Eine Invalidierung während des Ladens bleibt bestehen, der Wert könnte vorher gelesen sein
+                    entry.update(value, clock.getAsLong());
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    logger.warn("Aktualisierung von Cache {} für {} fehlgeschlagen", name, key, e);
+                } finally {
+                    entry.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+            failures.increment();
+        }
+    }
+
+    private V load(K key) {
+        long start = System.nanoTime();
+        V value = loader.apply(key);
+        long duration = System.nanoTime() - start;
+        loads.increment();
+        loadNanosTotal.add(duration);
+        loadNanosLast.set(duration);
+        loadNanosMax.accumulateAndGet(duration, Math::max);
+        return value;
+    }
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> initial = new CompletableFuture<>();
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile V value;
+        volatile long loadedAt;
+        volatile boolean invalidated;
+
+        void update(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
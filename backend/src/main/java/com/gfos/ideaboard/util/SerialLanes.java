@@ -0,0 +1,98 @@
+package com.gfos.ideaboard.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serielle Verarbeitung nach Schlüssel auf einer festen Zahl von Spuren.
+ * Elemente mit gleichem Schlüssel werden nacheinander und in Eingangsreihenfolge verarbeitet, verschiedene Spuren
+ * laufen parallel auf dem Executor. Pro Spur läuft immer höchstens ein Durchlauf, entweder auf dem Executor oder
+ * im aufrufenden Thread ({@link #enqueueOrRun}). Lehnt der Executor ab (beim Herunterfahren), wird im aufrufenden
+ * Thread verarbeitet, statt Elemente zu verlieren.
+ */
+public class SerialLanes<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SerialLanes.class);
+
+    private final List<Lane> lanes;
+    private final Executor executor;
+    private final Consumer<T> handler;
+
+    public SerialLanes(int laneCount, Executor executor, Consumer<T> handler) {
+        this.executor = executor;
+        this.handler = handler;
+        int count = Math.max(1, laneCount);
+        this.lanes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lanes.add(new Lane());
+        }
+    }
+
+    /**
+     * Reiht ein Element ein; verarbeitet wird auf dem Executor.
+     */
+    public void enqueue(Object key, T item) {
+        Lane lane = laneFor(key);
+        lane.queue.add(item);
+        lane.schedule();
+    }
+
+    /**
+     * Reiht ein Element ein und verarbeitet die Spur im aufrufenden Thread, falls sie gerade ruht.
+     *
+     * @return {@code false}, wenn bereits ein Durchlauf läuft, der das Element übernimmt
+     */
+    public boolean enqueueOrRun(Object key, T item) {
+        Lane lane = laneFor(key);
+        lane.queue.add(item);
+        if (lane.scheduled.compareAndSet(false, true)) {
+            lane.drain();
+            return true;
+        }
+        return false;
+    }
+
+    private Lane laneFor(Object key) {
+        return lanes.get(Math.floorMod(key.hashCode(), lanes.size()));
+    }
+
+    private final class Lane {
+        private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private void schedule() {
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    drain();
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                T item;
+                while ((item = queue.poll()) != null) {
+                    try {
+                        handler.accept(item);
+                    } catch (RuntimeException e) {
+                        logger.warn("Verarbeitung von {} fehlgeschlagen", item, e);
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+                // Während des Abschlusses eingetroffene Elemente nicht liegen lassen
+                schedule();
+            }
+        }
+    }
+}
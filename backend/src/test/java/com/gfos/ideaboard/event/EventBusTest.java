@@ -0,0 +1,140 @@
+package com.gfos.ideaboard.event;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the event bus without a container: envelope round trip between nodes,
+ * suppression of the node's own NOTIFY echo and per-key ordering of remote and local events.
+ */
+public class EventBusTest {
+
+    private final List<Runnable> pendingRuns = Collections.synchronizedList(new ArrayList<>());
+
+    private void runPending() {
+        while (!pendingRuns.isEmpty()) {
+            pendingRuns.remove(0).run();
+        }
+    }
+
+    @Test
+    @DisplayName("Events should survive the envelope round trip to another node")
+    void testEnvelopeRoundTrip() {
+        EventBus sender = new EventBus("node-a", 4, Runnable::run);
+        EventBus receiver = new EventBus("node-b", 4, Runnable::run);
+        List<ClusterEvent> received = new ArrayList<>();
+        receiver.subscribe(IdeaChanged.class, received::add);
+        receiver.subscribe(MembershipChanged.class, received::add);
+        receiver.subscribe(UserRoleChanged.class, received::add);
+
+        List<ClusterEvent> events = List.of(
+                new IdeaChanged(7L, IdeaChanged.STATUS_CHANGED),
+                new MembershipChanged(3L, 42L, true),
+                new UserRoleChanged(42L, "PROJECT_MANAGER", false, 1700000000123L));
+        for (ClusterEvent event : events) {
+            receiver.onNotification(sender.serialize(event));
+        }
+
+        assertEquals(events, received);
+    }
+
+    @Test
+    @DisplayName("A node should ignore the echo of its own events")
+    void testOwnEchoSuppressed() {
+        EventBus bus = new EventBus("node-a", 4, Runnable::run);
+        List<ClusterEvent> received = new ArrayList<>();
+        bus.subscribe(MembershipChanged.class, received::add);
+
+        bus.onNotification(bus.serialize(new MembershipChanged(3L, 42L, true)));
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Unknown or malformed payloads should be dropped")
+    void testInvalidPayloadIgnored() {
+        EventBus bus = new EventBus("node-a", 4, Runnable::run);
+        List<ClusterEvent> received = new ArrayList<>();
+        bus.subscribe(MembershipChanged.class, received::add);
+
+        bus.onNotification("{\"node\":\"node-b\",\"type\":\"Unknown\",\"event\":{}}");
+        bus.onNotification("not json");
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A local event should be delivered after a remote event with the same key that is still queued")
+    void testLocalEventWaitsForQueuedRemoteEvent() throws Exception {
+        EventBus remote = new EventBus("node-b", 4, Runnable::run);
+        EventBus bus = new EventBus("node-a", 4, pendingRuns::add);
+        List<Boolean> joined = Collections.synchronizedList(new ArrayList<>());
+        bus.subscribe(MembershipChanged.class, event -> joined.add(event.joined()));
+
+        // Join from another node is queued, its lane has not run yet
+        bus.onNotification(remote.serialize(new MembershipChanged(3L, 42L, true)));
+        assertEquals(1, pendingRuns.size());
+
+        // Leave committed on this node must not overtake it
+        Thread publisher = new Thread(() -> bus.deliverLocal(new MembershipChanged(3L, 42L, false)));
+        publisher.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (publisher.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(joined.isEmpty(), "Nothing should be delivered before the lane runs");
+
+        runPending();
+        publisher.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertFalse(publisher.isAlive(), "Publisher should return once its event is delivered");
+        assertEquals(List.of(true, false), joined);
+    }
+
+    @Test
+    @DisplayName("Events with the same key should be delivered serially and in order")
+    void testLaneOrdering() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            EventBus remote = new EventBus("node-b", 4, Runnable::run);
+            EventBus bus = new EventBus("node-a", 4, executor);
+            List<Long> groupIds = Collections.synchronizedList(new ArrayList<>());
+            AtomicInteger inFlight = new AtomicInteger();
+            AtomicInteger maxInFlight = new AtomicInteger();
+            bus.subscribe(MembershipChanged.class, event -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                groupIds.add(event.groupId());
+                inFlight.decrementAndGet();
+            });
+
+            int events = 1000;
+            for (long i = 0; i < events; i++) {
+                MembershipChanged event = new MembershipChanged(i, 42L, i % 2 == 0);
+                if (i % 3 == 0) {
+                    bus.deliverLocal(event);
+                } else {
+                    bus.onNotification(remote.serialize(event));
+                }
+            }
+            // A local event waits for everything queued before it
+            bus.deliverLocal(new MembershipChanged((long) events, 42L, true));
+
+            assertEquals(events + 1, groupIds.size());
+            for (int i = 0; i <= events; i++) {
+                assertEquals(i, groupIds.get(i));
+            }
+            assertEquals(1, maxInFlight.get(), "A lane should never deliver two events at once");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.gfos.ideaboard.security;
+
+import at.favre.lib.crypto.bcrypt.BCrypt;
+import com.gfos.ideaboard.exception.ApiException;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Login storm: ordinary API calls must keep being served while many logins arrive at once.
+ * The HTTP worker pool is simulated by a small fixed thread pool; with {@link PasswordHashingExecutor} the workers
+ * only hand the BCrypt verification off to the bounded hashing pool (or get a 429 when it is saturated).
+ * <p>
+ * The benchmark (tagged "benchmark", runs with {@code mvn test -Pbenchmark}) measures how long a trivial task
+ * waits for a free worker while the storm runs, with BCrypt inline on the workers versus offloaded. Each simulated
+ * login goes through a real {@link LoginThrottle} check and a real BCrypt verification, but not through
+ * {@code AuthService}, the database or HTTP; the "API calls" stand in for any cheap request and only show
+ * worker starvation, not end-to-end endpoint latency.
+ */
+public class LoginStormBenchmarkTest {
+
+    private static final int HTTP_WORKERS = 4;
+    private static final int LOGINS = 48;
+    private static final int API_CALLS = 24;
+    // Low cost keeps the test fast; only the ratio between the scenarios matters
+    private static final int BENCHMARK_COST = 8;
+    // Gap between API calls, so they arrive during the storm instead of all at once
+    private static final long API_CALL_INTERVAL_MILLIS = 5;
+
+    private static final char[] PASSWORD = "password123".toCharArray();
+    private static final String HASH = BCrypt.withDefaults().hashToString(BENCHMARK_COST, PASSWORD);
+
+    @Test
+    @DisplayName("Login storm should verify every login and keep serving API calls when hashing is offloaded")
+    void testLoginStormWithOffloadedHashing() throws Exception {
+        // Queue sized for the whole storm, so no login is shed with a 429
+        PasswordHashingExecutor hashingExecutor =
+                new PasswordHashingExecutor(2, LOGINS, Executors.defaultThreadFactory());
+        ExecutorService httpWorkers = Executors.newFixedThreadPool(HTTP_WORKERS);
+        try {
+            List<Future<CompletableFuture<Boolean>>> logins = new ArrayList<>();
+            for (int i = 0; i < LOGINS; i++) {
+                logins.add(httpWorkers.submit(
+                        () -> hashingExecutor.submit(() -> BCrypt.verifyer().verify(PASSWORD, HASH).verified)));
+            }
+
+            List<Future<Double>> apiCalls = new ArrayList<>();
+            for (int i = 0; i < API_CALLS; i++) {
+                double input = i;
+                // Cheap request, e.g. a cached GET /dashboard/statistics
+                apiCalls.add(httpWorkers.submit(() -> Math.sqrt(input)));
+            }
+
+            for (Future<Double> call : apiCalls) {
+                assertNotNull(call.get(60, TimeUnit.SECONDS));
+            }
+            for (Future<CompletableFuture<Boolean>> login : logins) {
+                assertTrue(login.get(60, TimeUnit.SECONDS).get(60, TimeUnit.SECONDS),
+                        "Every accepted login should be verified");
+            }
+        } finally {
+            httpWorkers.shutdownNow();
+            hashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("API latency during a login storm should stay low when hashing is offloaded")
+    void testApiLatencyDuringLoginStorm() throws Exception {
+        List<Long> inline = runStorm(null);
+
+        PasswordHashingExecutor hashingExecutor =
+                new PasswordHashingExecutor(2, LOGINS, Executors.defaultThreadFactory());
+        List<Long> offloaded;
+        try {
+            offloaded = runStorm(hashingExecutor);
+        } finally {
+            hashingExecutor.shutdown();
+        }
+
+        long inlineP99 = percentile(inline, 99);
+        long offloadedP99 = percentile(offloaded, 99);
+        System.out.printf("Login storm (%d logins, %d API calls, %d workers): " +
+                        "inline p50=%dms p99=%dms | offloaded p50=%dms p99=%dms%n",
+                LOGINS, API_CALLS, HTTP_WORKERS,
+                percentile(inline, 50), inlineP99, percentile(offloaded, 50), offloadedP99);
+
+        assertTrue(offloadedP99 < inlineP99,
+                "Offloaded hashing should keep API latency below the inline baseline");
+    }
+
+    @Test
+    @DisplayName("Saturated hashing pool should reject with 429 instead of queueing")
+    void testRejectsWhenSaturated() throws Exception {
+        PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(1, 2, Executors.defaultThreadFactory());
+        AtomicInteger rejected = new AtomicInteger();
+        try {
+            for (int i = 0; i < 20; i++) {
+                try {
+                    hashingExecutor.submit(() -> BCrypt.verifyer().verify(PASSWORD, HASH).verified);
+                } catch (ApiException e) {
+                    assertEquals(429, e.getStatus().getStatusCode());
+                    rejected.incrementAndGet();
+                }
+            }
+        } finally {
+            hashingExecutor.shutdown();
+        }
+        assertTrue(rejected.get() > 0, "Some submissions should have been rejected");
+    }
+
+    /**
+     * Runs the storm on a fresh simulated worker pool and returns, for each API call, the time in milliseconds
+     * from submission to completion (almost all of it waiting for a worker). Without a hashing executor the workers verify BCrypt inline.
+     */
+    private List<Long> runStorm(PasswordHashingExecutor hashingExecutor) throws Exception {
+        ExecutorService httpWorkers = Executors.newFixedThreadPool(HTTP_WORKERS);
+        try {
+            // Limits above the storm, so every login reaches the password check
+            LoginThrottle throttle = new LoginThrottle(LOGINS, 60_000, LOGINS, 60_000, System::currentTimeMillis);
+            List<Future<?>> logins = new ArrayList<>();
+            for (int i = 0; i < LOGINS; i++) {
+                String username = "user" + i;
+                logins.add(httpWorkers.submit(() -> {
+                    throttle.checkAttempt(username, "10.0.0.1");
+                    if (hashingExecutor == null) {
+                        return BCrypt.verifyer().verify(PASSWORD, HASH).verified;
+                    }
+                    // The worker is released as soon as the verification is handed off
+                    return hashingExecutor.submit(() -> BCrypt.verifyer().verify(PASSWORD, HASH).verified);
+                }));
+            }
+
+            List<Future<Long>> apiCalls = new ArrayList<>();
+            for (int i = 0; i < API_CALLS; i++) {
+                long submitted = System.nanoTime();
+                apiCalls.add(httpWorkers.submit(() -> {
+                    // Trivial request: the measured time is the wait for a free worker
+                    Math.sqrt(submitted);
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submitted);
+                }));
+                Thread.sleep(API_CALL_INTERVAL_MILLIS);
+            }
+
+            List<Long> latencies = new ArrayList<>();
+            for (Future<Long> call : apiCalls) {
+                latencies.add(call.get(60, TimeUnit.SECONDS));
+            }
+            for (Future<?> login : logins) {
+                Object result = login.get(60, TimeUnit.SECONDS);
+                if (result instanceof CompletableFuture<?> verification) {
+                    verification.get(60, TimeUnit.SECONDS);
+                }
+            }
+            return latencies;
+        } finally {
+            httpWorkers.shutdownNow();
+        }
+    }
+
+    private long percentile(List<Long> values, int percentile) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+}
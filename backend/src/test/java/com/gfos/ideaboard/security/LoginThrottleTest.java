@@ -0,0 +1,113 @@
+package com.gfos.ideaboard.security;
+
+import com.gfos.ideaboard.exception.ApiException;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the login throttle: per-IP and per-account limits,
+ * window expiry and counting before any password is hashed.
+ */
+public class LoginThrottleTest {
+
+    private static final int MAX_FAILURES = 3;
+    private static final long ACCOUNT_WINDOW_MILLIS = 60_000;
+    private static final int MAX_IP_ATTEMPTS = 5;
+    private static final long IP_WINDOW_MILLIS = 10_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private LoginThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new LoginThrottle(MAX_FAILURES, ACCOUNT_WINDOW_MILLIS, MAX_IP_ATTEMPTS, IP_WINDOW_MILLIS,
+                clock::get);
+    }
+
+    @Test
+    @DisplayName("Attempts from one IP above the limit should be rejected with 429")
+    void testIpLimit() {
+        for (int i = 0; i < MAX_IP_ATTEMPTS; i++) {
+            throttle.checkAttempt("user" + i, "10.0.0.1");
+        }
+
+        ApiException e = assertThrows(ApiException.class, () -> throttle.checkAttempt("other", "10.0.0.1"));
+        assertEquals(429, e.getStatus().getStatusCode());
+        // Other addresses are not affected
+        assertDoesNotThrow(() -> throttle.checkAttempt("other", "10.0.0.2"));
+    }
+
+    @Test
+    @DisplayName("IP window should reset after it expires")
+    void testIpWindowExpiry() {
+        for (int i = 0; i < MAX_IP_ATTEMPTS; i++) {
+            throttle.checkAttempt("user", "10.0.0.1");
+        }
+        assertThrows(ApiException.class, () -> throttle.checkAttempt("user", "10.0.0.1"));
+
+        clock.addAndGet(IP_WINDOW_MILLIS - 1);
+        assertThrows(ApiException.class, () -> throttle.checkAttempt("user", "10.0.0.1"));
+
+        clock.addAndGet(1);
+        assertDoesNotThrow(() -> throttle.checkAttempt("user", "10.0.0.1"));
+    }
+
+    @Test
+    @DisplayName("Account should be locked after too many failures regardless of IP and username case")
+    void testAccountLimit() {
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            throttle.checkAttempt("Alice", "10.0.0." + i);
+            throttle.recordFailure("Alice");
+        }
+
+        ApiException e = assertThrows(ApiException.class, () -> throttle.checkAttempt(" alice ", "10.0.0.99"));
+        assertEquals(429, e.getStatus().getStatusCode());
+        assertDoesNotThrow(() -> throttle.checkAttempt("bob", "10.0.0.99"));
+    }
+
+    @Test
+    @DisplayName("Account lock should lift when the failure window expires")
+    void testAccountWindowExpiry() {
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            throttle.recordFailure("alice");
+        }
+        assertThrows(ApiException.class, () -> throttle.checkAttempt("alice", null));
+
+        clock.addAndGet(ACCOUNT_WINDOW_MILLIS);
+        assertDoesNotThrow(() -> throttle.checkAttempt("alice", null));
+
+        // A failure after expiry starts a new window instead of extending the old count
+        throttle.recordFailure("alice");
+        assertDoesNotThrow(() -> throttle.checkAttempt("alice", null));
+    }
+
+    @Test
+    @DisplayName("Successful login should clear the account failures")
+    void testSuccessClearsFailures() {
+        for (int i = 0; i < MAX_FAILURES - 1; i++) {
+            throttle.recordFailure("alice");
+        }
+        throttle.recordSuccess("alice");
+        throttle.recordFailure("alice");
+
+        assertDoesNotThrow(() -> throttle.checkAttempt("alice", null));
+    }
+
+    @Test
+    @DisplayName("Attempts should be counted before hashing, even if no failure is recorded")
+    void testCountsBeforeHashing() {
+        // Requests that never reach the password check (e.g. shed with 429 by the hashing pool)
+        // still use up the IP budget
+        for (int i = 0; i < MAX_IP_ATTEMPTS; i++) {
+            throttle.checkAttempt("alice", "10.0.0.1");
+        }
+        assertThrows(ApiException.class, () -> throttle.checkAttempt("alice", "10.0.0.1"));
+
+        // Rejected attempts keep counting, so hammering does not reopen the window early
+        clock.addAndGet(IP_WINDOW_MILLIS / 2);
+        assertThrows(ApiException.class, () -> throttle.checkAttempt("alice", "10.0.0.1"));
+    }
+}
@@ -0,0 +1,168 @@
+package com.gfos.ideaboard.service;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contention test: 500 concurrent voters on one survey.
+ * With {@link SurveyTally} voters only bump striped counters while a background flusher recounts
+ * from the (simulated) survey_votes table; the tally must stay exact throughout.
+ * The benchmark against the previous trigger path, where every vote holds the row lock of the survey
+ * until its transaction commits, is tagged "benchmark" and runs with {@code mvn test -Pbenchmark}.
+ */
+public class SurveyTallyContentionTest {
+
+    private static final int VOTERS = 500;
+    private static final int VOTES_PER_VOTER = 4;
+    private static final long[] OPTION_IDS = {1L, 2L, 3L, 4L};
+    // Time a vote transaction keeps the counter rows locked in the baseline
+    private static final long ROW_LOCK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Test
+    @DisplayName("Striped tally should stay exact with 500 concurrent voters")
+    void testContention() throws Exception {
+        runStripedTally();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Benchmark striped tally against row-lock serialization with 500 voters")
+    void testContentionBenchmark() throws Exception {
+        long lockedNanos = runRowLockBaseline();
+        long tallyNanos = runStripedTally();
+
+        // Reported only; the ratio depends on the machine
+        System.out.printf("Survey votes (%d voters x %d votes): row lock %dms | striped tally %dms%n",
+                VOTERS, VOTES_PER_VOTER,
+                TimeUnit.NANOSECONDS.toMillis(lockedNanos), TimeUnit.NANOSECONDS.toMillis(tallyNanos));
+    }
+
+    /**
+     * Votes through the striped tally with a concurrent flusher, checks the result and returns the voting time.
+     */
+    private long runStripedTally() throws Exception {
+        SurveyTally tally = new SurveyTally(10L, zeroCounts());
+        Map<Long, AtomicLong> committedVotes = new ConcurrentHashMap<>();
+        for (long optionId : OPTION_IDS) {
+            committedVotes.put(optionId, new AtomicLong());
+        }
+
+        AtomicBoolean voting = new AtomicBoolean(true);
+        Thread flusher = new Thread(() -> {
+            while (voting.get()) {
+                flush(tally, committedVotes);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        });
+        flusher.start();
+
+        long nanos = runVoters(optionId -> {
+            // Vote row committed first, then counted in memory (as in afterCompletion)
+            committedVotes.get(optionId).incrementAndGet();
+            tally.increment(optionId);
+        });
+        voting.set(false);
+        flusher.join();
+        flush(tally, committedVotes);
+
+        int expectedPerOption = VOTERS * VOTES_PER_VOTER / OPTION_IDS.length;
+        Map<Long, Integer> counts = tally.counts();
+        for (long optionId : OPTION_IDS) {
+            assertEquals(expectedPerOption, counts.get(optionId));
+        }
+        assertEquals(VOTERS * VOTES_PER_VOTER, tally.total());
+        assertFalse(tally.hasPending(), "Everything should be flushed");
+        return nanos;
+    }
+
+    @Test
+    @DisplayName("Sync should keep votes that arrived after the pending snapshot")
+    void testSyncKeepsLateVotes() {
+        SurveyTally tally = new SurveyTally(10L, zeroCounts());
+        tally.increment(1L);
+        tally.increment(1L);
+
+        Map<Long, Long> pending = tally.pending();
+        tally.increment(1L);
+        // Database recount only contains the first two votes
+        tally.sync(Map.of(1L, 2L, 2L, 0L, 3L, 0L, 4L, 0L), pending);
+
+        assertEquals(3, tally.counts().get(1L));
+        assertEquals(Map.of(1L, 1L), tally.pending());
+    }
+
+    private long runRowLockBaseline() throws Exception {
+        ReentrantLock surveyRowLock = new ReentrantLock();
+        Map<Long, Long> counts = new HashMap<>();
+        long nanos = runVoters(optionId -> {
+            surveyRowLock.lock();
+            try {
+                counts.merge(optionId, 1L, Long::sum);
+                LockSupport.parkNanos(ROW_LOCK_NANOS);
+            } finally {
+                surveyRowLock.unlock();
+            }
+        });
+        assertEquals((long) VOTERS * VOTES_PER_VOTER, counts.values().stream().mapToLong(Long::longValue).sum());
+        return nanos;
+    }
+
+    private long runVoters(LongConsumer vote) throws Exception {
+        ExecutorService voters = Executors.newFixedThreadPool(VOTERS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(VOTERS);
+        try {
+            for (int v = 0; v < VOTERS; v++) {
+                int voter = v;
+                voters.submit(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < VOTES_PER_VOTER; i++) {
+                            vote.accept(OPTION_IDS[(voter + i) % OPTION_IDS.length]);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            assertTrue(done.await(60, TimeUnit.SECONDS), "Voters did not finish");
+            return System.nanoTime() - begin;
+        } finally {
+            voters.shutdownNow();
+        }
+    }
+
+    private void flush(SurveyTally tally, Map<Long, AtomicLong> committedVotes) {
+        Map<Long, Long> pending = tally.pending();
+        Map<Long, Long> recount = new HashMap<>();
+        committedVotes.forEach((optionId, count) -> recount.put(optionId, count.get()));
+        tally.sync(recount, pending);
+    }
+
+    private Map<Long, Long> zeroCounts() {
+        Map<Long, Long> counts = new LinkedHashMap<>();
+        for (long optionId : OPTION_IDS) {
+            counts.put(optionId, 0L);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,173 @@
+package com.gfos.ideaboard.util;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the refresh-ahead cache used by the dashboard:
+ * single-flight loading, serving within the refresh-ahead window, blocking reloads after expiry or
+ * invalidation and metrics.
+ */
+public class RefreshAheadCacheTest {
+
+    private static final long TTL_MILLIS = 1000;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Runnable> pendingRefreshes = new ArrayList<>();
+
+    private RefreshAheadCache<String, Integer> newCache(AtomicInteger loads) {
+        return new RefreshAheadCache<>("test", TTL_MILLIS, key -> loads.incrementAndGet(),
+                pendingRefreshes::add, clock::get);
+    }
+
+    @Test
+    @DisplayName("Concurrent first access should load only once")
+    void testSingleFlightInitialLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        RefreshAheadCache<String, Integer> cache = new RefreshAheadCache<>("test", TTL_MILLIS, key -> {
+            loaderEntered.countDown();
+            try {
+                releaseLoader.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return loads.incrementAndGet();
+        }, Runnable::run, clock::get);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(pool.submit(() -> cache.get("k")));
+            assertTrue(loaderEntered.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 31; i++) {
+                results.add(pool.submit(() -> cache.get("k")));
+            }
+            releaseLoader.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(1, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get(), "Loader must run exactly once");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Entries in the refresh-ahead window should be served while one refresh runs")
+    void testStaleWhileRefreshing() {
+        AtomicInteger loads = new AtomicInteger();
+        RefreshAheadCache<String, Integer> cache = newCache(loads);
+
+        assertEquals(1, cache.get("k"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS * 9 / 10));
+
+        // Repeated access while the refresh is pending returns the old value and schedules one refresh
+        assertEquals(1, cache.get("k"));
+        assertEquals(1, cache.get("k"));
+        assertEquals(1, pendingRefreshes.size());
+
+        pendingRefreshes.remove(0).run();
+        assertEquals(2, cache.get("k"));
+        assertEquals(2, loads.get());
+        assertEquals(2L, cache.getMetrics().get("staleHits"));
+    }
+
+    @Test
+    @DisplayName("Entries past the TTL should be reloaded before they are returned")
+    void testExpiredEntryReloadsBlocking() {
+        AtomicInteger loads = new AtomicInteger();
+        RefreshAheadCache<String, Integer> cache = newCache(loads);
+
+        assertEquals(1, cache.get("k"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS * 2));
+
+        assertEquals(2, cache.get("k"));
+        assertTrue(pendingRefreshes.isEmpty(), "Expired entries must not be served while refreshing");
+        assertEquals(2, cache.get("k"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("The first reader after invalidation should see the reloaded value")
+    void testInvalidateAll() {
+        AtomicInteger loads = new AtomicInteger();
+        RefreshAheadCache<String, Integer> cache = newCache(loads);
+
+        assertEquals(1, cache.get("k"));
+        cache.invalidateAll();
+        assertEquals(2, cache.get("k"));
+        assertTrue(pendingRefreshes.isEmpty(), "Fresh entry must not schedule another refresh");
+        assertEquals(2, cache.get("k"));
+    }
+
+    @Test
+    @DisplayName("Concurrent readers after invalidation should reload only once")
+    void testSingleFlightReloadAfterInvalidation() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderEntered = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        RefreshAheadCache<String, Integer> cache = new RefreshAheadCache<>("test", TTL_MILLIS, key -> {
+            int load = loads.incrementAndGet();
+            if (load > 1) {
+                loaderEntered.countDown();
+                try {
+                    releaseLoader.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return load;
+        }, Runnable::run, clock::get);
+
+        assertEquals(1, cache.get("k"));
+        cache.invalidateAll();
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(pool.submit(() -> cache.get("k")));
+            assertTrue(loaderEntered.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 15; i++) {
+                results.add(pool.submit(() -> cache.get("k")));
+            }
+            releaseLoader.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(2, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(2, loads.get(), "Loader must run once after invalidation");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Metrics should report hits, misses and hit rate")
+    void testMetrics() {
+        AtomicInteger loads = new AtomicInteger();
+        RefreshAheadCache<String, Integer> cache = newCache(loads);
+
+        cache.get("k");
+        cache.get("k");
+        cache.get("k");
+        cache.get("k");
+
+        assertEquals(1L, cache.getMetrics().get("misses"));
+        assertEquals(3L, cache.getMetrics().get("hits"));
+        assertEquals(0.75, (Double) cache.getMetrics().get("hitRate"), 0.0001);
+    }
+}
@@ -10,8 +10,11 @@ DROP TABLE IF EXISTS messages CASCADE;
 DROP TABLE IF EXISTS checklist_items CASCADE;
 DROP TABLE IF EXISTS user_badges CASCADE;
 DROP TABLE IF EXISTS badges CASCADE;
+DROP TABLE IF EXISTS token_revocations CASCADE;
 DROP TABLE IF EXISTS audit_logs CASCADE;
+DROP TABLE IF EXISTS notifications_archive CASCADE;
 DROP TABLE IF EXISTS notifications CASCADE;
+DROP TABLE IF EXISTS survey_result_summaries CASCADE;
 DROP TABLE IF EXISTS survey_votes CASCADE;
 DROP TABLE IF EXISTS survey_options CASCADE;
 DROP TABLE IF EXISTS surveys CASCADE;
@@ -64,6 +67,9 @@ CREATE TABLE ideas (
     like_count INTEGER NOT NULL DEFAULT 0,
     comment_count INTEGER NOT NULL DEFAULT 0,
     view_count INTEGER NOT NULL DEFAULT 0,
+    -- Checklisten-Zähler, gepflegt durch trigger_update_checklist_counts
+    total_items INTEGER NOT NULL DEFAULT 0,
+    completed_items INTEGER NOT NULL DEFAULT 0,
     is_featured BOOLEAN NOT NULL DEFAULT FALSE,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
@@ -133,7 +139,8 @@ CREATE TABLE comments (
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
-CREATE INDEX idx_comments_idea ON comments(idea_id);
+-- Seitenweises Laden der Kommentare einer Idee (neueste zuerst)
+CREATE INDEX idx_comments_idea ON comments(idea_id, created_at DESC, id DESC);
 CREATE INDEX idx_comments_author ON comments(author_id);
 CREATE INDEX idx_comments_created_at ON comments(created_at DESC);
 
@@ -187,6 +194,7 @@ CREATE TABLE surveys (
 CREATE INDEX idx_surveys_creator ON surveys(creator_id);
 CREATE INDEX idx_surveys_active ON surveys(is_active);
 CREATE INDEX idx_surveys_created_at ON surveys(created_at DESC);
+CREATE INDEX idx_surveys_expiry ON surveys(expires_at) WHERE is_active AND expires_at IS NOT NULL;
 
 -- =====================================================
 -- UMFRAGE-OPTIONEN-TABELLE
@@ -209,12 +217,27 @@ CREATE TABLE survey_votes (
     survey_id BIGINT NOT NULL REFERENCES surveys(id) ON DELETE CASCADE,
     option_id BIGINT NOT NULL REFERENCES survey_options(id) ON DELETE CASCADE,
     user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    -- TRUE bei Umfragen mit Einfachauswahl; dann ist nur eine Stimme pro Benutzer erlaubt
+    exclusive BOOLEAN NOT NULL DEFAULT FALSE,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     UNIQUE(survey_id, user_id, option_id)
 );
 
 CREATE INDEX idx_survey_votes_survey ON survey_votes(survey_id);
 CREATE INDEX idx_survey_votes_user ON survey_votes(user_id);
+CREATE UNIQUE INDEX idx_survey_votes_single_choice ON survey_votes(survey_id, user_id) WHERE exclusive;
+
+-- =====================================================
+-- UMFRAGE-ERGEBNISSE-TABELLE (unveränderlicher Endstand beim Ablauf einer Umfrage)
+-- =====================================================
+CREATE TABLE survey_result_summaries (
+    id BIGSERIAL PRIMARY KEY,
+    survey_id BIGINT NOT NULL UNIQUE REFERENCES surveys(id) ON DELETE CASCADE,
+    total_votes INTEGER NOT NULL,
+    -- JSON-Array [{optionId, optionText, voteCount}] in Anzeigereihenfolge
+    results TEXT NOT NULL,
+    closed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
 
 -- =====================================================
 -- ABZEICHEN-TABELLE
@@ -246,10 +269,10 @@ CREATE INDEX idx_user_badges_user ON user_badges(user_id);
 CREATE INDEX idx_user_badges_badge ON user_badges(badge_id);
 
 -- =====================================================
--- AUDIT-PROTOKOLLE-TABELLE
+-- AUDIT-PROTOKOLLE-TABELLE (monatlich partitioniert nach created_at)
 -- =====================================================
 CREATE TABLE audit_logs (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGSERIAL,
     user_id BIGINT REFERENCES users(id) ON DELETE SET NULL,
     action VARCHAR(20) NOT NULL CHECK (action IN ('CREATE', 'UPDATE', 'DELETE', 'STATUS_CHANGE', 'LOGIN', 'LOGOUT')),
     entity_type VARCHAR(50) NOT NULL,
@@ -258,13 +281,46 @@ CREATE TABLE audit_logs (
     new_value TEXT,
     ip_address VARCHAR(45),
     user_agent VARCHAR(500),
-    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
-);
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- Der Partitionsschlüssel muss Teil des Primärschlüssels sein
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Auffangpartition für Einträge außerhalb der angelegten Monate (sollte leer bleiben)
+CREATE TABLE audit_logs_default PARTITION OF audit_logs DEFAULT;
 
 CREATE INDEX idx_audit_logs_user ON audit_logs(user_id);
 CREATE INDEX idx_audit_logs_action ON audit_logs(action);
-CREATE INDEX idx_audit_logs_entity ON audit_logs(entity_type, entity_id);
-CREATE INDEX idx_audit_logs_created_at ON audit_logs(created_at DESC);
+CREATE INDEX idx_audit_logs_entity ON audit_logs(entity_type, entity_id, created_at DESC);
+CREATE INDEX idx_audit_logs_created_at ON audit_logs(created_at DESC, id DESC);
+
+-- Legt die Monatspartition für den angegebenen Monat an (audit_logs_JJJJ_MM), falls sie fehlt
+CREATE OR REPLACE FUNCTION create_audit_log_partition(month DATE)
+RETURNS TEXT AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month)::DATE;
+    partition_name TEXT := 'audit_logs_' || to_char(start_date, 'YYYY_MM');
+BEGIN
+    EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF audit_logs FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, start_date, (start_date + INTERVAL '1 month')::DATE);
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Aktueller Monat und die nächsten drei; weitere legt der Wartungsjob im Backend an
+SELECT create_audit_log_partition((CURRENT_DATE + make_interval(months => m))::DATE)
+FROM generate_series(0, 3) AS m;
+
+-- =====================================================
+-- TOKEN-WIDERRUFE-TABELLE (Tokens, die vor not_before ausgestellt wurden, sind ungültig)
+-- =====================================================
+CREATE TABLE token_revocations (
+    user_id BIGINT PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    not_before TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_token_revocations_not_before ON token_revocations(not_before);
 
 -- =====================================================
 -- BENACHRICHTIGUNGEN-TABELLE
@@ -272,7 +328,7 @@ CREATE INDEX idx_audit_logs_created_at ON audit_logs(created_at DESC);
 CREATE TABLE notifications (
     id BIGSERIAL PRIMARY KEY,
     user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
-    type VARCHAR(20) NOT NULL CHECK (type IN ('LIKE', 'COMMENT', 'REACTION', 'STATUS_CHANGE', 'BADGE_EARNED', 'LEVEL_UP', 'MENTION', 'MESSAGE')),
+    type VARCHAR(20) NOT NULL CHECK (type IN ('LIKE', 'COMMENT', 'REACTION', 'STATUS_CHANGE', 'BADGE_EARNED', 'LEVEL_UP', 'MENTION', 'MESSAGE', 'DIGEST')),
     title VARCHAR(200) NOT NULL,
     message VARCHAR(500) NOT NULL,
     link VARCHAR(500),
@@ -280,12 +336,40 @@ CREATE TABLE notifications (
     sender_id BIGINT REFERENCES users(id) ON DELETE SET NULL,
     related_entity_type VARCHAR(50),
     related_entity_id BIGINT,
+    -- Gleicher Schlüssel = Ereignisse werden in einer ungelesenen Benachrichtigung zusammengefasst
+    coalesce_key VARCHAR(100),
+    aggregate_count INTEGER NOT NULL DEFAULT 1,
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
-CREATE INDEX idx_notifications_user ON notifications(user_id);
+-- Benachrichtigungsliste eines Benutzers (neueste zuerst) und Kappung je Benutzer
+CREATE INDEX idx_notifications_user ON notifications(user_id, created_at DESC, id DESC);
 CREATE INDEX idx_notifications_unread ON notifications(user_id, is_read) WHERE is_read = FALSE;
-CREATE INDEX idx_notifications_created_at ON notifications(created_at DESC);
+-- Aufbewahrung: nur gelesene Benachrichtigungen werden nach Alter entfernt
+CREATE INDEX idx_notifications_read_created_at ON notifications(created_at) WHERE is_read = TRUE;
+-- Ziel für INSERT ... ON CONFLICT: höchstens eine ungelesene Benachrichtigung je Benutzer und Schlüssel
+CREATE UNIQUE INDEX idx_notifications_coalesce ON notifications(user_id, coalesce_key)
+    WHERE coalesce_key IS NOT NULL AND is_read = FALSE;
+
+-- Archiv für Benachrichtigungen, die die Aufbewahrungsfrist überschritten haben (ohne Fremdschlüssel)
+CREATE TABLE notifications_archive (
+    id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    message VARCHAR(500) NOT NULL,
+    link VARCHAR(500),
+    is_read BOOLEAN NOT NULL,
+    sender_id BIGINT,
+    related_entity_type VARCHAR(50),
+    related_entity_id BIGINT,
+    coalesce_key VARCHAR(100),
+    aggregate_count INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_notifications_archive_user ON notifications_archive(user_id, created_at DESC);
 
 -- =====================================================
 -- NACHRICHTEN-TABELLE (Benutzer-zu-Benutzer-Nachrichten)
@@ -333,10 +417,13 @@ CREATE TABLE group_members (
     user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
     role VARCHAR(20) NOT NULL DEFAULT 'MEMBER' CHECK (role IN ('CREATOR', 'MEMBER')),
     joined_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- Lesestand: höchste per markReadUpTo gelesene Nachricht, untere Grenze für das nächste Markieren
+    last_read_message_id BIGINT NOT NULL DEFAULT 0,
     UNIQUE(group_id, user_id)
 );
 
-CREATE INDEX idx_group_members_group ON group_members(group_id);
+-- Mitglieder-Vorschau in Beitrittsreihenfolge
+CREATE INDEX idx_group_members_group ON group_members(group_id, joined_at, id);
 CREATE INDEX idx_group_members_user ON group_members(user_id);
 
 -- =====================================================
@@ -350,7 +437,8 @@ CREATE TABLE group_messages (
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
-CREATE INDEX idx_group_messages_group ON group_messages(group_id);
+-- Letzte Nachricht je Gruppe (Gruppenliste) und chronologisches Laden
+CREATE INDEX idx_group_messages_group ON group_messages(group_id, created_at DESC, id DESC);
 CREATE INDEX idx_group_messages_sender ON group_messages(sender_id);
 CREATE INDEX idx_group_messages_created_at ON group_messages(created_at DESC);
 
@@ -440,6 +528,42 @@ CREATE TRIGGER trigger_update_comment_count
     AFTER INSERT OR DELETE ON comments
     FOR EACH ROW EXECUTE FUNCTION update_idea_comment_count();
 
+-- Funktion zum Aktualisieren der Checklisten-Zähler einer Idee
+CREATE OR REPLACE FUNCTION update_idea_checklist_counts()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE ideas SET total_items = total_items + 1,
+                         completed_items = completed_items + CASE WHEN NEW.is_completed THEN 1 ELSE 0 END
+        WHERE id = NEW.idea_id;
+        RETURN NEW;
+    ELSIF TG_OP = 'DELETE' THEN
+        UPDATE ideas SET total_items = total_items - 1,
+                         completed_items = completed_items - CASE WHEN OLD.is_completed THEN 1 ELSE 0 END
+        WHERE id = OLD.idea_id;
+        RETURN OLD;
+    ELSIF TG_OP = 'UPDATE' THEN
+        IF NEW.idea_id <> OLD.idea_id THEN
+            UPDATE ideas SET total_items = total_items - 1,
+                             completed_items = completed_items - CASE WHEN OLD.is_completed THEN 1 ELSE 0 END
+            WHERE id = OLD.idea_id;
+            UPDATE ideas SET total_items = total_items + 1,
+                             completed_items = completed_items + CASE WHEN NEW.is_completed THEN 1 ELSE 0 END
+            WHERE id = NEW.idea_id;
+        ELSIF NEW.is_completed <> OLD.is_completed THEN
+            UPDATE ideas SET completed_items = completed_items + CASE WHEN NEW.is_completed THEN 1 ELSE -1 END
+            WHERE id = NEW.idea_id;
+        END IF;
+        RETURN NEW;
+    END IF;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER trigger_update_checklist_counts
+    AFTER INSERT OR DELETE OR UPDATE OF is_completed, idea_id ON checklist_items
+    FOR EACH ROW EXECUTE FUNCTION update_idea_checklist_counts();
+
 -- Funktion zum Aktualisieren der Kommentar-Reaktions-Zählung
 CREATE OR REPLACE FUNCTION update_comment_reaction_count()
 RETURNS TRIGGER AS $$
@@ -459,25 +583,19 @@ CREATE TRIGGER trigger_update_reaction_count
     AFTER INSERT OR DELETE ON comment_reactions
     FOR EACH ROW EXECUTE FUNCTION update_comment_reaction_count();
 
--- Funktion zum Aktualisieren der Umfrage-Abstimmungs-Zählung
+-- Funktion zum Aktualisieren der Umfrage-Abstimmungs-Zählung beim Löschen von Stimmen
+-- (neue Stimmen zählt SurveyTallyService im Backend gesammelt aus survey_votes nach)
 CREATE OR REPLACE FUNCTION update_survey_vote_count()
 RETURNS TRIGGER AS $$
 BEGIN
-    IF TG_OP = 'INSERT' THEN
-        UPDATE survey_options SET vote_count = vote_count + 1 WHERE id = NEW.option_id;
-        UPDATE surveys SET total_votes = total_votes + 1 WHERE id = NEW.survey_id;
-        RETURN NEW;
-    ELSIF TG_OP = 'DELETE' THEN
-        UPDATE survey_options SET vote_count = vote_count - 1 WHERE id = OLD.option_id;
-        UPDATE surveys SET total_votes = total_votes - 1 WHERE id = OLD.survey_id;
-        RETURN OLD;
-    END IF;
-    RETURN NULL;
+    UPDATE survey_options SET vote_count = vote_count - 1 WHERE id = OLD.option_id;
+    UPDATE surveys SET total_votes = total_votes - 1 WHERE id = OLD.survey_id;
+    RETURN OLD;
 END;
 $$ language 'plpgsql';
 
 CREATE TRIGGER trigger_update_vote_count
-    AFTER INSERT OR DELETE ON survey_votes
+    AFTER DELETE ON survey_votes
     FOR EACH ROW EXECUTE FUNCTION update_survey_vote_count();
 
 -- =====================================================
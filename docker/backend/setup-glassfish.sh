@@ -19,6 +19,14 @@ asadmin start-domain ${DOMAIN_NAME:-domain1}
 echo "Waiting for GlassFish to be ready..."
 sleep 10
 
+# Apache Arrow (Analytics-Export) benötigt direkten Zugriff auf java.nio (idempotent)
+if ! asadmin list-jvm-options | grep -q "java.base/java.nio=ALL-UNNAMED"; then
+  echo "Adding JVM options for Apache Arrow..."
+  asadmin create-jvm-options -- "--add-opens=java.base/java.nio=ALL-UNNAMED"
+  asadmin restart-domain ${DOMAIN_NAME:-domain1}
+  sleep 10
+fi
+
 # Configure JDBC Connection Pool (idempotent)
 if ! asadmin list-jdbc-connection-pools | grep -q "IdeaBoardPool"; then
   echo "Creating JDBC connection pool..."
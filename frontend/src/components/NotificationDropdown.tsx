@@ -10,6 +10,7 @@ import {
   TrophyIcon,
   ArrowTrendingUpIcon,
   EnvelopeIcon,
+  InboxStackIcon,
 } from '@heroicons/react/24/outline';
 import { CheckIcon } from '@heroicons/react/24/solid';
 import { dashboardService } from '../services/dashboardService';
@@ -28,6 +29,7 @@ const notificationIcons: Record<NotificationType, React.ComponentType<{ classNam
   LEVEL_UP: ArrowTrendingUpIcon,
   MENTION: ChatBubbleLeftIcon,
   MESSAGE: EnvelopeIcon,
+  DIGEST: InboxStackIcon,
 };
 
 const notificationColors: Record<NotificationType, string> = {
@@ -39,6 +41,7 @@ const notificationColors: Record<NotificationType, string> = {
   LEVEL_UP: 'text-green-500 bg-green-50 dark:bg-green-900/20',
   MENTION: 'text-indigo-500 bg-indigo-50 dark:bg-indigo-900/20',
   MESSAGE: 'text-teal-500 bg-teal-50 dark:bg-teal-900/20',
+  DIGEST: 'text-gray-500 bg-gray-100 dark:bg-gray-700',
 };
 
 export default function NotificationDropdown({ onClose }: NotificationDropdownProps) {
@@ -25,6 +25,7 @@ import { format } from 'date-fns';
 import toast from 'react-hot-toast';
 
 const EMOJI_LIST = ['thumbs_up', 'heart', 'celebrate', 'thinking', 'fire'];
+const COMMENT_PAGE_SIZE = 50;
 
 const EMOJI_DISPLAY: Record<string, string> = {
   thumbs_up: '👍',
@@ -40,6 +41,9 @@ export default function IdeaDetailPage() {
   const navigate = useNavigate();
   const [idea, setIdea] = useState<Idea | null>(null);
   const [comments, setComments] = useState<Comment[]>([]);
+  const [commentPage, setCommentPage] = useState(0);
+  const [hasMoreComments, setHasMoreComments] = useState(false);
+  const [loadingComments, setLoadingComments] = useState(false);
   const [loading, setLoading] = useState(true);
   const [newComment, setNewComment] = useState('');
   const [submittingComment, setSubmittingComment] = useState(false);
@@ -110,12 +114,22 @@ export default function IdeaDetailPage() {
     }
   };
 
-  const fetchComments = async () => {
+  const fetchComments = async (page = 0) => {
+    setLoadingComments(true);
     try {
-      const data = await ideaService.getComments(Number(id));
-      setComments(data);
+      const data = await ideaService.getComments(Number(id), page, COMMENT_PAGE_SIZE);
+      setComments((prev) => {
+        if (page === 0) return data;
+        // Kommentare, die durch neue Einträge auf die nächste Seite gerutscht sind, nicht doppelt anzeigen
+        const known = new Set(prev.map((c) => c.id));
+        return [...prev, ...data.filter((c) => !known.has(c.id))];
+      });
+      setCommentPage(page);
+      setHasMoreComments(data.length === COMMENT_PAGE_SIZE);
     } catch (error) {
       console.error('Failed to fetch comments:', error);
+    } finally {
+      setLoadingComments(false);
     }
   };
 
@@ -204,7 +218,23 @@ export default function IdeaDetailPage() {
         await ideaService.addReaction(commentId, emoji);
       }
 
-      fetchComments();
+      // Nur den betroffenen Kommentar lokal aktualisieren, statt alle geladenen Seiten neu abzufragen
+      const delta = hasReacted ? -1 : 1;
+      setComments((prev) =>
+        prev.map((c) => {
+          if (c.id !== commentId) return c;
+          const others = c.reactions.filter((r) => r.emoji !== emoji);
+          const count = (c.reactions.find((r) => r.emoji === emoji)?.count ?? 0) + delta;
+          return {
+            ...c,
+            reactionCount: c.reactionCount + delta,
+            reactions: count > 0 ? [...others, { emoji, count }] : others,
+            currentUserReactionEmojis: hasReacted
+              ? (c.currentUserReactionEmojis ?? []).filter((e) => e !== emoji)
+              : [...(c.currentUserReactionEmojis ?? []), emoji],
+          };
+        })
+      );
     } catch (error) {
       toast.error('Fehler beim Aktualisieren der Reaktion');
     }
@@ -680,7 +710,7 @@ export default function IdeaDetailPage() {
       <div className="card">
         <div className="p-6 border-b border-gray-100 dark:border-gray-700">
           <h2 className="text-lg font-semibold text-gray-900 dark:text-white">
-            Kommentare ({comments.length})
+            Kommentare ({idea.commentCount ?? comments.length})
           </h2>
         </div>
 
@@ -780,6 +810,18 @@ export default function IdeaDetailPage() {
             ))
           )}
         </div>
+
+        {hasMoreComments && (
+          <div className="p-4 text-center border-t border-gray-100 dark:border-gray-700">
+            <button
+              onClick={() => fetchComments(commentPage + 1)}
+              disabled={loadingComments}
+              className="btn-secondary"
+            >
+              {loadingComments ? 'Wird geladen...' : 'Weitere Kommentare laden'}
+            </button>
+          </div>
+        )}
       </div>
 
       {/* Status-Modal */}
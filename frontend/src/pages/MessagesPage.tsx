@@ -11,7 +11,7 @@ import {
 import { messageService } from '../services/messageService';
 import { groupService } from '../services/groupService';
 import userService from '../services/userService';
-import { Message, Conversation, User, IdeaGroup, GroupMessage } from '../types';
+import { Message, Conversation, User, IdeaGroup, GroupMessage, GroupChatEvent } from '../types';
 import { useAuth } from '../context/AuthContext';
 import { format, isToday, isYesterday } from 'date-fns';
 import toast from 'react-hot-toast';
@@ -34,6 +34,10 @@ export default function MessagesPage() {
   const [groups, setGroups] = useState<IdeaGroup[]>([]);
   const [groupMessages, setGroupMessages] = useState<GroupMessage[]>([]);
   const [selectedGroup, setSelectedGroup] = useState<IdeaGroup | null>(null);
+  const [typingUser, setTypingUser] = useState<string | null>(null);
+  const lastTypingSentRef = useRef(0);
+  const chatSocketRef = useRef<WebSocket | null>(null);
+  const groupMessagesRef = useRef<GroupMessage[]>([]);
 
   // Gemeinsamer Status
   const [newMessage, setNewMessage] = useState('');
@@ -67,8 +71,114 @@ export default function MessagesPage() {
 
   useEffect(() => {
     scrollToBottom();
+    groupMessagesRef.current = groupMessages;
   }, [messages, groupMessages]);
 
+  // Live-Chat der ausgewählten Gruppe; bei Abbruch neu verbinden und verpasste Nachrichten nachladen
+  useEffect(() => {
+    const groupId = selectedGroup?.id;
+    if (!groupId) return;
+
+    let closed = false;
+    let typingTimer: ReturnType<typeof setTimeout> | undefined;
+    let reconnectTimer: ReturnType<typeof setTimeout> | undefined;
+    let readTimer: ReturnType<typeof setTimeout> | undefined;
+    // Höchste empfangene, noch nicht als gelesen gemeldete Nachricht
+    let unreadId = 0;
+
+    // Lesestand gebündelt melden und nur, solange der Chat sichtbar ist
+    const flushRead = () => {
+      readTimer = undefined;
+      const socket = chatSocketRef.current;
+      if (!unreadId || document.visibilityState !== 'visible' || socket?.readyState !== WebSocket.OPEN) return;
+      socket.send(JSON.stringify({ type: 'read', messageId: unreadId }));
+      unreadId = 0;
+    };
+
+    const scheduleRead = (messageId: number) => {
+      unreadId = Math.max(unreadId, messageId);
+      if (!readTimer) {
+        readTimer = setTimeout(flushRead, 1500);
+      }
+    };
+
+    const handleVisibilityChange = () => {
+      if (document.visibilityState === 'visible' && unreadId && !readTimer) {
+        readTimer = setTimeout(flushRead, 1500);
+      }
+    };
+    document.addEventListener('visibilitychange', handleVisibilityChange);
+
+    const appendMessages = (incoming: GroupMessage[]) => {
+      setGroupMessages(prev => {
+        const known = new Set(prev.map(m => m.id));
+        const added = incoming.filter(m => !known.has(m.id));
+        return added.length ? [...prev, ...added] : prev;
+      });
+    };
+
+    const resync = async () => {
+      const current = groupMessagesRef.current;
+      const lastId = current.length ? current[current.length - 1].id : undefined;
+      try {
+        appendMessages(await groupService.getGroupMessages(groupId, lastId));
+      } catch (error) {
+        console.error('Failed to resync group messages:', error);
+      }
+    };
+
+    const handleEvent = (event: GroupChatEvent) => {
+      if (event.type === 'message') {
+        appendMessages([event.message]);
+        if (event.message.sender.id !== user?.id) {
+          scheduleRead(event.message.id);
+        }
+        setTypingUser(null);
+      } else if (event.type === 'typing') {
+        setTypingUser(event.username);
+        clearTimeout(typingTimer);
+        typingTimer = setTimeout(() => setTypingUser(null), 3000);
+      } else if (event.type === 'resync') {
+        resync();
+      }
+    };
+
+    const connect = (isReconnect: boolean) => {
+      const socket = groupService.connectGroupChat(groupId, handleEvent);
+      chatSocketRef.current = socket;
+      if (isReconnect) {
+        socket.onopen = () => resync();
+      }
+      socket.onclose = (event) => {
+        // 1008: Token ungültig oder keine Mitgliedschaft, kein erneuter Versuch
+        if (closed || event.code === 1008) return;
+        reconnectTimer = setTimeout(() => connect(true), 2000);
+      };
+    };
+    connect(false);
+
+    return () => {
+      closed = true;
+      clearTimeout(typingTimer);
+      clearTimeout(reconnectTimer);
+      clearTimeout(readTimer);
+      document.removeEventListener('visibilitychange', handleVisibilityChange);
+      chatSocketRef.current?.close();
+      chatSocketRef.current = null;
+      setTypingUser(null);
+    };
+  }, [selectedGroup?.id]);
+
+  const handleMessageInput = (value: string) => {
+    setNewMessage(value);
+    const socket = chatSocketRef.current;
+    const now = Date.now();
+    if (selectedGroup && socket?.readyState === WebSocket.OPEN && now - lastTypingSentRef.current > 2000) {
+      lastTypingSentRef.current = now;
+      socket.send(JSON.stringify({ type: 'typing' }));
+    }
+  };
+
   const scrollToBottom = () => {
     messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' });
   };
@@ -196,7 +306,8 @@ export default function MessagesPage() {
       if (selectedGroup) {
         // Gruppennachricht senden
         const message = await groupService.sendGroupMessage(selectedGroup.id, newMessage.trim());
-        setGroupMessages(prev => [...prev, message]);
+        // Kann bereits über den Live-Chat angekommen sein
+        setGroupMessages(prev => prev.some(m => m.id === message.id) ? prev : [...prev, message]);
         setNewMessage('');
 
         // Letzte Nachricht der Gruppe aktualisieren
@@ -481,7 +592,7 @@ export default function MessagesPage() {
                           {selectedGroup.name}
                         </h3>
                         <p className="text-sm text-gray-500 dark:text-gray-400">
-                          {selectedGroup.memberCount} Mitglieder
+                          {typingUser ? `${typingUser} schreibt...` : `${selectedGroup.memberCount} Mitglieder`}
                         </p>
                       </div>
                     </>
@@ -617,7 +728,7 @@ export default function MessagesPage() {
                   <input
                     type="text"
                     value={newMessage}
-                    onChange={(e) => setNewMessage(e.target.value)}
+                    onChange={(e) => handleMessageInput(e.target.value)}
                     placeholder="Nachricht eingeben..."
                     maxLength={2000}
                     className="input flex-1"
@@ -2,7 +2,7 @@ import { useState, useEffect } from 'react';
 import { PlusIcon, XMarkIcon, ChartBarIcon, InformationCircleIcon, EyeSlashIcon, CheckIcon } from '@heroicons/react/24/outline';
 import { CheckCircleIcon } from '@heroicons/react/24/solid';
 import { surveyService } from '../services/surveyService';
-import { Survey } from '../types';
+import { Survey, SurveyResultsEvent } from '../types';
 import { useAuth } from '../context/AuthContext';
 import { format } from 'date-fns';
 import toast from 'react-hot-toast';
@@ -18,6 +18,41 @@ export default function SurveysPage() {
     fetchSurveys();
   }, []);
 
+  // Live-Ergebnisse der geöffneten Umfrage; ein Stream pro Detailansicht statt pro Karte
+  useEffect(() => {
+    const surveyId = selectedSurvey?.id;
+    if (!surveyId || !selectedSurvey.isActive) return;
+
+    const applyResults = (results: SurveyResultsEvent) => (survey: Survey): Survey => {
+      if (survey.id !== results.surveyId) return survey;
+      const counts = new Map(results.options.map((option) => [option.id, option]));
+      return {
+        ...survey,
+        totalVotes: results.totalVotes,
+        options: survey.options.map((option) => {
+          const live = counts.get(option.id);
+          return live ? { ...option, voteCount: live.voteCount, percentage: live.percentage } : option;
+        }),
+      };
+    };
+    const markClosed = (survey: Survey): Survey =>
+      survey.id === surveyId ? { ...survey, isActive: false } : survey;
+
+    const source = surveyService.streamResults(
+      surveyId,
+      (results) => {
+        const apply = applyResults(results);
+        setSurveys((prev) => prev.map(apply));
+        setSelectedSurvey((prev) => (prev ? apply(prev) : prev));
+      },
+      () => {
+        setSurveys((prev) => prev.map(markClosed));
+        setSelectedSurvey((prev) => (prev ? markClosed(prev) : prev));
+      }
+    );
+    return () => source.close();
+  }, [selectedSurvey?.id, selectedSurvey?.isActive]);
+
   const fetchSurveys = async () => {
     try {
       const response = await surveyService.getSurveys({ size: 50 });
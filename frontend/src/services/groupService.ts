@@ -1,5 +1,5 @@
 import api from './api';
-import { IdeaGroup, GroupMessage } from '../types';
+import { IdeaGroup, GroupMessage, GroupChatEvent } from '../types';
 
 export const groupService = {
   // Alle Gruppen abrufen, in denen der Benutzer Mitglied ist
@@ -37,12 +37,28 @@ export const groupService = {
     await api.delete(`/groups/${groupId}/leave`);
   },
 
-  // Alle Nachrichten einer Gruppe abrufen
-  async getGroupMessages(groupId: number): Promise<GroupMessage[]> {
-    const response = await api.get<GroupMessage[]>(`/groups/${groupId}/messages`);
+  // Alle Nachrichten einer Gruppe abrufen (mit afterId nur die neueren)
+  async getGroupMessages(groupId: number, afterId?: number): Promise<GroupMessage[]> {
+    const response = await api.get<GroupMessage[]>(`/groups/${groupId}/messages`, {
+      params: afterId !== undefined ? { afterId } : undefined,
+    });
     return response.data;
   },
 
+  // Live-Chat einer Gruppe öffnen; der Server sendet Ereignisse gebündelt als JSON-Array
+  connectGroupChat(groupId: number, onEvent: (event: GroupChatEvent) => void): WebSocket {
+    const token = localStorage.getItem('ideaboard_token') ?? '';
+    const protocol = window.location.protocol === 'https:' ? 'wss' : 'ws';
+    const socket = new WebSocket(
+      `${protocol}://${window.location.host}/ws/groups/${groupId}?token=${encodeURIComponent(token)}`
+    );
+    socket.onmessage = (frame) => {
+      const events = JSON.parse(frame.data) as GroupChatEvent[];
+      events.forEach(onEvent);
+    };
+    return socket;
+  },
+
   // Eine Nachricht an eine Gruppe senden
   async sendGroupMessage(groupId: number, content: string): Promise<GroupMessage> {
     const response = await api.post<GroupMessage>(`/groups/${groupId}/messages`, { content });
@@ -9,7 +9,9 @@ import {
   CommentCreateRequest,
   LikeStatus,
   ChecklistItem,
-  ChecklistToggleResponse
+  ChecklistToggleResponse,
+  ChecklistBatchOperation,
+  ChecklistBatchResponse
 } from '../types';
 
 export const ideaService = {
@@ -86,8 +88,10 @@ export const ideaService = {
   },
 
   // Kommentare
-  async getComments(ideaId: number): Promise<Comment[]> {
-    const response = await api.get<Comment[]>(`/ideas/${ideaId}/comments`);
+  async getComments(ideaId: number, page = 0, size = 50): Promise<Comment[]> {
+    const response = await api.get<Comment[]>(`/ideas/${ideaId}/comments`, {
+      params: { page, size },
+    });
     return response.data;
   },
 
@@ -154,4 +158,14 @@ export const ideaService = {
   async deleteChecklistItem(ideaId: number, itemId: number): Promise<void> {
     await api.delete(`/ideas/${ideaId}/checklist/${itemId}`);
   },
+
+  async applyChecklistBatch(
+    ideaId: number,
+    operations: ChecklistBatchOperation[]
+  ): Promise<ChecklistBatchResponse> {
+    const response = await api.post<ChecklistBatchResponse>(`/ideas/${ideaId}/checklist/batch`, {
+      operations,
+    });
+    return response.data;
+  },
 };
@@ -1,5 +1,5 @@
 import api from './api';
-import { Survey, SurveyCreateRequest, Page, PageRequest } from '../types';
+import { Survey, SurveyCreateRequest, SurveyResultsEvent, Page, PageRequest } from '../types';
 
 export const surveyService = {
   async getSurveys(params: PageRequest = {}): Promise<Page<Survey>> {
@@ -34,4 +34,22 @@ export const surveyService = {
     const response = await api.get<Survey[]>('/surveys/active');
     return response.data;
   },
+
+  // Live-Ergebnisse per Server-Sent Events; EventSource kann keine Header setzen, daher Token als Query-Parameter
+  streamResults(
+    surveyId: number,
+    onResults: (results: SurveyResultsEvent) => void,
+    onClosed: () => void
+  ): EventSource {
+    const token = localStorage.getItem('ideaboard_token') ?? '';
+    const source = new EventSource(`/api/surveys/${surveyId}/stream?token=${encodeURIComponent(token)}`);
+    source.addEventListener('results', (event) => {
+      onResults(JSON.parse((event as MessageEvent).data) as SurveyResultsEvent);
+    });
+    source.addEventListener('closed', () => {
+      source.close();
+      onClosed();
+    });
+    return source;
+  },
 };
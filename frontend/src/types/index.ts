@@ -68,6 +68,19 @@ export interface ChecklistToggleResponse {
   allTodosCompleted: boolean;
 }
 
+export type ChecklistBatchOperation =
+  | { type: 'CREATE'; title: string }
+  | { type: 'UPDATE'; itemId: number; title: string }
+  | { type: 'TOGGLE'; itemId: number; completed?: boolean }
+  | { type: 'REORDER'; itemIds: number[] }
+  | { type: 'DELETE'; itemId: number };
+
+export interface ChecklistBatchResponse {
+  items: ChecklistItem[];
+  transitionedToInProgress: boolean;
+  allTodosCompleted: boolean;
+}
+
 export interface IdeaCreateRequest {
   title: string;
   description: string;
@@ -157,6 +170,14 @@ export interface SurveyOption {
   percentage?: number;
 }
 
+// Live-Ergebnis einer aktiven Umfrage (Server-Sent Event "results")
+export interface SurveyResultsEvent {
+  surveyId: number;
+  totalVotes: number;
+  options: { id: number; voteCount: number; percentage: number }[];
+  changed: number[];
+}
+
 export interface SurveyCreateRequest {
   question: string;
   description?: string;
@@ -186,7 +207,8 @@ export type NotificationType =
   | 'BADGE_EARNED'
   | 'LEVEL_UP'
   | 'MENTION'
-  | 'MESSAGE';
+  | 'MESSAGE'
+  | 'DIGEST';
 
 export interface Notification {
   id: number;
@@ -196,6 +218,8 @@ export interface Notification {
   link?: string;
   isRead: boolean;
   sender?: User;
+  // Anzahl zusammengefasster Ereignisse (1 = Einzelereignis)
+  aggregateCount?: number;
   createdAt: string;
 }
 
@@ -262,6 +286,12 @@ export interface SendGroupMessageRequest {
   content: string;
 }
 
+// Ereignisse des Live-Gruppenchats (WebSocket)
+export type GroupChatEvent =
+  | { type: 'message'; groupId: number; message: GroupMessage }
+  | { type: 'typing'; groupId: number; userId: number; username: string }
+  | { type: 'resync'; groupId: number };
+
 // Audit-Log-Typen
 export type AuditAction = 'CREATE' | 'UPDATE' | 'DELETE' | 'STATUS_CHANGE' | 'LOGIN' | 'LOGOUT';
 
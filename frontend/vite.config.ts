@@ -10,6 +10,11 @@ export default defineConfig({
         target: 'http://localhost:8080/ideaboard',
         changeOrigin: true,
       },
+      '/ws': {
+        target: 'ws://localhost:8080/ideaboard',
+        ws: true,
+        changeOrigin: true,
+      },
     },
   },
   build: {